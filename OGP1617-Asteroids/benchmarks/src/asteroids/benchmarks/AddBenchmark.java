@@ -0,0 +1,66 @@
+package asteroids.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import asteroids.model.*;
+
+/**
+ * A benchmark of adding an asteroid to a world, including the check that it doesn't overlap with
+ * the circles of that world. The asteroid is removed again after every addition.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AddBenchmark {
+
+	/**
+	 * The number of entities in the world.
+	 */
+	@Param({"10", "100", "1000", "10000"})
+	public int entities;
+
+	/**
+	 * The kinds of entities in the world.
+	 */
+	@Param({Scenarios.ASTEROIDS, Scenarios.MIXED})
+	public String mix;
+
+	private World world;
+	private Asteroid asteroid;
+
+	/**
+	 * Creates the world and an asteroid that fits in it.
+	 */
+	@Setup(Level.Trial)
+	public void createWorld(){
+		this.world = Scenarios.createWorld(this.entities, this.mix);
+		Random random = new Random(Scenarios.SEED+1);
+		while(this.asteroid == null){
+			Asteroid candidate = Scenarios.createAsteroid(random, this.world.getWidth());
+			try{
+				this.world.add(candidate);
+				this.world.remove(candidate);
+				this.asteroid = candidate;
+			}
+			catch(IllegalArgumentException exc){
+				// The candidate overlaps with a circle of the world, try another position.
+			}
+		}
+	}
+
+	@Benchmark
+	public World addAndRemove(){
+		this.world.add(this.asteroid);
+		this.world.remove(this.asteroid);
+		return this.world;
+	}
+}
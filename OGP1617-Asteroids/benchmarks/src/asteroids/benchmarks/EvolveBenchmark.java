@@ -0,0 +1,58 @@
+package asteroids.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import asteroids.model.*;
+
+/**
+ * A benchmark of a single evolve step of a world.
+ * Run it with the gc profiler to see the amount of memory allocated per step:
+ * 		java -jar benchmarks/target/benchmarks.jar EvolveBenchmark -prof gc
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvolveBenchmark {
+
+	/**
+	 * The number of entities in the world.
+	 */
+	@Param({"10", "100", "1000", "10000"})
+	public int entities;
+
+	/**
+	 * The kinds of entities in the world.
+	 */
+	@Param({Scenarios.ASTEROIDS, Scenarios.MIXED})
+	public String mix;
+
+	/**
+	 * The duration of a single evolve step, as used by the GUI.
+	 */
+	private static final double STEP = 1.0/60;
+
+	private World world;
+
+	/**
+	 * Creates the world. Every iteration evolves the same world from the start,
+	 * because bullets disappear as the world evolves.
+	 */
+	@Setup(Level.Iteration)
+	public void createWorld(){
+		this.world = Scenarios.createWorld(this.entities, this.mix);
+	}
+
+	@Benchmark
+	public World evolve(){
+		this.world.evolve(STEP, null);
+		return this.world;
+	}
+}
@@ -0,0 +1,83 @@
+package asteroids.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import asteroids.model.*;
+
+/**
+ * A benchmark of firing a bullet from a ship in a world. The bullet is loaded on the ship
+ * again after every shot.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FireBulletBenchmark {
+
+	/**
+	 * The number of entities in the world, next to the ship.
+	 */
+	@Param({"10", "100", "1000", "10000"})
+	public int entities;
+
+	/**
+	 * The kinds of entities in the world.
+	 */
+	@Param({Scenarios.ASTEROIDS, Scenarios.MIXED})
+	public String mix;
+
+	private World world;
+	private Ship ship;
+	private Bullet bullet;
+
+	/**
+	 * Creates the world and places a ship with one bullet in a free spot of it.
+	 */
+	@Setup(Level.Trial)
+	public void createWorld(){
+		this.world = Scenarios.createWorld(this.entities, this.mix);
+		double size = this.world.getWidth();
+		for(double x=50;this.ship == null && x<size-50;x+=10){
+			for(double y=50;this.ship == null && y<size-50;y+=10){
+				Ship candidate = new Ship(x, y, 0, 0, 20, 0, 0);
+				Bullet free = new Bullet(x+28, y, 0, 0, 5);
+				try{
+					this.world.add(candidate);
+				}
+				catch(IllegalArgumentException exc){
+					continue;
+				}
+				try{
+					this.world.add(free);
+					this.world.remove(free);
+					this.ship = candidate;
+				}
+				catch(IllegalArgumentException exc){
+					this.world.remove(candidate);
+				}
+			}
+		}
+		if(this.ship == null)
+			throw new IllegalStateException("No free spot for the ship");
+		this.bullet = new Bullet(this.ship.getPosX(), this.ship.getPosY(), 0, 0, 5);
+		this.ship.addBullet(this.bullet);
+	}
+
+	@Benchmark
+	public Ship fireBullet(){
+		this.ship.fireBullet();
+		if(this.bullet.getWorld() != null)
+			this.world.remove(this.bullet);
+		this.bullet.setPosX(this.ship.getPosX());
+		this.bullet.setPosY(this.ship.getPosY());
+		this.ship.addBullet(this.bullet);
+		return this.ship;
+	}
+}
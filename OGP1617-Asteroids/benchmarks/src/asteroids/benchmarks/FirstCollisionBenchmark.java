@@ -0,0 +1,46 @@
+package asteroids.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import asteroids.model.*;
+
+/**
+ * A benchmark of the search of the first collision in a world, as used by the facade.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FirstCollisionBenchmark {
+
+	/**
+	 * The number of entities in the world.
+	 */
+	@Param({"10", "100", "1000", "10000"})
+	public int entities;
+
+	/**
+	 * The kinds of entities in the world.
+	 */
+	@Param({Scenarios.ASTEROIDS, Scenarios.MIXED})
+	public String mix;
+
+	private World world;
+
+	@Setup(Level.Trial)
+	public void createWorld(){
+		this.world = Scenarios.createWorld(this.entities, this.mix);
+	}
+
+	@Benchmark
+	public Object[] getFirstCollisionArray(){
+		return this.world.getFirstCollisionArray();
+	}
+}
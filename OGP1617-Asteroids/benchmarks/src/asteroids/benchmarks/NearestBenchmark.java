@@ -0,0 +1,81 @@
+package asteroids.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import asteroids.model.*;
+
+/**
+ * A benchmark of the queries for the nearest entities in one step of a world, in which every ship asks for
+ * its nearest asteroid and its nearest entity a few times. The positions of the entities are considered
+ * changed before every step, like after the world evolved.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearestBenchmark {
+
+	/**
+	 * The number of entities in the world, next to the ships.
+	 */
+	@Param({"10", "100", "1000", "10000"})
+	public int entities;
+
+	/**
+	 * The kinds of entities in the world.
+	 */
+	@Param({Scenarios.ASTEROIDS, Scenarios.MIXED})
+	public String mix;
+
+	/**
+	 * The number of times every ship asks for its nearest entities in one step.
+	 */
+	@Param({"10"})
+	public int queries;
+
+	private World world;
+	private final List<Ship> ships = new ArrayList<Ship>();
+
+	/**
+	 * Creates the world and places ten ships in free spots of it.
+	 */
+	@Setup(Level.Trial)
+	public void createWorld(){
+		this.world = Scenarios.createWorld(this.entities, this.mix);
+		double size = this.world.getWidth();
+		for(double x=50;this.ships.size()<10 && x<size-50;x+=size/7){
+			for(double y=50;this.ships.size()<10 && y<size-50;y+=10){
+				Ship candidate = new Ship(x, y, 0, 0, 20, 0, 0);
+				try{
+					this.world.add(candidate);
+					this.ships.add(candidate);
+					y += size/7;
+				}
+				catch(IllegalArgumentException exc){
+					// The spot is taken, try the next one.
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public void step(Blackhole blackhole){
+		this.world.updateCirclesLibrary();
+		for(int i=0;i<this.queries;i++){
+			for(Ship ship:this.ships){
+				blackhole.consume(ship.getNearestAsteroid());
+				blackhole.consume(ship.getNearestCircle());
+			}
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package asteroids.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import asteroids.model.*;
+import asteroids.part3.programs.internal.ProgramParser;
+
+/**
+ * A benchmark of the execution of a ship program that loops over some arithmetic,
+ * calls a function and queries the nearest asteroid. The program doesn't perform actions,
+ * so every execution runs the program from the start to the end.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgramBenchmark {
+
+	/**
+	 * The program that is executed.
+	 */
+	public static final String CODE =
+			"def square { return $1 * $1; } "
+			+ "i := 0.0; "
+			+ "total := 0.0; "
+			+ "while i < 20.0 { "
+			+ "  nearest := asteroid; "
+			+ "  total := total + sqrt(square((getx self) + (-(getx nearest))) + square((gety self) + (-(gety nearest)))); "
+			+ "  i := i + 1.0; "
+			+ "} "
+			+ "print total; ";
+
+	/**
+	 * The number of entities in the world of the ship.
+	 */
+	@Param({"10", "100", "1000", "10000"})
+	public int entities;
+
+	/**
+	 * The kinds of entities in the world.
+	 */
+	@Param({Scenarios.ASTEROIDS, Scenarios.MIXED})
+	public String mix;
+
+	private World world;
+	private Ship ship;
+
+	@Setup(Level.Trial)
+	public void createWorld(){
+		this.world = Scenarios.createWorld(this.entities, this.mix);
+		double size = this.world.getWidth();
+		for(double x=50;this.ship == null && x<size-50;x+=10){
+			for(double y=50;this.ship == null && y<size-50;y+=10){
+				Ship candidate = new Ship(x, y, 0, 0, 20, 0, 0);
+				try{
+					this.world.add(candidate);
+					this.ship = candidate;
+				}
+				catch(IllegalArgumentException exc){
+					// The spot is taken, try the next one.
+				}
+			}
+		}
+	}
+
+	/**
+	 * Whether the program is interpreted or compiled.
+	 */
+	@Param({Scenarios.INTERPRETED, Scenarios.COMPILED})
+	public String mode;
+
+	/**
+	 * Loads a freshly parsed program every iteration, so that the printed values don't pile up.
+	 * A compiled program is compiled once for the whole trial instead, because every compilation
+	 * generates a new class that the JIT has to warm up again.
+	 */
+	@Setup(Level.Iteration)
+	public void loadProgram(){
+		if(this.mode.equals(Scenarios.COMPILED) && this.ship.getProgram() != null)
+			return;
+		Program program = ProgramParser.parseProgramFromString(CODE, new ProgramFactory());
+		if(this.mode.equals(Scenarios.COMPILED) && !program.compile())
+			throw new IllegalStateException("The program can't be compiled");
+		this.ship.setProgram(program);
+	}
+
+	@Benchmark
+	public List<Object> execute(){
+		return this.ship.executeProgram(1.0);
+	}
+}
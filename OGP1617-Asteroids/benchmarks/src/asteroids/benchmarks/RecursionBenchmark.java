@@ -0,0 +1,71 @@
+package asteroids.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import asteroids.model.*;
+import asteroids.part3.programs.internal.ProgramParser;
+
+/**
+ * A benchmark of the execution of a ship program that is dominated by recursive function calls.
+ * The world of the ship is empty, because the program doesn't query it.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecursionBenchmark {
+
+	/**
+	 * The program that is executed. It computes the twelfth Fibonacci number recursively,
+	 * which takes 465 function calls.
+	 */
+	public static final String CODE =
+			"def fib { "
+			+ "  if $1 < 1.5 { return $1; } "
+			+ "  return fib($1 + -1.0) + fib($1 + -2.0); "
+			+ "} "
+			+ "print fib(12.0); ";
+
+	private Ship ship;
+
+	@Setup(Level.Trial)
+	public void createWorld(){
+		World world = new World(1000, 1000);
+		this.ship = new Ship(500, 500, 0, 0, 20, 0, 0);
+		world.add(this.ship);
+	}
+
+	/**
+	 * Whether the program is interpreted or compiled.
+	 */
+	@Param({Scenarios.INTERPRETED, Scenarios.COMPILED})
+	public String mode;
+
+	/**
+	 * Loads a freshly parsed program every iteration, so that the printed values don't pile up.
+	 * A compiled program is compiled once for the whole trial instead, because every compilation
+	 * generates a new class that the JIT has to warm up again.
+	 */
+	@Setup(Level.Iteration)
+	public void loadProgram(){
+		if(this.mode.equals(Scenarios.COMPILED) && this.ship.getProgram() != null)
+			return;
+		Program program = ProgramParser.parseProgramFromString(CODE, new ProgramFactory());
+		if(this.mode.equals(Scenarios.COMPILED) && !program.compile())
+			throw new IllegalStateException("The program can't be compiled");
+		this.ship.setProgram(program);
+	}
+
+	@Benchmark
+	public List<Object> execute(){
+		return this.ship.executeProgram(1.0);
+	}
+}
@@ -0,0 +1,100 @@
+package asteroids.benchmarks;
+
+import java.util.Random;
+
+import asteroids.model.*;
+
+/**
+ * A class of helpers that build the worlds used by the benchmarks.
+ * Every world is built from a fixed seed, so that every run of a benchmark measures the same world.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class Scenarios {
+
+	/**
+	 * The seed of the random positions and velocities.
+	 */
+	public static final long SEED = 42;
+
+	/**
+	 * Only asteroids.
+	 */
+	public static final String ASTEROIDS = "asteroids";
+
+	/**
+	 * Alternately an asteroid and a bullet.
+	 */
+	public static final String MIXED = "mixed";
+
+	/**
+	 * Programs that are evaluated node by node.
+	 */
+	public static final String INTERPRETED = "interpreted";
+
+	/**
+	 * Programs that are compiled to JVM classes.
+	 */
+	public static final String COMPILED = "compiled";
+
+	/**
+	 * Returns the size of a square world for the given number of entities.
+	 * Every entity has on average 100 by 100 km to itself.
+	 *
+	 * @param entities
+	 * 		  The number of entities in the world.
+	 */
+	public static double getWorldSize(int entities){
+		return 100*Math.sqrt(Math.max(entities, 4));
+	}
+
+	/**
+	 * Creates a new world filled with the given number of entities that don't overlap.
+	 *
+	 * @param entities
+	 * 		  The number of entities in the new world.
+	 * @param mix
+	 * 		  The kinds of entities, ASTEROIDS or MIXED.
+	 * @return A new world with the given number of entities.
+	 * @throws IllegalArgumentException
+	 * 		   The mix is unknown.
+	 */
+	public static World createWorld(int entities, String mix) throws IllegalArgumentException{
+		if(!ASTEROIDS.equals(mix) && !MIXED.equals(mix))
+			throw new IllegalArgumentException(mix);
+		Random random = new Random(SEED);
+		double size = getWorldSize(entities);
+		World world = new World(size, size);
+		int added = 0;
+		while(added<entities){
+			Circle circle;
+			if(MIXED.equals(mix) && added%2 == 1)
+				circle = new Bullet(10+(size-20)*random.nextDouble(), 10+(size-20)*random.nextDouble(),
+						500*random.nextDouble()-250, 500*random.nextDouble()-250, 2+3*random.nextDouble());
+			else
+				circle = createAsteroid(random, size);
+			try{
+				world.add(circle);
+				added++;
+			}
+			catch(IllegalArgumentException exc){
+				// The circle overlaps with another one, try another position.
+			}
+		}
+		return world;
+	}
+
+	/**
+	 * Creates a new asteroid at a random position within a world of the given size.
+	 *
+	 * @param random
+	 * 		  The source of the random position, velocity and radius.
+	 * @param size
+	 * 		  The size of the world.
+	 */
+	public static Asteroid createAsteroid(Random random, double size){
+		return new Asteroid(20+(size-40)*random.nextDouble(), 20+(size-40)*random.nextDouble(),
+				200*random.nextDouble()-100, 200*random.nextDouble()-100, 5+10*random.nextDouble());
+	}
+}
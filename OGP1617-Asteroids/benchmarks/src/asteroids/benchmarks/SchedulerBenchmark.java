@@ -0,0 +1,98 @@
+package asteroids.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import asteroids.model.*;
+import asteroids.part3.programs.internal.ProgramParser;
+
+/**
+ * A benchmark of the execution of the programs of all ships of a world for one time step, one after the other
+ * or by a program scheduler on a pool with the given number of threads. Every ship executes the program of the
+ * program benchmark, which runs from the start to the end in every step.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerBenchmark {
+
+	/**
+	 * The number of ships in the world.
+	 */
+	@Param({"16", "128"})
+	public int ships;
+
+	/**
+	 * The number of threads of the pool of the scheduler, or 0 to execute the programs one after the other.
+	 */
+	@Param({"0", "1", "4"})
+	public int threads;
+
+	private World world;
+	private final List<Ship> fleet = new ArrayList<Ship>();
+	private ForkJoinPool pool;
+	private ProgramScheduler scheduler;
+
+	/**
+	 * Creates a world with 1000 asteroids and places the ships in free spots of it.
+	 */
+	@Setup(Level.Trial)
+	public void createWorld(){
+		this.world = Scenarios.createWorld(1000, Scenarios.ASTEROIDS);
+		double size = this.world.getWidth();
+		for(double x=50;this.fleet.size()<this.ships && x<size-50;x+=50){
+			for(double y=50;this.fleet.size()<this.ships && y<size-50;y+=50){
+				Ship candidate = new Ship(x, y, 0, 0, 20, 0, 0);
+				try{
+					this.world.add(candidate);
+					this.fleet.add(candidate);
+				}
+				catch(IllegalArgumentException exc){
+					// The spot is taken, try the next one.
+				}
+			}
+		}
+		if(this.threads>0){
+			this.pool = new ForkJoinPool(this.threads);
+			this.scheduler = new ProgramScheduler(this.pool);
+		}
+	}
+
+	/**
+	 * Loads a freshly parsed program on every ship every iteration, so that the printed values don't pile up.
+	 */
+	@Setup(Level.Iteration)
+	public void loadPrograms(){
+		Program program = ProgramParser.parseProgramFromString(ProgramBenchmark.CODE, new ProgramFactory());
+		for(Ship ship:this.fleet)
+			ship.setProgram(program);
+	}
+
+	@TearDown(Level.Trial)
+	public void shutdown(){
+		if(this.pool != null)
+			this.pool.shutdown();
+	}
+
+	@Benchmark
+	public World step(){
+		if(this.scheduler != null)
+			this.scheduler.execute(this.fleet, 1.0, null);
+		else{
+			for(Ship ship:this.fleet)
+				ship.executeProgram(1.0);
+		}
+		this.world.updateCirclesLibrary();
+		return this.world;
+	}
+}
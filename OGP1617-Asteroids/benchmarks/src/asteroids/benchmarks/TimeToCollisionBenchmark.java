@@ -0,0 +1,56 @@
+package asteroids.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import asteroids.model.*;
+
+/**
+ * A benchmark of the exact time to collision between two circles.
+ * Every operation computes the time to collision of every circle of a world with the next one.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeToCollisionBenchmark {
+
+	/**
+	 * The number of entities in the world.
+	 */
+	@Param({"10", "100", "1000", "10000"})
+	public int entities;
+
+	/**
+	 * The kinds of entities in the world.
+	 */
+	@Param({Scenarios.ASTEROIDS, Scenarios.MIXED})
+	public String mix;
+
+	private Circle[] circles;
+
+	@Setup(Level.Trial)
+	public void createWorld(){
+		World world = Scenarios.createWorld(this.entities, this.mix);
+		List<Circle> circles = new ArrayList<Circle>();
+		for(Object entity:world.getWorldEntities())
+			circles.add((Circle)entity);
+		this.circles = circles.toArray(new Circle[circles.size()]);
+	}
+
+	@Benchmark
+	public void getTimeToCollision(Blackhole blackhole){
+		Circle[] circles = this.circles;
+		for(int i=0;i<circles.length;i++)
+			blackhole.consume(circles[i].getTimeToCollision(circles[(i+1)%circles.length]));
+	}
+}
@@ -12,6 +12,7 @@ import asteroids.model.Asteroid;
 import asteroids.model.Bullet;
 import asteroids.model.Planetoid;
 import asteroids.model.Program;
+import asteroids.model.ProgramCache;
 import asteroids.model.Ship;
 import asteroids.model.World;
 import asteroids.part2.internal.AsteroidsFrame2;
@@ -21,7 +22,6 @@ import asteroids.part2.internal.Sound;
 import asteroids.part3.facade.IFacade;
 import asteroids.part3.programs.IProgramFactory;
 import asteroids.part3.programs.internal.ParseOutcome;
-import asteroids.part3.programs.internal.ProgramParser;
 import asteroids.util.ModelException;
 
 @SuppressWarnings("serial")
@@ -154,7 +154,7 @@ public class AsteroidsFrame3 extends AsteroidsFrame2<IFacade> {
 			ParseOutcome<? extends Program> parseOutcome;
 			try {
 				IProgramFactory<?, ?, ?, ? extends Program> programFactory = facade.createProgramFactory();
-				parseOutcome = ProgramParser.create(programFactory).parseFile(aiProgramUrl);
+				parseOutcome = ProgramCache.getDefault().parseFile(aiProgramUrl, programFactory);
 			} catch (IOException e) {
 				System.err.println(e.getMessage());
 				getSound().play("load-error");
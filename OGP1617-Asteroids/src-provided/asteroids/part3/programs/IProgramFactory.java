@@ -2,7 +2,6 @@ package asteroids.part3.programs;
 
 import java.util.List;
 
-import asteroids.tests.Part3TestFull;
 
 /**
  * A program factory is used by the parser ({@link ProgramParser}) to construct
@@ -25,7 +24,7 @@ import asteroids.tests.Part3TestFull;
  * 
  * <p>
  * For testing, you may use the methods from {@link ProgramParser} yourself, as
- * demonstrated in the test file {@link Part3TestFull}.
+ * demonstrated in the test file {@link asteroids.tests.Part3TestFull}.
  * 
  * <p>
  * You should declare your class as follows:<code><pre>
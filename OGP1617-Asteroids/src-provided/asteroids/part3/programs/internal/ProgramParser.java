@@ -6,17 +6,24 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.BaseErrorListener;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 
 import asteroids.model.Program;
 import asteroids.part3.programs.IProgramFactory;
 import asteroids.part3.programs.internal.generated.AsteroidsProgramLexer;
 import asteroids.part3.programs.internal.generated.AsteroidsProgramParser;
+import asteroids.part3.programs.internal.generated.AsteroidsProgramParser.ProgramContext;
 import asteroids.util.internal.ResourceUtils;
 
 /**
@@ -58,6 +65,9 @@ import asteroids.util.internal.ResourceUtils;
  * false and <code>parser.getErrors()</code> can be used to retrieve the list of
  * errors during parsing.
  * 
+ * A parser is not thread-safe. To parse programs from several threads, use a
+ * {@link ProgramParserPool}.
+ * 
  *
  * @param E
  *            The type of expressions
@@ -78,6 +88,22 @@ public class ProgramParser<E, S, F, P> {
 		this.factory = factory;
 	}
 
+	/**
+	 * The lexer and parser, which are reused by every parse. The generated
+	 * lexer and parser keep their DFA and prediction context caches in static
+	 * fields, so these caches are shared by all instances anyway.
+	 */
+	private AsteroidsProgramLexer lexer;
+	private AsteroidsProgramParser parser;
+
+	private final ANTLRErrorListener errorListener = new BaseErrorListener() {
+		@Override
+		public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+				int charPositionInLine, String msg, RecognitionException e) {
+			errors.add(msg + " (" + line + ", " + charPositionInLine + ")");
+		}
+	};
+
 	public IProgramFactory<E, S, F, P> getFactory() {
 		return factory;
 	}
@@ -132,18 +158,13 @@ public class ProgramParser<E, S, F, P> {
 	protected ParseOutcome<P> parse(CharStream input) {
 		reset();
 
-		AsteroidsProgramLexer lexer = new AsteroidsProgramLexer(input);
-		AsteroidsProgramParser parser = new AsteroidsProgramParser(new CommonTokenStream(lexer));
-		parser.addErrorListener(new BaseErrorListener() {
-			@Override
-			public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
-					int charPositionInLine, String msg, RecognitionException e) {
-				errors.add(msg + " (" + line + ", " + charPositionInLine + ")");
-			}
-		});
+		if (lexer == null)
+			lexer = new AsteroidsProgramLexer(input);
+		else
+			lexer.setInputStream(input);
 		ParserVisitor<E, S, F, P> visitor = new ParserVisitor<>(factory);
 		try {
-			visitor.visitProgram(parser.program());
+			visitor.visitProgram(parseTree(new CommonTokenStream(lexer)));
 			if (errors.isEmpty()) {
 			  assert visitor.getMain() != null;
 				P program = factory.createProgram(visitor.getFunctions(),visitor.getMain());
@@ -156,7 +177,36 @@ public class ProgramParser<E, S, F, P> {
 			e.printStackTrace();
 			errors.add(e.toString());
 		}
-		return ParseOutcome.failure(errors);
+		return ParseOutcome.failure(new ArrayList<>(errors));
+	}
+
+	/**
+	 * Returns the parse tree of the given tokens.
+	 * 
+	 * The tokens are parsed with SLL prediction first, which is faster than
+	 * full LL prediction but gives up at the first syntax error. Only if it
+	 * gives up are the tokens parsed again with full LL prediction, which
+	 * reports the syntax errors and recovers from them.
+	 */
+	private ProgramContext parseTree(CommonTokenStream tokens) {
+		if (parser == null)
+			parser = new AsteroidsProgramParser(tokens);
+		else
+			parser.setTokenStream(tokens);
+		parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+		parser.removeErrorListeners();
+		parser.setErrorHandler(new BailErrorStrategy());
+		try {
+			return parser.program();
+		} catch (ParseCancellationException e) {
+			tokens.seek(0);
+			parser.reset();
+			parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+			parser.addErrorListener(ConsoleErrorListener.INSTANCE);
+			parser.addErrorListener(errorListener);
+			parser.setErrorHandler(new DefaultErrorStrategy());
+			return parser.program();
+		}
 	}
 
 	protected void reset() {
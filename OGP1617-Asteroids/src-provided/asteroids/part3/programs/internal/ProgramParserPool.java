@@ -0,0 +1,89 @@
+package asteroids.part3.programs.internal;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import asteroids.part3.programs.IProgramFactory;
+
+/**
+ * Thread-safe pool of parsers for Asteroids programs.
+ *
+ * A single {@link ProgramParser} keeps the errors of its last parse and
+ * reuses its lexer and parser, so it can only be used by one thread at a time.
+ * A pool lends every parse a parser that no other thread is using, and keeps
+ * the parser for later parses afterwards. All parsers of a pool share its
+ * factory, which must be safe to use from several threads at once.
+ *
+ * <pre>
+ * <code>
+ * ProgramParserPool&lt;MyExpression, MyStatement, MyFunction, Program&gt; pool = new ProgramParserPool<>(factory);
+ * List&lt;ParseOutcome&lt;Program&gt;&gt; outcomes = pool.parseAll(sources);
+ * </code>
+ * </pre>
+ *
+ * @param E
+ *            The type of expressions
+ * @param S
+ *            The type of statements
+ * @param F
+ *            The type of functions
+ * @param P
+ *            The type of Program
+ */
+public class ProgramParserPool<E, S, F, P> {
+
+	private final IProgramFactory<E, S, F, P> factory;
+
+	private final ConcurrentLinkedQueue<ProgramParser<E, S, F, P>> idle = new ConcurrentLinkedQueue<>();
+
+	public ProgramParserPool(IProgramFactory<E, S, F, P> factory) {
+		this.factory = factory;
+	}
+
+	public IProgramFactory<E, S, F, P> getFactory() {
+		return factory;
+	}
+
+	/**
+	 * Returns the outcome of parsing the given string with a parser of this
+	 * pool.
+	 */
+	public ParseOutcome<P> parseString(String string) {
+		ProgramParser<E, S, F, P> parser = borrow();
+		try {
+			return parser.parseString(string);
+		} finally {
+			idle.offer(parser);
+		}
+	}
+
+	/**
+	 * Returns the outcome of parsing the file with the given URL with a parser
+	 * of this pool.
+	 */
+	public ParseOutcome<P> parseFile(URL url) throws IOException {
+		ProgramParser<E, S, F, P> parser = borrow();
+		try {
+			return parser.parseFile(url);
+		} finally {
+			idle.offer(parser);
+		}
+	}
+
+	/**
+	 * Returns the outcomes of parsing the given strings, in the same order as
+	 * the strings. The strings are parsed in parallel on the common fork-join
+	 * pool.
+	 */
+	public List<ParseOutcome<P>> parseAll(List<String> strings) {
+		return strings.parallelStream().map(this::parseString).collect(Collectors.toList());
+	}
+
+	private ProgramParser<E, S, F, P> borrow() {
+		ProgramParser<E, S, F, P> parser = idle.poll();
+		return parser != null ? parser : ProgramParser.create(factory);
+	}
+}
@@ -667,7 +667,7 @@ public class Facade implements IFacade {
 
 	@Override
 	public List<Object> executeProgram(Ship ship, double dt) throws ModelException {
-		try{return ship.getProgram().execute(dt);}
+		try{return ship.executeProgram(dt);}
 		catch(Exception e){
 			throw new ModelException(e);
 		}
@@ -8,24 +8,33 @@ public class ActionStatement extends Statement {
 	
 	private final Action action;
 	
-	public void evaluate(double time) throws NotEnoughTimeException{
+	public void evaluate(ExecutionContext context, double time) throws NotEnoughTimeException{
 		if(this.getFunction() != null)
-			throw new AssertionError();
+			throw new IllegalStatementError();
 		if(time<0.2)
 			throw new NotEnoughTimeException(time);
-		switch(action){
-		case FIRE:
-			this.getProgram().getUser().fireBullet();
-			break;
-		case THRUST_ON:
-			this.getProgram().getUser().setThruster(true);
-			break;
-		case THRUST_OFF:
-			this.getProgram().getUser().setThruster(false);
-			break;
-		case SKIP:
-			break;
-		}
+		context.perform(action);
+	}
+
+	@Override
+	double getRemainingTime(ExecutionContext context, double time){
+		return time-0.2;
 	}
 
+	@Override
+	Statement optimize(ProgramOptimizer optimizer){
+		optimizer.act();
+		return this;
+	}
+
+	@Override
+	void compile(ProgramCompiler compiler, String time){
+		if(this.getFunction() != null){
+			compiler.line("illegalStatement();");
+			return;
+		}
+		compiler.line("checkTime(" + time + ");");
+		if(action != Action.SKIP)
+			compiler.line("context.perform(Action." + action.name() + ");");
+	}
 }
@@ -2,8 +2,17 @@ package asteroids.model;
 import asteroids.model.*;
 public class AnyExpression extends Expression<Circle> {
 	
-	public Circle getValue(){
-		return this.getProgram().getUser().getNearestCircle();
+	public Circle getValue(ExecutionContext context){
+		return context.queryWorld(WorldQuery.ANY);
 	}
 
+	@Override
+	Expression<?> optimize(ProgramOptimizer optimizer){
+		return optimizer.queryWorld(this);
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		return new ProgramCompiler.Code(ProgramCompiler.Kind.OBJECT, "context.queryWorld(WorldQuery.ANY)");
+	}
 }
@@ -13,30 +13,65 @@ public class AssignmentStatement extends Statement {
 	public void setFunction(Function newFunction){
 		super.setFunction(newFunction);
 		expression.setFunction(newFunction);
+		if(newFunction != null)
+			this.localSlot = newFunction.resolveVariable(this.name);
 	}
 	
 	@Override
 	public void setProgram(Program newProgram){
 		super.setProgram(newProgram);
 		expression.setProgram(newProgram);
+		if(newProgram != null){
+			this.globalSlot = newProgram.resolveVariable(this.name);
+			this.functionName = newProgram.containsFunction(this.name);
+		}
 	}
 	
-	public void evaluate(double time) throws NotEnoughTimeException{
-		Object value = this.expression.getValue();
+	/**
+	 * The slot of the variable among the global variables of the program, and among the
+	 * local variables of the function in which this statement occurs.
+	 */
+	private int globalSlot = -1;
+	private int localSlot = -1;
+	
+	/**
+	 * Whether the program of this statement has a function with the name of the variable.
+	 */
+	private boolean functionName = false;
+	
+	public void evaluate(ExecutionContext context, double time) throws NotEnoughTimeException{
+		Object value = this.expression.getValue(context);
 		if(time<0.2)
 			throw new NotEnoughTimeException(time);
 		if(this.getFunction() == null){
-			if( (this.getProgram().getVariable(name) == null || this.getProgram().getVariable(name).getClass().equals(value.getClass()))
-					&& !this.getProgram().containsFunction(name))
-				this.getProgram().setVariable(name,value);
-			else
-				throw new IllegalArgumentException();
-			}
-		else{
-			if(this.getFunction().getParameter(name) == null||this.getFunction().getVariable(name) == null || this.getFunction().getVariable(this.name).getClass().equals(value.getClass()))
-				this.getFunction().setVariable(name,value);
+			Object current = context.getVariable(this.globalSlot);
+			if( (current == null || current.getClass().equals(value.getClass()))
+					&& !this.functionName)
+				context.setVariable(this.globalSlot,value);
 			else
 				throw new IllegalArgumentException();
 			}
+		else
+			this.getFunction().setVariable(context, this.localSlot,value);
+	}
+
+	@Override
+	Statement optimize(ProgramOptimizer optimizer){
+		optimizer.assign(this.name);
+		return new AssignmentStatement(this.name, this.expression.optimize(optimizer));
+	}
+
+	@Override
+	void compile(ProgramCompiler compiler, String time){
+		String value = compiler.newName("value");
+		compiler.line("{");
+		compiler.line("Object " + value + " = " + this.expression.compile(compiler).asObject() + ";");
+		if(this.getFunction() == null){
+			compiler.line("checkTime(" + time + ");");
+			compiler.line("assign(" + this.globalSlot + ", " + value + ", " + this.functionName + ");");
+		}
+		else
+			compiler.line("local" + this.localSlot + " = " + value + ";");
+		compiler.line("}");
 	}
 }
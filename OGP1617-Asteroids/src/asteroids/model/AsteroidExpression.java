@@ -2,8 +2,17 @@ package asteroids.model;
 import asteroids.model.*;
 public class AsteroidExpression extends Expression<Asteroid> {
 	@Override
-	public Asteroid getValue(){
-		Ship user = this.getProgram().getUser();
-		return user.getNearestAsteroid();
+	public Asteroid getValue(ExecutionContext context){
+		return (Asteroid)context.queryWorld(WorldQuery.ASTEROID);
+	}
+
+	@Override
+	Expression<?> optimize(ProgramOptimizer optimizer){
+		return optimizer.queryWorld(this);
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		return new ProgramCompiler.Code(ProgramCompiler.Kind.OBJECT, "context.queryWorld(WorldQuery.ASTEROID)");
 	}
 }
@@ -0,0 +1,195 @@
+package asteroids.model;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * A class of print sinks that hand every printed value to a consumer on a thread of their own, so that a slow consumer,
+ * such as a file, doesn't hold up the program. The values are handed over in the order in which they were printed.
+ * The values that executing the program returns are kept by another sink. A program waits when the consumer falls
+ * more than a fixed number of values behind, so the values that are not consumed yet never use more than a fixed
+ * amount of memory either.
+ *
+ * A sink can be used by the contexts of any number of ships at once if the sink that keeps its values can.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class AsyncPrintSink implements PrintSink, Closeable {
+
+	/**
+	 * The number of values the consumer of a sink may fall behind.
+	 */
+	private static final int BACKLOG = 4096;
+
+	/**
+	 * Creates a new sink that hands printed values to the given consumer, and keeps them in the given sink.
+	 *
+	 * @param retained
+	 * 		  The sink that keeps the values of the new sink.
+	 * @param consumer
+	 * 		  The consumer of the printed values.
+	 * @throws NullPointerException
+	 * 		   The retaining sink or the consumer is not effective.
+	 * 		   |retained == null || consumer == null
+	 */
+	public AsyncPrintSink(PrintSink retained, Consumer<Object> consumer) throws NullPointerException{
+		this(retained, consumer, null);
+	}
+
+	private AsyncPrintSink(PrintSink retained, Consumer<Object> consumer, Closeable resource) throws NullPointerException{
+		if(retained == null || consumer == null)
+			throw new NullPointerException();
+		this.retained = retained;
+		this.consumer = consumer;
+		this.resource = resource;
+		this.writer = new Thread(this::drain, "print-sink");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Returns a new sink that writes every printed value on a line of the given file, and keeps them in the given sink.
+	 * The file is created, or emptied if it exists, and is closed when the sink is closed.
+	 *
+	 * @param retained
+	 * 		  The sink that keeps the values of the new sink.
+	 * @param file
+	 * 		  The file to which the values are written.
+	 * @throws IOException
+	 * 		   The file can't be opened.
+	 */
+	public static AsyncPrintSink toFile(PrintSink retained, Path file) throws IOException{
+		final BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+		return new AsyncPrintSink(retained, value -> {
+			try{
+				out.write(String.valueOf(value));
+				out.newLine();
+			}
+			catch(IOException exc){
+				throw new UncheckedIOException(exc);
+			}
+		}, out);
+	}
+
+	private final PrintSink retained;
+	private final Consumer<Object> consumer;
+	private final Closeable resource;
+	private final Thread writer;
+	private final BlockingQueue<Object> queue = new ArrayBlockingQueue<Object>(BACKLOG);
+
+	/**
+	 * The values that stand for a printed null and for the end of the values in the queue.
+	 */
+	private static final Object NULL = new Object();
+	private static final Object END = new Object();
+
+	/**
+	 * Whether this sink is closed. It only changes while the queue is locked, so no value is queued after the end.
+	 */
+	private volatile boolean closed = false;
+
+	/**
+	 * The first exception thrown by the consumer, or null if it threw none.
+	 */
+	private volatile RuntimeException failure = null;
+
+	/**
+	 * Keeps the given value and hands it to the consumer of this sink, unless this sink is closed.
+	 */
+	@Override
+	public void print(Object value){
+		this.retained.print(value);
+		synchronized(this.queue){
+			if(!this.closed)
+				this.put(value == null ? NULL : value);
+		}
+	}
+
+	/**
+	 * Returns the values kept by the retaining sink of this sink.
+	 */
+	@Override
+	public List<Object> getValues(){
+		return this.retained.getValues();
+	}
+
+	/**
+	 * Waits until the consumer has consumed every printed value, and closes the file of this sink if it has one.
+	 * Values printed to a closed sink are only kept, so a program that still prints to it goes on as before.
+	 *
+	 * @throws IOException
+	 * 		   The consumer failed to consume a value, or the file can't be closed.
+	 */
+	@Override
+	public void close() throws IOException{
+		synchronized(this.queue){
+			if(this.closed)
+				return;
+			this.closed = true;
+			this.put(END);
+		}
+		boolean interrupted = false;
+		while(this.writer.isAlive()){
+			try{
+				this.writer.join();
+			}
+			catch(InterruptedException exc){
+				interrupted = true;
+			}
+		}
+		if(interrupted)
+			Thread.currentThread().interrupt();
+		if(this.resource != null)
+			this.resource.close();
+		if(this.failure instanceof UncheckedIOException)
+			throw ((UncheckedIOException)this.failure).getCause();
+		if(this.failure != null)
+			throw new IOException(this.failure);
+	}
+
+	private void put(Object value){
+		boolean interrupted = false;
+		while(true){
+			try{
+				this.queue.put(value);
+				break;
+			}
+			catch(InterruptedException exc){
+				interrupted = true;
+			}
+		}
+		if(interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Hands the values in the queue to the consumer until the end of the values. Once the consumer fails,
+	 * the remaining values are dropped.
+	 */
+	private void drain(){
+		while(true){
+			Object value;
+			try{
+				value = this.queue.take();
+			}
+			catch(InterruptedException exc){
+				continue;
+			}
+			if(value == END)
+				return;
+			if(this.failure != null)
+				continue;
+			try{
+				this.consumer.accept(value == NULL ? null : value);
+			}
+			catch(RuntimeException exc){
+				this.failure = exc;
+			}
+		}
+	}
+}
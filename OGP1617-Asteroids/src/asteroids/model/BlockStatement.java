@@ -4,12 +4,13 @@ import java.util.*;
 public class BlockStatement extends Statement{
 	public BlockStatement(List<Statement> statements){
 		this.statements = statements;
-		this.stoppedStatementIndex = 0;
 	}
 	
 	@Override
 	public void setProgram(Program newProgram){
 		super.setProgram(newProgram);
+		if(newProgram != null)
+			this.slot = newProgram.resolveBlock();
 		for(Statement statement:this.getStatements()){
 			statement.setProgram(newProgram);
 		}
@@ -23,29 +24,34 @@ public class BlockStatement extends Statement{
 		}
 	}
 	
-	private double remainingTime = 0;
+	/**
+	 * The slot of the statement at which this block was stopped and the time that remained after it,
+	 * in the execution contexts of its program.
+	 */
+	private int slot = -1;
 	
-	public double getRemainingTime(){
-		return this.remainingTime;
+	/**
+	 * Returns the time that remained after the last evaluation of this block in the given context.
+	 */
+	public double getRemainingTime(ExecutionContext context){
+		return context.getRemainingTime(this.slot);
 	}
 	
-	private int stoppedStatementIndex;
-	
 	private final List<Statement> statements;
 	
 	public boolean hasFunctionCall(Function f){
 		return true;
 	}
 	
-	public void evaluate(double time) throws NotEnoughTimeException,ReturnedException,BreakException{
+	public void evaluate(ExecutionContext context, double time) throws NotEnoughTimeException,ReturnedException,BreakException{
 		if(time<0.2)
 			throw new NotEnoughTimeException(time);
-		this.remainingTime = time;
-		for(int i=stoppedStatementIndex;i<statements.size();i++){
+		double remainingTime = time;
+		for(int i=context.getStoppedStatementIndex(this.slot);i<statements.size();i++){
 			Statement statement = statements.get(i);
-			try{statement.evaluate(remainingTime);}
+			try{statement.evaluate(context, remainingTime);}
 			catch(NotEnoughTimeException n){
-				stoppedStatementIndex = i;
+				context.setStoppedStatementIndex(this.slot, i);
 				throw n;
 			}
 			catch(ReturnedException r){
@@ -60,17 +66,86 @@ public class BlockStatement extends Statement{
 			catch(AssertionError a){
 				throw a;
 			}
-			if(statement instanceof ActionStatement || statement instanceof TurnStatement){
-				remainingTime-=0.2;
-			}
-			else if(statement instanceof BlockStatement){
-				remainingTime=((BlockStatement)statement).getRemainingTime();
-			}
+			remainingTime = statement.getRemainingTime(context, remainingTime);
 		}
-		stoppedStatementIndex = 0;
+		context.setStoppedStatementIndex(this.slot, 0);
+		context.setRemainingTime(this.slot, remainingTime);
+	}
+	
+	@Override
+	double getRemainingTime(ExecutionContext context, double time){
+		return this.getRemainingTime(context);
 	}
 	
 	public List<Statement> getStatements(){
 		return this.statements;
 	}
+
+	@Override
+	Statement optimize(ProgramOptimizer optimizer){
+		List<Statement> optimized = new ArrayList<Statement>();
+		for(Statement statement:this.statements)
+			optimized.add(statement.optimize(optimizer));
+		return new BlockStatement(optimized);
+	}
+
+	@Override
+	void compile(ProgramCompiler compiler, String time){
+		if(compiler.isInFunction()){
+			compiler.line("try{");
+			for(Statement statement:this.statements)
+				statement.compile(compiler, time);
+			compiler.line("}");
+			compiler.line("catch(UnsupportedOperationException " + compiler.newName("exc") + "){}");
+		}
+		else
+			compiler.line(this.compileCall(compiler, time) + ";");
+	}
+	
+	/**
+	 * Generates a method that evaluates this block in the main body of a program, and returns Java code
+	 * that calls it. The method resumes at the statement at which it was stopped, and returns the time
+	 * that remains after the block.
+	 * 
+	 * @param compiler
+	 * 		  The compiler that generates the code.
+	 * @param time
+	 * 		  The name of the variable with the time this block may use.
+	 */
+	String compileCall(ProgramCompiler compiler, String time){
+		String name = compiler.newName("block");
+		String stopped = compiler.newName("stopped");
+		compiler.field("private int " + stopped);
+		compiler.beginMethod();
+		compiler.line("double remaining = time;");
+		compiler.line("int at = " + stopped + ";");
+		compiler.line("try{");
+		compiler.line("checkTime(time);");
+		compiler.line("switch(at){");
+		for(int i=0;i<this.statements.size();i++){
+			Statement statement = this.statements.get(i);
+			compiler.line("case " + i + ":");
+			compiler.line("at = " + i + ";");
+			if(statement instanceof BlockStatement)
+				compiler.line("remaining = " + ((BlockStatement)statement).compileCall(compiler, "remaining") + ";");
+			else{
+				compiler.line("{");
+				statement.compile(compiler, "remaining");
+				compiler.line("}");
+				if(statement instanceof ActionStatement || statement instanceof TurnStatement)
+					compiler.line("remaining -= 0.2;");
+			}
+		}
+		compiler.line("}");
+		compiler.line("}");
+		compiler.line("catch(NotEnoughTimeException exc){");
+		compiler.line(stopped + " = at;");
+		compiler.line("throw exc;");
+		compiler.line("}");
+		compiler.line("catch(UnsupportedOperationException exc){}");
+		compiler.line(stopped + " = 0;");
+		compiler.line("return remaining;");
+		compiler.endMethod("private double " + name + "(double time) throws NotEnoughTimeException");
+		return name + "(" + time + ")";
+	}
 }
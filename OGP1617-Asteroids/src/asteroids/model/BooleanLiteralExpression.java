@@ -0,0 +1,36 @@
+package asteroids.model;
+
+/**
+ * A class of expressions with a constant boolean value. Programs have no boolean literals,
+ * but the optimizer of programs folds constant comparisons into them.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+class BooleanLiteralExpression extends Expression<Boolean> {
+	BooleanLiteralExpression(boolean value){
+		this.value = value;
+	}
+	
+	private final boolean value;
+	
+	@Override
+	public Boolean getValue(ExecutionContext context){
+		return this.value;
+	}
+	
+	@Override
+	boolean isBoolean(){
+		return true;
+	}
+	
+	@Override
+	boolean evaluateBoolean(ExecutionContext context){
+		return this.value;
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		return new ProgramCompiler.Code(ProgramCompiler.Kind.BOOLEAN, Boolean.toString(this.value));
+	}
+}
@@ -0,0 +1,91 @@
+package asteroids.model;
+import java.util.*;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of print sinks that keep the last printed values, up to their capacity, in a ring buffer.
+ * Once the buffer is full, every printed value replaces the oldest value, so a program that keeps on printing
+ * doesn't use more memory. The values of a sink are a view on its buffer and are never copied.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class BoundedPrintSink implements PrintSink {
+
+	/**
+	 * The capacity of the print sinks of execution contexts, unless they are given another sink.
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * Creates a new empty sink with the given capacity.
+	 *
+	 * @param capacity
+	 * 		  The maximal number of values the new sink keeps.
+	 * @post The capacity of the new sink is the given capacity.
+	 * 		  |new.getCapacity() == capacity
+	 * @throws IllegalArgumentException
+	 * 		   The capacity is not positive.
+	 * 		   |capacity<1
+	 */
+	public BoundedPrintSink(int capacity) throws IllegalArgumentException{
+		if(capacity<1)
+			throw new IllegalArgumentException();
+		this.buffer = new Object[capacity];
+	}
+
+	private final Object[] buffer;
+
+	/**
+	 * The number of values printed to this sink.
+	 */
+	private long nbPrinted = 0;
+
+	/**
+	 * Returns the maximal number of values this sink keeps.
+	 */
+	@Basic
+	@Immutable
+	public int getCapacity(){
+		return this.buffer.length;
+	}
+
+	/**
+	 * Returns the number of values printed to this sink, including the values it no longer keeps.
+	 */
+	@Basic
+	public long getNbPrinted(){
+		return this.nbPrinted;
+	}
+
+	@Override
+	public void print(Object value){
+		this.buffer[(int)(this.nbPrinted%this.buffer.length)] = value;
+		this.nbPrinted++;
+	}
+
+	private final List<Object> values = new AbstractList<Object>(){
+
+		@Override
+		public Object get(int index){
+			if(index<0 || index>=this.size())
+				throw new IndexOutOfBoundsException();
+			long oldest = BoundedPrintSink.this.nbPrinted-this.size();
+			return BoundedPrintSink.this.buffer[(int)((oldest+index)%BoundedPrintSink.this.buffer.length)];
+		}
+
+		@Override
+		public int size(){
+			return (int)Math.min(BoundedPrintSink.this.nbPrinted, BoundedPrintSink.this.buffer.length);
+		}
+	};
+
+	/**
+	 * Returns the last printed values, up to the capacity of this sink.
+	 */
+	@Override
+	public List<Object> getValues(){
+		return this.values;
+	}
+}
@@ -1,8 +1,15 @@
 package asteroids.model;
 
+/**
+ * A class of exceptions carrying a break statement to the enclosing while statement.
+ * Breaking is part of the normal flow of a program, so these exceptions don't capture a stack trace.
+ * A break exception has no state, so every break statement throws the same instance.
+ */
 public class BreakException extends RuntimeException{
 
+	public static final BreakException INSTANCE = new BreakException();
+
 	public BreakException(){
-		super();
+		super(null, null, false, false);
 	}
 }
@@ -3,9 +3,19 @@ package asteroids.model;
 public class BreakStatement extends Statement {
 	
 	@Override
-	public void evaluate(double time) throws BreakException,NotEnoughTimeException{
+	public void evaluate(ExecutionContext context, double time) throws BreakException,NotEnoughTimeException{
 		if(time<0.2)
 			throw new NotEnoughTimeException(time);
-		throw new BreakException();
+		throw BreakException.INSTANCE;
 	}
-}
\ No newline at end of file
+
+	@Override
+	void compile(ProgramCompiler compiler, String time){
+		if(!compiler.isInFunction())
+			compiler.line("checkTime(" + time + ");");
+		if(compiler.isInFunction() && compiler.isInLoop())
+			compiler.line("if(true) break;");
+		else
+			compiler.line("if(true) throw BreakException.INSTANCE;");
+	}
+}
@@ -0,0 +1,45 @@
+package asteroids.model;
+import java.util.List;
+
+/**
+ * An interface for broad phase collision detection strategies.
+ * A broad phase selects the pairs of circles that might collide within a given time horizon,
+ * so that only those pairs have to be checked with the exact time to collision.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public interface BroadPhase {
+
+	/**
+	 * Reports every pair of circles that might collide within the given time horizon.
+	 *
+	 * @param circles
+	 * 		  The circles of which the candidate pairs are searched.
+	 * @param horizon
+	 * 		  The amount of time during which collisions are of interest.
+	 * 		  Double.POSITIVE_INFINITY if every collision is of interest.
+	 * @param handler
+	 * 		  The handler to which the candidate pairs are reported.
+	 * @post Every pair of circles that collides within the horizon is reported exactly once,
+	 * 		 with the smallest index first.
+	 * 		 |if(circles.get(i).getTimeToCollision(circles.get(j))<horizon && i<j) then handler.handle(i,j)
+	 */
+	public void findCandidatePairs(List<Circle> circles, double horizon, PairHandler handler);
+
+	/**
+	 * An interface for handlers of candidate pairs.
+	 */
+	public interface PairHandler {
+
+		/**
+		 * Handles the candidate pair with the given indices.
+		 *
+		 * @param first
+		 * 		  The index of the first circle of the pair.
+		 * @param second
+		 * 		  The index of the second circle of the pair, which is greater than first.
+		 */
+		public void handle(int first, int second);
+	}
+}
@@ -0,0 +1,27 @@
+package asteroids.model;
+import java.util.List;
+
+/**
+ * A class of broad phases that report every pair of circles.
+ * It serves as the reference to validate other broad phases against.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class BruteForceBroadPhase implements BroadPhase {
+
+	/**
+	 * Reports every pair of circles, regardless of the horizon.
+	 *
+	 * @see implementation
+	 */
+	@Override
+	public void findCandidatePairs(List<Circle> circles, double horizon, PairHandler handler){
+		int size = circles.size();
+		for(int i=0;i<size;i++){
+			for(int j=i+1;j<size;j++){
+				handler.handle(i, j);
+			}
+		}
+	}
+}
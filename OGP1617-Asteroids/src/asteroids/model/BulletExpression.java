@@ -2,8 +2,17 @@ package asteroids.model;
 
 import asteroids.model.*;
 public class BulletExpression extends Expression<Bullet> {
-	public Bullet getValue(){
-		Ship user = this.getProgram().getUser();
-		return user.getNearestBullet();
+	public Bullet getValue(ExecutionContext context){
+		return (Bullet)context.queryWorld(WorldQuery.BULLET);
+	}
+
+	@Override
+	Expression<?> optimize(ProgramOptimizer optimizer){
+		return optimizer.queryWorld(this);
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		return new ProgramCompiler.Code(ProgramCompiler.Kind.OBJECT, "context.queryWorld(WorldQuery.BULLET)");
 	}
 }
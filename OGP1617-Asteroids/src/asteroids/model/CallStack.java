@@ -0,0 +1,127 @@
+package asteroids.model;
+import java.util.Arrays;
+
+/**
+ * A class of call stacks holding the activation frames of the function calls of a program.
+ * The arguments of the calls are pushed on a stack of values, and the local variables of every
+ * frame occupy as many slots of a second stack as its function has resolved variables.
+ * Both stacks only grow, so that calls don't allocate once the deepest recursion of a program
+ * has been reached.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+class CallStack {
+
+	private Object[] arguments = new Object[16];
+	private int nbArguments = 0;
+
+	private Object[] locals = new Object[16];
+
+	private int[] argumentBase = new int[8];
+	private int[] argumentCount = new int[8];
+	private int[] localBase = new int[8];
+	private int[] localCount = new int[8];
+	private int depth = 0;
+
+	/**
+	 * Returns the number of frames on this stack.
+	 */
+	int getDepth(){
+		return this.depth;
+	}
+
+	/**
+	 * Returns the number of arguments on this stack.
+	 */
+	int getNbArguments(){
+		return this.nbArguments;
+	}
+
+	/**
+	 * Pushes an argument of a call that is about to enter.
+	 *
+	 * @param value
+	 * 		  The value of the argument.
+	 */
+	void pushArgument(Object value){
+		if(this.nbArguments == this.arguments.length)
+			this.arguments = Arrays.copyOf(this.arguments, 2*this.arguments.length);
+		this.arguments[this.nbArguments++] = value;
+	}
+
+	/**
+	 * Removes the arguments above the given number of arguments.
+	 *
+	 * @param nbArguments
+	 * 		  The number of arguments that remain on this stack.
+	 */
+	void popArguments(int nbArguments){
+		Arrays.fill(this.arguments, nbArguments, this.nbArguments, null);
+		this.nbArguments = nbArguments;
+	}
+
+	/**
+	 * Pushes a frame for a call of the given function. The last arguments on this stack become the
+	 * parameters of the frame, and all local variables of the frame have no value.
+	 *
+	 * @param function
+	 * 		  The function that is called.
+	 * @param nbArguments
+	 * 		  The number of arguments of the call.
+	 */
+	void enter(Function function, int nbArguments){
+		if(this.depth == this.argumentBase.length){
+			int capacity = 2*this.depth;
+			this.argumentBase = Arrays.copyOf(this.argumentBase, capacity);
+			this.argumentCount = Arrays.copyOf(this.argumentCount, capacity);
+			this.localBase = Arrays.copyOf(this.localBase, capacity);
+			this.localCount = Arrays.copyOf(this.localCount, capacity);
+		}
+		int base = this.depth == 0 ? 0 : this.localBase[this.depth-1]+this.localCount[this.depth-1];
+		int count = function.getNbVariables();
+		if(base+count > this.locals.length)
+			this.locals = Arrays.copyOf(this.locals, Math.max(base+count, 2*this.locals.length));
+		this.argumentBase[this.depth] = this.nbArguments-nbArguments;
+		this.argumentCount[this.depth] = nbArguments;
+		this.localBase[this.depth] = base;
+		this.localCount[this.depth] = count;
+		this.depth++;
+	}
+
+	/**
+	 * Pops the top frame of this stack, together with its parameters.
+	 */
+	void exit(){
+		this.depth--;
+		int base = this.localBase[this.depth];
+		Arrays.fill(this.locals, base, base+this.localCount[this.depth], null);
+		this.popArguments(this.argumentBase[this.depth]);
+	}
+
+	/**
+	 * Returns the parameter with the given index of the top frame, or null if the call has no such parameter.
+	 *
+	 * @param index
+	 * 		  The index of the parameter, starting from 0 for $1.
+	 */
+	Object getParameter(int index){
+		if(index < 0 || index >= this.argumentCount[this.depth-1])
+			return null;
+		return this.arguments[this.argumentBase[this.depth-1]+index];
+	}
+
+	/**
+	 * Returns the local variable in the given slot of the top frame.
+	 */
+	Object getLocal(int slot){
+		return this.locals[this.localBase[this.depth-1]+slot];
+	}
+
+	/**
+	 * Sets the local variable in the given slot of the top frame.
+	 */
+	void setLocal(int slot, Object value){
+		this.locals[this.localBase[this.depth-1]+slot] = value;
+	}
+}
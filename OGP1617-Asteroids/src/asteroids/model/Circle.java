@@ -11,7 +11,7 @@ import be.kuleuven.cs.som.annotate.*;
  * @invar The Y-coordinate of the circle is a valid coordinate.
  * 		  |isValidPosY(posY)
  * @invar The total velocity of the circle does not exceed the speedLimit.
- * 		  |speedLimit>=(Math.sqrt(Math.pow(velX,2)+Math.pow(velY,2)))
+ * 		  |speedLimit>=Vector2D.length(velX,velY)
  * @invar The radius of the circle is a valid radius.
  * 		  |isValidRadius(radius)
  * @invar If a circle is in a world, the worlds circle collection contains the circle.
@@ -62,6 +62,43 @@ public abstract class Circle {
 		this.setMass(mass);
 	}
 	
+	private PhysicsBuffer physics = new PhysicsBuffer(1);
+	private int slot = 0;
+	
+	/**
+	 * Moves the physical state of this circle to a slot of the given buffer.
+	 * 
+	 * @param buffer
+	 * 		  The buffer in which the state of this circle is kept from now on.
+	 * @param newSlot
+	 * 		  The slot of this circle in the buffer.
+	 * @post The position, velocity, radius and mass of this circle are unchanged.
+	 */
+	void attachPhysics(PhysicsBuffer buffer, int newSlot){
+		this.physics.copy(this.slot, buffer, newSlot);
+		this.physics = buffer;
+		this.slot = newSlot;
+	}
+	
+	/**
+	 * Moves the physical state of this circle to a buffer of its own.
+	 * 
+	 * @effect this.attachPhysics(new PhysicsBuffer(1), 0)
+	 */
+	void detachPhysics(){
+		this.attachPhysics(new PhysicsBuffer(1), 0);
+	}
+	
+	/**
+	 * Changes the slot of this circle in its buffer, after its state was copied to that slot.
+	 * 
+	 * @param newSlot
+	 * 		  The new slot of this circle.
+	 */
+	void setPhysicsSlot(int newSlot){
+		this.slot = newSlot;
+	}
+	
 	private boolean terminated = false;
 	
 	/**
@@ -99,8 +136,6 @@ public abstract class Circle {
 		return this.terminated;
 	}
 	
-	private double mass;
-	
 	/**
 	 * Returns the mass of the circle
 	 * @return
@@ -108,7 +143,7 @@ public abstract class Circle {
 	 * 		  |result == this.mass
 	 */
 	public double getMass(){
-		return this.mass;
+		return this.physics.mass[this.slot];
 	}
 	
 	/**
@@ -140,11 +175,9 @@ public abstract class Circle {
 	public void setMass(double newMass){
 		if(Double.isNaN(newMass))
 			newMass = 0;
-		this.mass = this.massCorrection(newMass);
+		this.physics.mass[this.slot] = this.massCorrection(newMass);
 	}
 	
-	private Vector2D position = new Vector2D(0,0);
-	
 	/**
 	 * Sets the X-coordinate of this circle to a given coordinate.
 	 * 
@@ -160,8 +193,11 @@ public abstract class Circle {
 	public void setPosX(double newPos) throws IllegalArgumentException{
 		if(!isValidPosX(newPos))
 			throw new IllegalArgumentException();
-		else
-			this.position = new Vector2D(newPos,this.getPosY());
+		else{
+			this.physics.posX[this.slot] = newPos;
+			this.increaseMotionCount();
+			this.positionChanged();
+		}
 	}
 	
 	/**
@@ -169,12 +205,12 @@ public abstract class Circle {
 	 * 
 	 * @return 
 	 * 		  The X position of this circle.
-	 * 		  |result == this.getPosVector().getX()
+	 * 		  |result == this.posX
 	 * 		
 	 */
 	@Basic
 	public double getPosX(){
-		return this.getPosVector().getX();
+		return this.physics.posX[this.slot];
 	}
 	
 	/**
@@ -192,8 +228,11 @@ public abstract class Circle {
 	public void setPosY(double newPos) throws IllegalArgumentException{
 		if(!isValidPosY(newPos))
 			throw new IllegalArgumentException();
-		else
-			this.position = new Vector2D(this.getPosX(),newPos);
+		else{
+			this.physics.posY[this.slot] = newPos;
+			this.increaseMotionCount();
+			this.positionChanged();
+		}
 	}
 	
 	/**
@@ -201,11 +240,11 @@ public abstract class Circle {
 	 * 
 	 * @return 
 	 * 		  The Y position of this circle.
-	 * 		  |result == this.getPosVector().getY()
+	 * 		  |result == this.posY
 	 */
 	@Basic
 	public double getPosY(){
-		return this.getPosVector().getY();
+		return this.physics.posY[this.slot];
 	}
 	
 	/**
@@ -246,7 +285,6 @@ public abstract class Circle {
 			return (posY>=0) && (posY<=this.getWorld().getHeight());
 	}
 	
-	private Vector2D velocity = new Vector2D(0,0);
 	private double speedLimit = 300000.0;
 	
 	/**
@@ -274,11 +312,11 @@ public abstract class Circle {
 	 * 
 	 * @return
 	 * 		  Returns the velocity in the X direction of this circle.
-	 * 		  |result == this.getVelVector().getX()
+	 * 		  |result == this.velX
 	 */
 	@Basic
 	public double getVelX(){
-		return this.getVelVector().getX();
+		return this.physics.velX[this.slot];
 	}
 	
 	/**
@@ -294,7 +332,7 @@ public abstract class Circle {
 	 * 		the speed in the x and y direction is set to newVelX and newVelY.
 	 * 		Otherwise, the velocity in the X and Y direction is set in such a way that the
 	 * 		total new speed is equal to the speed limit, but the direction of the new velocity remains the same.
-	 * 		|if(Math.sqrt(Math.pow(newVelX, 2) + Math.pow(newVelY, 2))>speedLimit) then
+	 * 		|if(Vector2D.length(newVelX, newVelY)>speedLimit) then
 	 * 		|new.getVelX() == speedLimit*newVelX/totalSpeed && new.getVelY() == speedLimit*newVelY/totalSpeed)
 	 * 		|else
 	 * 		|new.getVelX() == newVelX && new.getVelY() == newVelY
@@ -305,12 +343,16 @@ public abstract class Circle {
 			newVelY = 0;
 		if(Double.isNaN(newVelX))
 			newVelX = 0;
-		double totalSpeed = Math.sqrt(Math.pow(newVelX, 2) + Math.pow(newVelY, 2));
+		double totalSpeed = Vector2D.length(newVelX, newVelY);
 		if(totalSpeed>speedLimit){
-			this.velocity = new Vector2D(speedLimit*newVelX/totalSpeed,speedLimit*newVelY/totalSpeed);
+			this.physics.velX[this.slot] = speedLimit*newVelX/totalSpeed;
+			this.physics.velY[this.slot] = speedLimit*newVelY/totalSpeed;
 		}
-		else 
-			this.velocity = new Vector2D(newVelX,newVelY);
+		else{
+			this.physics.velX[this.slot] = newVelX;
+			this.physics.velY[this.slot] = newVelY;
+		}
+		this.increaseMotionCount();
 	}
 	
 	/**
@@ -318,15 +360,13 @@ public abstract class Circle {
 	 * 
 	 * @return
 	 * 		  Returns the velocity in the Y direction of this circle.
-	 * 		  |result == this.getVelVector().getY()
+	 * 		  |result == this.velY
 	 */
 	@Basic
 	public double getVelY(){
-		return this.getVelVector().getY();
+		return this.physics.velY[this.slot];
 	}
 	
-	private double radius;
-	
 	/**
 	 * Returns the radius of this circle.
 	 * 
@@ -336,7 +376,7 @@ public abstract class Circle {
 	 */
 	@Basic
 	public double getRadius(){
-		return this.radius;
+		return this.physics.radius[this.slot];
 	}
 	
 	/**
@@ -365,11 +405,132 @@ public abstract class Circle {
 	public void setRadius(double newRadius) throws IllegalArgumentException {
 		if(!isValidRadius(newRadius))
 			throw new IllegalArgumentException();
-		else
-			this.radius = newRadius;
+		else{
+			this.physics.radius[this.slot] = newRadius;
+			this.increaseMotionCount();
+			this.positionChanged();
+		}
 	} 
 	
+	/**
+	 * Sets the radius of this circle to a smaller radius as the circle wears down while it moves.
+	 * The motion count of this circle doesn't change, so predicted collisions of this circle stay valid:
+	 * a circle that shrinks never collides earlier than predicted.
+	 * 
+	 * @param newRadius
+	 * 		   The new radius for the circle.
+	 * @throws IllegalArgumentException
+	 * 		   The given newRadius is not a valid radius or is larger than the radius of this circle.
+	 * 		   |!isValidRadius(newRadius) || newRadius>getRadius()
+	 * @post   The radius of this circle is the given radius.
+	 * 		   |new.getRadius() == newRadius
+	 */
+	void wearRadius(double newRadius) throws IllegalArgumentException{
+		if(!isValidRadius(newRadius) || newRadius>this.getRadius())
+			throw new IllegalArgumentException();
+		this.physics.radius[this.slot] = newRadius;
+		this.positionChanged();
+	}
+	
+	private int motionCount = 0;
+	
+	/**
+	 * Returns the number of times the position, velocity or radius of this circle has been set.
+	 * Moving the circle along its velocity does not change this number.
+	 * Predicted collisions of this circle are only valid as long as this number doesn't change.
+	 * 
+	 * @return The number of times the motion of this circle has been changed.
+	 * 		  |result == this.motionCount
+	 */
+	@Basic
+	int getMotionCount(){
+		return this.motionCount;
+	}
+	
+	/**
+	 * Increases the motion count of this circle with 1, and notifies the world of this circle.
+	 * 
+	 * @post The motion count of this circle is increased with 1.
+	 * 		 |new.getMotionCount() == this.getMotionCount()+1
+	 * @effect If this circle is in a world, that world registers that the motion of this circle changed.
+	 * 		 |if(this.getWorld() != null) then this.getWorld().motionChanged(this)
+	 */
+	private void increaseMotionCount(){
+		this.motionCount++;
+		if(this.getWorld() != null)
+			this.getWorld().motionChanged(this);
+	}
+	
 	private World world = null;
+	private int id = -1;
+	private int index = -1;
+	private int kindIndex = -1;
+	
+	/**
+	 * Returns the identifier of this circle in its world.
+	 * @return
+	 * 		 The identifier of this circle, or -1 if this circle is not in a world.
+	 * 		 |result == this.id
+	 */
+	@Basic
+	int getId(){
+		return this.id;
+	}
+	
+	/**
+	 * Sets the identifier of this circle in its world.
+	 * @param newId
+	 * 		  The new identifier of this circle.
+	 * @post The identifier of this circle is newId.
+	 * 		 |new.getId() == newId
+	 */
+	void setId(int newId){
+		this.id = newId;
+	}
+	
+	/**
+	 * Returns the index of this circle in the circles of its world.
+	 * @return
+	 * 		 The index of this circle, or -1 if this circle is not in a world.
+	 * 		 |result == this.index
+	 */
+	@Basic
+	int getIndex(){
+		return this.index;
+	}
+	
+	/**
+	 * Sets the index of this circle in the circles of its world.
+	 * @param newIndex
+	 * 		  The new index of this circle.
+	 * @post The index of this circle is newIndex.
+	 * 		 |new.getIndex() == newIndex
+	 */
+	void setIndex(int newIndex){
+		this.index = newIndex;
+	}
+	
+	/**
+	 * Returns the index of this circle in the set of circles of its kind in its world.
+	 * @return
+	 * 		 The index of this circle by kind, or -1 if this circle is not in a world.
+	 * 		 |result == this.kindIndex
+	 */
+	@Basic
+	int getKindIndex(){
+		return this.kindIndex;
+	}
+	
+	/**
+	 * Sets the index of this circle in the set of circles of its kind in its world.
+	 * @param newKindIndex
+	 * 		  The new index of this circle by kind.
+	 * @post The index of this circle by kind is newKindIndex.
+	 * 		 |new.getKindIndex() == newKindIndex
+	 */
+	void setKindIndex(int newKindIndex){
+		this.kindIndex = newKindIndex;
+	}
 	
 	/**
 	 * Returns the world of the circle.
@@ -430,8 +591,22 @@ public abstract class Circle {
 	public void move(double time)throws IllegalArgumentException {
 		if(time<0 || Double.isNaN(time))
 			throw new IllegalArgumentException();
-		else
-			this.position = this.position.add(this.velocity.multiply(time));
+		else{
+			this.physics.posX[this.slot] += this.physics.velX[this.slot]*time;
+			this.physics.posY[this.slot] += this.physics.velY[this.slot]*time;
+			this.positionChanged();
+		}
+	}
+	
+	/**
+	 * Notifies the world of this circle that the position or radius of this circle has changed.
+	 * 
+	 * @effect If this circle is in a world, the position index of that world is discarded.
+	 * 		   |if(this.getWorld() != null) then this.getWorld().invalidatePositionIndex()
+	 */
+	private void positionChanged(){
+		if(this.getWorld() != null)
+			this.getWorld().invalidatePositionIndex();
 	}
 	
 	/**
@@ -462,7 +637,7 @@ public abstract class Circle {
 	 * 		  The other circle.
 	 * @return
 	 * 		 The distance between this and the other circle.
-	 * 		 |result == this.getPosVector().subtract(circle.getPosVector())).length()
+	 * 		 |result == Vector2D.distance(this.getPosX(),this.getPosY(),circle.getPosX(),circle.getPosY())
 	 * @throws NullPointerException
 	 * 		  The other circle is null
 	 * 		  |circle == null
@@ -474,7 +649,7 @@ public abstract class Circle {
 		else if(circle == this)
 			return 0;
 		else 
-			return (this.getPosVector().substract(circle.getPosVector())).length();
+			return Vector2D.distance(this.getPosX(),this.getPosY(),circle.getPosX(),circle.getPosY());
 	}
 	
 	/**
@@ -521,18 +696,7 @@ public abstract class Circle {
 	public double getTimeToCollision(Circle circle) throws NullPointerException{
 		if(circle == null)
 			throw new NullPointerException();
-		Vector2D deltaV = this.getVelVector().substract(circle.getVelVector());
-		Vector2D deltaR = this.getPosVector().substract(circle.getPosVector());
-		double totalSigma = Math.pow(this.getRadius()+circle.getRadius(),2);
-		double d = Math.pow(deltaV.scalarProduct(deltaR),2)-deltaV.scalarProduct(deltaV)*
-				(deltaR.scalarProduct(deltaR)-totalSigma);
-		if(deltaV.scalarProduct(deltaR)>=0)
-			return Double.POSITIVE_INFINITY;
-		else if(d<=0)
-			return Double.POSITIVE_INFINITY;
-		else{
-			return -((deltaV.scalarProduct(deltaR)+Math.sqrt(d))/deltaV.scalarProduct(deltaV));
-		}
+		return PhysicsBuffer.getTimeToCollision(this.physics, this.slot, circle.physics, circle.slot);
 	}
 	
 	/**
@@ -643,26 +807,26 @@ public abstract class Circle {
 			return null;
 		else{
 			double distance = this.getDistanceBetween(world);
-			Vector2D centerPosition = this.getPosVector().add(this.getVelVector().multiply(collisionTime));
-			Vector2D radiusVector = new Vector2D(0,0);
+			MutableVector2D collisionPosition = new MutableVector2D(this.getPosX(),this.getPosY())
+					.addScaled(this.getVelX(), this.getVelY(), collisionTime);
 			if(this.getVelX()<0){
 				if(collisionTime == -(this.getPosY()-this.getRadius())/this.getVelY())
-					radiusVector = new Vector2D(0,-this.getRadius());
+					collisionPosition.add(0,-this.getRadius());
 				else if(collisionTime == (world.getHeight()-this.getPosY()-this.getRadius())/this.getVelY())
-					radiusVector = new Vector2D(0,this.getRadius());
+					collisionPosition.add(0,this.getRadius());
 				else
-					radiusVector = new Vector2D(-this.getRadius(),0);
+					collisionPosition.add(-this.getRadius(),0);
 			}
 			else{
 				if(collisionTime == -(this.getPosY()-this.getRadius())/this.getVelY())
-					radiusVector = new Vector2D(0,-this.getRadius());
+					collisionPosition.add(0,-this.getRadius());
 				else if(collisionTime == (world.getHeight()-this.getPosY()-this.getRadius())/this.getVelY())
-					radiusVector = new Vector2D(0,this.getRadius());
+					collisionPosition.add(0,this.getRadius());
 					
 				else
-					radiusVector = new Vector2D(this.getRadius(),0);
+					collisionPosition.add(this.getRadius(),0);
 			}
-			return centerPosition.add(radiusVector).array();
+			return collisionPosition.array();
 			}
 	}
 	
@@ -699,25 +863,25 @@ public abstract class Circle {
 	public abstract void collision(Object object);
 	
 	/**
-	 * Returns the 2 dimensional position vector
+	 * Returns the 2 dimensional position vector.
+	 * The position is stored as primitive coordinates, so every call returns a new vector.
 	 * @return
 	 * 		  The 2 dimensional position vector.
-	 * 		  |result == this.position
+	 * 		  |result.equals(new Vector2D(this.getPosX(),this.getPosY()))
 	 */
-	@Basic
 	public Vector2D getPosVector(){
-		return this.position;
+		return new Vector2D(this.getPosX(),this.getPosY());
 	}
 	
 	/**
-	 * Returns the 2 dimensional velocity vector
+	 * Returns the 2 dimensional velocity vector.
+	 * The velocity is stored as primitive components, so every call returns a new vector.
 	 * @return
 	 * 		  The 2 dimensional velocity vector.
-	 * 		  |result == this.velcity
+	 * 		  |result.equals(new Vector2D(this.getVelX(),this.getVelY()))
 	 */
-	@Basic
 	public Vector2D getVelVector(){
-		return this.velocity;
+		return new Vector2D(this.getVelX(),this.getVelY());
 	}
 	
 	/**
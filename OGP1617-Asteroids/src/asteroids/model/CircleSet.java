@@ -0,0 +1,194 @@
+package asteroids.model;
+import java.util.*;
+
+/**
+ * A class of read-only sets of circles of one kind, kept up to date by the world they belong to.
+ * The circles are densely packed in an array and every circle knows its index in the set of its kind,
+ * so that adding, removing and checking membership take constant time.
+ *
+ * A set also keeps a tree of its circles for queries for the circles nearest to a given circle, which is brought
+ * up to date on the first query after a circle of the set was added, removed or moved.
+ *
+ * An iterator visits the circles the set had when the iteration started, each exactly once, also if circles
+ * are added or removed while it runs. The array of circles is shared with the iterators that are still running,
+ * and is only copied when the set changes while it is shared, so iterating doesn't allocate an array.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ * @param <T>
+ * 		  The kind of circles in this set.
+ */
+class CircleSet<T extends Circle> extends AbstractSet<T> {
+
+	/**
+	 * Creates a new empty set for circles of the given kind.
+	 *
+	 * @param kind
+	 * 		  The class of the circles in this set.
+	 */
+	CircleSet(Class<T> kind){
+		this.kind = kind;
+	}
+
+	private final Class<T> kind;
+	private Circle[] circles = new Circle[8];
+	private int size = 0;
+
+	/**
+	 * The number of iterators that are running over the current array of circles. Iterators that are abandoned
+	 * before their end are counted until the array is copied.
+	 */
+	private int nbIterators = 0;
+
+	private final CircleTree tree = new CircleTree();
+
+	/**
+	 * Copies the array of circles if running iterators share it, before it changes.
+	 */
+	private void prepareChange(){
+		if(this.nbIterators>0){
+			this.circles = this.circles.clone();
+			this.nbIterators = 0;
+		}
+	}
+
+	/**
+	 * Checks whether the given circle belongs to the kind of this set.
+	 */
+	boolean isOfKind(Circle circle){
+		return this.kind.isInstance(circle);
+	}
+
+	/**
+	 * Adds a circle to this set.
+	 *
+	 * @param circle
+	 * 		  The circle to add, which must be of the kind of this set.
+	 */
+	void store(Circle circle){
+		if(this.size == this.circles.length){
+			this.circles = Arrays.copyOf(this.circles, 2*this.size);
+			this.nbIterators = 0;
+		}
+		else
+			this.prepareChange();
+		this.circles[this.size] = circle;
+		circle.setKindIndex(this.size);
+		this.size++;
+		this.tree.invalidate();
+	}
+
+	/**
+	 * Removes a circle from this set. The last circle of this set takes its place.
+	 *
+	 * @param circle
+	 * 		  The circle to remove, which must be in this set.
+	 */
+	void discard(Circle circle){
+		this.prepareChange();
+		int index = circle.getKindIndex();
+		Circle last = this.circles[this.size-1];
+		this.circles[index] = last;
+		last.setKindIndex(index);
+		this.circles[--this.size] = null;
+		circle.setKindIndex(-1);
+		this.tree.invalidate();
+	}
+
+	/**
+	 * Removes all circles from this set.
+	 */
+	void discardAll(){
+		this.prepareChange();
+		for(int i=0;i<this.size;i++){
+			this.circles[i].setKindIndex(-1);
+			this.circles[i] = null;
+		}
+		this.size = 0;
+		this.tree.invalidate();
+	}
+
+	/**
+	 * Registers that the position or radius of a circle of this set has changed.
+	 */
+	void invalidateTree(){
+		this.tree.invalidatePositions();
+	}
+
+	/**
+	 * Offers the circles of this set to the given query, nearest first as far as the tree of this set can tell.
+	 * Circles at the same distance are found in the order in which this set iterates over them.
+	 *
+	 * @param query
+	 * 		  The query for the nearest circles.
+	 * @param rankOffset
+	 * 		  The number that is added to the ranks of the circles of this set.
+	 */
+	void search(CircleTree.Query query, int rankOffset){
+		this.prepareTree();
+		this.tree.search(query, rankOffset);
+	}
+
+	/**
+	 * Brings the tree of this set up to date.
+	 */
+	void prepareTree(){
+		if(!this.tree.isValid())
+			this.tree.update(this.circles, this.size, false);
+	}
+
+	/**
+	 * Returns the circle at the given index of this set.
+	 *
+	 * @param index
+	 * 		  The index of the circle, between 0 and the size of this set.
+	 */
+	@SuppressWarnings("unchecked")
+	T get(int index){
+		return (T)this.circles[index];
+	}
+
+	@Override
+	public int size(){
+		return this.size;
+	}
+
+	@Override
+	public boolean contains(Object object){
+		if(!this.kind.isInstance(object))
+			return false;
+		int index = ((Circle)object).getKindIndex();
+		return index >= 0 && index<this.size && this.circles[index] == object;
+	}
+
+	@Override
+	public Iterator<T> iterator(){
+		nbIterators++;
+		return new Iterator<T>(){
+			private final Circle[] shared = circles;
+			private final int end = size;
+			private int cursor = 0;
+			private boolean running = true;
+
+			@Override
+			public boolean hasNext(){
+				if(this.cursor<this.end)
+					return true;
+				if(this.running){
+					this.running = false;
+					if(this.shared == circles)
+						nbIterators--;
+				}
+				return false;
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public T next(){
+				if(!this.hasNext())
+					throw new NoSuchElementException();
+				return (T)this.shared[this.cursor++];
+			}
+		};
+	}
+}
@@ -0,0 +1,414 @@
+package asteroids.model;
+import java.util.function.Predicate;
+
+/**
+ * A class of k-d trees of circles that find the circles nearest to a given circle.
+ * The distance between two circles is the distance between their surfaces, so every subtree also knows the largest
+ * radius of its circles: no circle of a subtree is nearer than the distance to the bounding box of its centers minus
+ * that radius. A tree is a snapshot of the positions and radii of its circles. It is rebuilt after circles were added
+ * or removed, but after circles moved only the bounding boxes of its subtrees are recomputed, which keeps every query
+ * exact but makes the subtrees overlap more and more. The tree is therefore also rebuilt after it was refitted a number of times.
+ * Every circle of a tree has a rank. Circles at the same distance are found in the order of their ranks, so a query
+ * finds the same circles as a search that visits all circles in the order of their ranks.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+class CircleTree {
+
+	/**
+	 * The largest number of circles that are searched one by one instead of being split in two subtrees.
+	 */
+	private static final int LEAF_SIZE = 8;
+
+	/**
+	 * The number of times the bounding boxes of a tree are recomputed before it is rebuilt.
+	 */
+	private static final int MAX_REFITS = 16;
+
+	/**
+	 * The circles of this tree, in the order in which they were given.
+	 */
+	private Circle[] circles = new Circle[0];
+
+	/**
+	 * The index in the order in which they were given, the center and the radius of the circles in the order of the tree.
+	 * The coordinates and radius of every circle are kept next to each other, so that reordering them moves as little as possible.
+	 */
+	private int[] order = new int[0];
+	private double[] points = new double[0];
+	private boolean[] splitsX = new boolean[0];
+
+	/**
+	 * The index in the order of the tree of the circles in the order in which they were given.
+	 */
+	private int[] positions = new int[0];
+
+	/**
+	 * The bounding box of the centers and the largest radius of every subtree, stored at the index of the circle
+	 * at its root, or at the index of its first circle if it is a leaf.
+	 */
+	private double[] minX = new double[0];
+	private double[] maxX = new double[0];
+	private double[] minY = new double[0];
+	private double[] maxY = new double[0];
+	private double[] maxRadius = new double[0];
+
+	private int size = 0;
+	private boolean ascending = true;
+	private boolean valid = false;
+	private boolean built = false;
+	private int refits = 0;
+
+	/**
+	 * Returns whether this tree still describes the positions and radii of its circles.
+	 */
+	boolean isValid(){
+		return this.valid;
+	}
+
+	/**
+	 * Registers that circles were added to or removed from this tree, or that the order of its circles has changed.
+	 */
+	void invalidate(){
+		this.valid = false;
+		this.built = false;
+	}
+
+	/**
+	 * Registers that the position or radius of one of the circles of this tree has changed.
+	 */
+	void invalidatePositions(){
+		this.valid = false;
+	}
+
+	/**
+	 * Brings this tree up to date for the given circles.
+	 *
+	 * @param circles
+	 * 		  An array that starts with the circles of this tree, which only differs from the array of the
+	 * 		  previous update if this tree was invalidated since.
+	 * @param size
+	 * 		  The number of circles of this tree.
+	 * @param ascending
+	 * 		  Whether the rank of every circle is its index in the array, or else the number of circles after it in the array.
+	 * @post This tree is valid.
+	 * 		 |new.isValid()
+	 */
+	void update(Circle[] circles, int size, boolean ascending){
+		if(this.built && this.refits<MAX_REFITS && size == this.size && ascending == this.ascending){
+			for(int i=0;i<size;i++){
+				Circle circle = this.circles[i];
+				int index = 3*this.positions[i];
+				this.points[index] = circle.getPosX();
+				this.points[index+1] = circle.getPosY();
+				this.points[index+2] = circle.getRadius();
+			}
+			this.refit(0, size);
+			this.refits++;
+		}
+		else
+			this.rebuild(circles, size, ascending);
+		this.valid = true;
+	}
+
+	private void rebuild(Circle[] circles, int size, boolean ascending){
+		if(this.circles.length<size)
+			this.allocate(Math.max(size, 2*this.circles.length));
+		double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for(int i=0;i<size;i++){
+			Circle circle = circles[i];
+			double x = circle.getPosX();
+			double y = circle.getPosY();
+			this.circles[i] = circle;
+			this.order[i] = i;
+			this.points[3*i] = x;
+			this.points[3*i+1] = y;
+			this.points[3*i+2] = circle.getRadius();
+			minX = Math.min(minX, x);
+			maxX = Math.max(maxX, x);
+			minY = Math.min(minY, y);
+			maxY = Math.max(maxY, y);
+		}
+		for(int i=size;i<this.size;i++)
+			this.circles[i] = null;
+		this.size = size;
+		this.ascending = ascending;
+		this.build(0, size, maxX-minX, maxY-minY);
+		for(int i=0;i<size;i++)
+			this.positions[this.order[i]] = i;
+		this.built = true;
+		this.refits = 0;
+	}
+
+	private void allocate(int capacity){
+		this.circles = new Circle[capacity];
+		this.order = new int[capacity];
+		this.positions = new int[capacity];
+		this.points = new double[3*capacity];
+		this.splitsX = new boolean[capacity];
+		this.minX = new double[capacity];
+		this.maxX = new double[capacity];
+		this.minY = new double[capacity];
+		this.maxY = new double[capacity];
+		this.maxRadius = new double[capacity];
+	}
+
+	/**
+	 * Builds the subtree of the circles between the given indices, of which the centers lie in a region of the given
+	 * width and height. The subtree is split along the longest side of that region, and its bounding box is computed
+	 * from the boxes of its own subtrees.
+	 *
+	 * @return The index at which the bounding box of the subtree is stored, or -1 if it is empty.
+	 */
+	private int build(int from, int to, double width, double height){
+		if(to-from <= 0)
+			return -1;
+		if(to-from <= LEAF_SIZE){
+			double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+			double maxRadius = 0;
+			for(int i=from;i<to;i++){
+				minX = Math.min(minX, this.points[3*i]);
+				maxX = Math.max(maxX, this.points[3*i]);
+				minY = Math.min(minY, this.points[3*i+1]);
+				maxY = Math.max(maxY, this.points[3*i+1]);
+				maxRadius = Math.max(maxRadius, this.points[3*i+2]);
+			}
+			this.setBox(from, minX, maxX, minY, maxY, maxRadius);
+			return from;
+		}
+		int root = (from+to)>>>1;
+		boolean splitX = width >= height;
+		this.select(from, to-1, root, splitX ? 0 : 1);
+		this.splitsX[root] = splitX;
+		int below = this.build(from, root, splitX ? width/2 : width, splitX ? height : height/2);
+		int above = this.build(root+1, to, splitX ? width/2 : width, splitX ? height : height/2);
+		this.merge(root, below, above);
+		return root;
+	}
+
+	/**
+	 * Recomputes the bounding boxes of the subtree of the circles between the given indices without reordering them.
+	 *
+	 * @return The index at which the bounding box of the subtree is stored, or -1 if it is empty.
+	 */
+	private int refit(int from, int to){
+		if(to-from <= 0)
+			return -1;
+		if(to-from <= LEAF_SIZE){
+			double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+			double maxRadius = 0;
+			for(int i=from;i<to;i++){
+				minX = Math.min(minX, this.points[3*i]);
+				maxX = Math.max(maxX, this.points[3*i]);
+				minY = Math.min(minY, this.points[3*i+1]);
+				maxY = Math.max(maxY, this.points[3*i+1]);
+				maxRadius = Math.max(maxRadius, this.points[3*i+2]);
+			}
+			this.setBox(from, minX, maxX, minY, maxY, maxRadius);
+			return from;
+		}
+		int root = (from+to)>>>1;
+		this.merge(root, this.refit(from, root), this.refit(root+1, to));
+		return root;
+	}
+
+	/**
+	 * Stores the bounding box of the circle at the given root and the boxes at the given indices of its subtrees at the root.
+	 */
+	private void merge(int root, int below, int above){
+		double x = this.points[3*root];
+		double y = this.points[3*root+1];
+		this.setBox(root, Math.min(x, this.minX[below]), Math.max(x, this.maxX[below]), Math.min(y, this.minY[below]),
+				Math.max(y, this.maxY[below]), Math.max(this.points[3*root+2], this.maxRadius[below]));
+		if(above >= 0)
+			this.setBox(root, Math.min(this.minX[root], this.minX[above]), Math.max(this.maxX[root], this.maxX[above]),
+					Math.min(this.minY[root], this.minY[above]), Math.max(this.maxY[root], this.maxY[above]),
+					Math.max(this.maxRadius[root], this.maxRadius[above]));
+	}
+
+	private void setBox(int index, double minX, double maxX, double minY, double maxY, double maxRadius){
+		this.minX[index] = minX;
+		this.maxX[index] = maxX;
+		this.minY[index] = minY;
+		this.maxY[index] = maxY;
+		this.maxRadius[index] = maxRadius;
+	}
+
+	/**
+	 * Reorders the circles between the given indices, both inclusive, so that no circle before the given index
+	 * has a greater coordinate along the given axis than the circle at that index, and no circle after it has a smaller one.
+	 */
+	private void select(int from, int to, int index, int axis){
+		double[] points = this.points;
+		while(from<to){
+			double pivot = points[3*((from+to)>>>1)+axis];
+			int i = from;
+			int j = to;
+			while(i<=j){
+				while(points[3*i+axis]<pivot)
+					i++;
+				while(points[3*j+axis]>pivot)
+					j--;
+				if(i<=j)
+					this.swap(i++, j--);
+			}
+			if(index<=j)
+				to = j;
+			else if(index>=i)
+				from = i;
+			else
+				return;
+		}
+	}
+
+	private void swap(int i, int j){
+		int index = this.order[i];
+		this.order[i] = this.order[j];
+		this.order[j] = index;
+		for(int k=0;k<3;k++){
+			double value = this.points[3*i+k];
+			this.points[3*i+k] = this.points[3*j+k];
+			this.points[3*j+k] = value;
+		}
+	}
+
+	/**
+	 * Offers the circles of this tree to the given query.
+	 *
+	 * @param query
+	 * 		  The query for the nearest circles.
+	 * @param rankOffset
+	 * 		  The number that is added to the ranks of the circles of this tree, to order them after the circles of
+	 * 		  other trees that were offered to the query.
+	 */
+	void search(Query query, int rankOffset){
+		this.search(query, rankOffset, 0, this.size);
+	}
+
+	private void search(Query query, int rankOffset, int from, int to){
+		if(to-from <= 0)
+			return;
+		int root = to-from <= LEAF_SIZE ? from : (from+to)>>>1;
+		if(query.isFull() && query.excludes(this.minX[root], this.maxX[root], this.minY[root], this.maxY[root], this.maxRadius[root]))
+			return;
+		if(to-from <= LEAF_SIZE){
+			for(int i=from;i<to;i++)
+				this.offer(query, rankOffset, i);
+			return;
+		}
+		this.offer(query, rankOffset, root);
+		double delta = this.splitsX[root] ? query.x-this.points[3*root] : query.y-this.points[3*root+1];
+		if(delta<0){
+			this.search(query, rankOffset, from, root);
+			this.search(query, rankOffset, root+1, to);
+		}
+		else{
+			this.search(query, rankOffset, root+1, to);
+			this.search(query, rankOffset, from, root);
+		}
+	}
+
+	private void offer(Query query, int rankOffset, int index){
+		int given = this.order[index];
+		query.offer(this.circles[given], (this.ascending ? given : this.size-1-given)+rankOffset);
+	}
+
+	/**
+	 * A class of queries for the circles nearest to a given circle, among the circles that pass a filter.
+	 * The distance of every candidate is computed by the circle itself, so a query finds exactly the distances
+	 * that a search over all circles would find.
+	 */
+	static class Query {
+
+		/**
+		 * Creates a new query for at most the given number of circles nearest to the given circle.
+		 *
+		 * @param circle
+		 * 		  The circle from which the distances are measured.
+		 * @param count
+		 * 		  The maximal number of circles that are found.
+		 * @param filter
+		 * 		  The filter the circles have to pass, or null if every circle passes.
+		 */
+		Query(Circle circle, int count, Predicate<? super Circle> filter){
+			this.circle = circle;
+			this.x = circle.getPosX();
+			this.y = circle.getPosY();
+			this.radius = circle.getRadius();
+			this.filter = filter;
+			this.found = new Circle[count];
+			this.distances = new double[count];
+			this.ranks = new int[count];
+		}
+
+		private final Circle circle;
+		private final double x;
+		private final double y;
+		private final double radius;
+		private final Predicate<? super Circle> filter;
+		private final Circle[] found;
+		private final double[] distances;
+		private final int[] ranks;
+		private int size = 0;
+
+		private boolean isFull(){
+			return this.size == this.found.length;
+		}
+
+		/**
+		 * Returns whether no circle with its center in the given box and at most the given radius can be nearer than
+		 * the farthest circle found so far. The bound is lowered by a relative margin for the rounding of the distances.
+		 */
+		private boolean excludes(double minX, double maxX, double minY, double maxY, double maxRadius){
+			double dx = Math.max(0, Math.max(minX-this.x, this.x-maxX));
+			double dy = Math.max(0, Math.max(minY-this.y, this.y-maxY));
+			double distance = Math.sqrt(dx*dx+dy*dy);
+			double bound = distance-maxRadius-this.radius;
+			return bound-1E-9*(distance+maxRadius+this.radius) > this.distances[this.size-1];
+		}
+
+		private void offer(Circle circle, int rank){
+			if(this.filter != null && !this.filter.test(circle))
+				return;
+			double distance = circle.getDistanceBetween(this.circle);
+			int i = this.size;
+			if(this.isFull()){
+				if(!this.precedes(distance, rank, i-1))
+					return;
+				i--;
+			}
+			else
+				this.size++;
+			for(;i>0 && this.precedes(distance, rank, i-1);i--){
+				this.found[i] = this.found[i-1];
+				this.distances[i] = this.distances[i-1];
+				this.ranks[i] = this.ranks[i-1];
+			}
+			this.found[i] = circle;
+			this.distances[i] = distance;
+			this.ranks[i] = rank;
+		}
+
+		private boolean precedes(double distance, int rank, int index){
+			return distance<this.distances[index] || (distance == this.distances[index] && rank<this.ranks[index]);
+		}
+
+		/**
+		 * Returns the number of circles found.
+		 */
+		int size(){
+			return this.size;
+		}
+
+		/**
+		 * Returns the circle found at the given position, nearest first.
+		 */
+		Circle get(int index){
+			return this.found[index];
+		}
+	}
+}
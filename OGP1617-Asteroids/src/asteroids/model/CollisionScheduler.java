@@ -0,0 +1,263 @@
+package asteroids.model;
+import java.util.*;
+
+import asteroids.part2.CollisionListener;
+
+/**
+ * A class of event driven collision schedulers that evolve a world during a given amount of time.
+ *
+ * The scheduler keeps a priority queue of predicted collisions. Every prediction remembers the motion count
+ * of its circles, so that it is skipped once one of them changed its position, velocity or radius.
+ * The world tells the scheduler which circles were added, removed or changed their motion, such as the circles
+ * of a resolved collision, and only those circles are predicted again. Their partners are looked up in a grid
+ * of swept bounding boxes that is built once, when the evolution starts, and is updated one circle at a time.
+ *
+ * Planetoids wear down while they move without changing their motion count. A shrinking circle never collides
+ * earlier than predicted, so its predictions are kept until its radius shrank by more than a small fraction,
+ * after which its collisions are predicted again.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+class CollisionScheduler {
+
+	/**
+	 * The fraction of its radius a circle may wear down before its collisions are predicted again.
+	 */
+	private static final double WEAR_TOLERANCE = 0.001;
+
+	/**
+	 * Creates a new scheduler that evolves the given world during the given amount of time.
+	 *
+	 * @param world
+	 * 		  The world to evolve.
+	 * @param duration
+	 * 		  The amount of time the world evolves.
+	 */
+	CollisionScheduler(World world, double duration){
+		this.world = world;
+		this.end = duration;
+	}
+
+	private final World world;
+	private final double end;
+	private double now = 0;
+	private final PriorityQueue<CollisionEvent> events = new PriorityQueue<CollisionEvent>();
+	private final IdentityHashMap<Circle,Integer> orders = new IdentityHashMap<Circle,Integer>();
+	private SweptBoxGrid grid = null;
+
+	/**
+	 * The number of times the collisions of every circle were predicted. Only the predictions of the last time are valid.
+	 */
+	private final IdentityHashMap<Circle,Integer> generations = new IdentityHashMap<Circle,Integer>();
+
+	/**
+	 * The circles of which the collisions have to be predicted again, in the order in which they changed.
+	 */
+	private final List<Circle> changed = new ArrayList<Circle>();
+	private final Set<Circle> changedSet = Collections.newSetFromMap(new IdentityHashMap<Circle,Boolean>());
+
+	/**
+	 * Evolves the world, resolving every collision in chronological order.
+	 *
+	 * @param collisionListener
+	 * 		  The collisionListener used by the GUI.
+	 */
+	void run(CollisionListener collisionListener){
+		this.scheduleAll();
+		CollisionEvent event = this.nextEvent();
+		while(event != null && event.time<this.end){
+			if(event.time>this.now){
+				this.world.moveForward(event.time-this.now);
+				this.now = event.time;
+			}
+			Object second = event.second;
+			if(second == null)
+				second = this.world;
+			this.world.resolveCollision(event.first, second, collisionListener);
+			this.reschedule();
+			event = this.nextEvent();
+		}
+		this.world.moveForward(this.end-this.now);
+	}
+
+	/**
+	 * Registers that the given circle was added to or removed from the world, or that its motion changed.
+	 *
+	 * @param circle
+	 * 		  The circle that changed.
+	 */
+	void motionChanged(Circle circle){
+		if(this.changedSet.add(circle))
+			this.changed.add(circle);
+	}
+
+	/**
+	 * Returns the first event that is still valid, or null if there is no such event.
+	 */
+	private CollisionEvent nextEvent(){
+		CollisionEvent event = this.events.poll();
+		while(event != null){
+			if(event.isValid()){
+				if(!event.isWorn())
+					return event;
+				this.motionChanged(event.first);
+				if(event.second != null)
+					this.motionChanged(event.second);
+				this.reschedule();
+			}
+			event = this.events.poll();
+		}
+		return event;
+	}
+
+	/**
+	 * Predicts the collisions of all circles of the world, using the broad phase of the world,
+	 * and builds the grid in which the partners of changed circles are looked up.
+	 */
+	private void scheduleAll(){
+		List<Circle> circles = this.world.getCircleList();
+		this.grid = new SweptBoxGrid(SweptBoxGrid.getMedianExtent(circles, this.end));
+		for(Circle circle:circles){
+			this.register(circle);
+			this.grid.add(circle, this.end, null);
+		}
+		this.world.getBroadPhase().findCandidatePairs(circles, this.end,
+				(first, second) -> this.scheduleCollision(circles.get(first), circles.get(second)));
+		for(Circle circle:circles)
+			this.scheduleBoundaryCollision(circle);
+		this.changed.clear();
+		this.changedSet.clear();
+	}
+
+	/**
+	 * Predicts the collisions of the circles that changed since the last prediction. Every changed circle is moved
+	 * in the grid, after pairing it with the circles in the grid of which the box overlaps its new box, so a pair
+	 * of changed circles is predicted once.
+	 */
+	private void reschedule(){
+		if(this.changed.isEmpty())
+			return;
+		double horizon = this.end-this.now;
+		for(int i=0;i<this.changed.size();i++){
+			Circle circle = this.changed.get(i);
+			this.grid.remove(circle);
+			if(circle.getWorld() == this.world)
+				this.register(circle);
+		}
+		for(int i=0;i<this.changed.size();i++){
+			final Circle circle = this.changed.get(i);
+			if(circle.getWorld() != this.world)
+				continue;
+			this.grid.add(circle, horizon, other -> this.scheduleCollision(circle, other));
+			this.scheduleBoundaryCollision(circle);
+		}
+		this.changed.clear();
+		this.changedSet.clear();
+	}
+
+	/**
+	 * Remembers the order of the given circle, and starts a new generation of its predictions.
+	 */
+	private void register(Circle circle){
+		if(!this.orders.containsKey(circle))
+			this.orders.put(circle, this.orders.size());
+		Integer generation = this.generations.get(circle);
+		this.generations.put(circle, generation == null ? 0 : generation+1);
+	}
+
+	/**
+	 * Predicts the collision between two circles. The circle that comes first in the world is the first circle.
+	 */
+	private void scheduleCollision(Circle circle, Circle other){
+		if(this.orders.get(other)<this.orders.get(circle)){
+			Circle temporary = circle;
+			circle = other;
+			other = temporary;
+		}
+		this.schedule(circle, other, circle.getTimeToCollision(other));
+	}
+
+	/**
+	 * Predicts the collision between a circle and the boundary of the world.
+	 */
+	private void scheduleBoundaryCollision(Circle circle){
+		this.schedule(circle, null, circle.getTimeToCollision(this.world));
+	}
+
+	/**
+	 * Adds the collision that happens after the given amount of time, if it happens before the end.
+	 */
+	private void schedule(Circle first, Circle second, double timeToCollision){
+		double time = this.now+Math.max(timeToCollision, 0);
+		if(time<this.end)
+			this.events.add(new CollisionEvent(time, first, second));
+	}
+
+	/**
+	 * A class of predicted collisions between a circle and another circle or the boundary of the world.
+	 */
+	private class CollisionEvent implements Comparable<CollisionEvent> {
+
+		private CollisionEvent(double time, Circle first, Circle second){
+			this.time = time;
+			this.first = first;
+			this.second = second;
+			this.firstCount = first.getMotionCount();
+			this.secondCount = (second == null) ? 0 : second.getMotionCount();
+			this.firstGeneration = generations.get(first);
+			this.secondGeneration = (second == null) ? 0 : generations.get(second);
+			this.firstRadius = first.getRadius();
+			this.secondRadius = (second == null) ? 0 : second.getRadius();
+			this.firstOrder = orders.get(first);
+			this.secondOrder = (second == null) ? Integer.MAX_VALUE : orders.get(second);
+		}
+
+		private final double time;
+		private final Circle first;
+		private final Circle second;
+		private final int firstCount;
+		private final int secondCount;
+		private final int firstGeneration;
+		private final int secondGeneration;
+		private final double firstRadius;
+		private final double secondRadius;
+		private final int firstOrder;
+		private final int secondOrder;
+
+		/**
+		 * Checks whether both circles are still in the world and didn't change their motion since the prediction,
+		 * and whether the prediction belongs to the last generation of predictions of both circles.
+		 */
+		private boolean isValid(){
+			if(this.first.getWorld() != world || this.first.getMotionCount() != this.firstCount
+					|| generations.get(this.first) != this.firstGeneration)
+				return false;
+			if(this.second == null)
+				return true;
+			return this.second.getWorld() == world && this.second.getMotionCount() == this.secondCount
+					&& generations.get(this.second) == this.secondGeneration;
+		}
+
+		/**
+		 * Checks whether one of the circles wore down by more than the tolerance since the prediction.
+		 */
+		private boolean isWorn(){
+			if(this.first.getRadius()<(1-WEAR_TOLERANCE)*this.firstRadius)
+				return true;
+			return this.second != null && this.second.getRadius()<(1-WEAR_TOLERANCE)*this.secondRadius;
+		}
+
+		/**
+		 * Orders the events by time. Simultaneous events are ordered like World.getFirstCollisionArray does.
+		 */
+		@Override
+		public int compareTo(CollisionEvent other){
+			if(this.time != other.time)
+				return Double.compare(this.time, other.time);
+			if(this.firstOrder != other.firstOrder)
+				return Integer.compare(this.firstOrder, other.firstOrder);
+			return Integer.compare(this.secondOrder, other.secondOrder);
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package asteroids.model;
+
+/**
+ * A class of programs compiled to JVM classes. The compiler of programs generates a subclass of this class
+ * for every program, in which the main body and the functions of the program are methods. The generated class
+ * is shared by all ships that execute the program, and every context in which it is executed has its own instance.
+ * The generated code follows the evaluation of the nodes of the program step by step, so a compiled program
+ * prints the same values and performs the same actions at the same time as the program it was compiled from.
+ * The helpers of this class implement the checks of the nodes on boxed values, so that the generated
+ * code can stay on primitive values as long as possible.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public abstract class CompiledProgram {
+
+	/**
+	 * Creates a compiled program that is executed in the given context.
+	 *
+	 * @param context
+	 * 		  The context in which the program is executed.
+	 */
+	protected CompiledProgram(ExecutionContext context){
+		this.context = context;
+	}
+
+	/**
+	 * The context in which the program is executed. Its global variables, printed values and ship are used by the generated code.
+	 */
+	protected final ExecutionContext context;
+
+	/**
+	 * Executes the main body of the compiled program for the given amount of time.
+	 *
+	 * @param time
+	 * 		  The time the main body may use.
+	 * @throws NotEnoughTimeException
+	 * 		   The main body has to suspend because there is not enough time left.
+	 */
+	public abstract void execute(double time) throws NotEnoughTimeException;
+
+	protected static void checkTime(double time) throws NotEnoughTimeException{
+		if(time<0.2)
+			throw new NotEnoughTimeException(time);
+	}
+
+	protected static void illegalStatement(){
+		throw new IllegalStatementError();
+	}
+
+	protected static Object parameterOutsideFunction(){
+		throw new NullPointerException();
+	}
+
+	protected static Object undefinedFunction(Object... arguments){
+		throw new NullPointerException();
+	}
+
+	/**
+	 * Returns the given value, after the arguments that the called function doesn't read have been evaluated.
+	 */
+	protected static Object last(Object value, Object... ignored){
+		return value;
+	}
+
+	/**
+	 * Returns true, after the arguments that the called function doesn't read have been evaluated.
+	 */
+	protected static boolean ignore(Object... ignored){
+		return true;
+	}
+
+	protected final Object read(int slot){
+		Object value = this.context.getVariable(slot);
+		if(value == null)
+			throw new IllegalArgumentException();
+		return value;
+	}
+
+	protected final void assign(int slot, Object value, boolean isFunction){
+		Object current = this.context.getVariable(slot);
+		if((current == null || current.getClass().equals(value.getClass())) && !isFunction)
+			this.context.setVariable(slot, value);
+		else
+			throw new IllegalArgumentException();
+	}
+
+	protected static double num(Object value){
+		if(value instanceof Double)
+			return (Double)value;
+		throw new IllegalArgumentException();
+	}
+
+	protected static boolean bool(Object value){
+		if(value instanceof Boolean)
+			return (Boolean)value;
+		throw new IllegalArgumentException();
+	}
+
+	protected static double add(Object value1, Object value2){
+		return num2(value1, value2)+(Double)value2;
+	}
+
+	protected static double add(Object value1, double value2){
+		return num2(value1, value2)+value2;
+	}
+
+	protected static double add(double value1, Object value2){
+		return value1+num2(value2, value1);
+	}
+
+	protected static double subtract(Object value1, Object value2){
+		return num2(value1, value2)-(Double)value2;
+	}
+
+	protected static double subtract(Object value1, double value2){
+		return num2(value1, value2)-value2;
+	}
+
+	protected static double subtract(double value1, Object value2){
+		return value1-num2(value2, value1);
+	}
+
+	protected static double multiply(Object value1, Object value2){
+		return num2(value1, value2)*(Double)value2;
+	}
+
+	protected static double multiply(Object value1, double value2){
+		return num2(value1, value2)*value2;
+	}
+
+	protected static double multiply(double value1, Object value2){
+		return value1*num2(value2, value1);
+	}
+
+	protected static boolean less(Object value1, Object value2){
+		return num2(value1, value2)<(Double)value2;
+	}
+
+	protected static boolean less(Object value1, double value2){
+		return num2(value1, value2)<value2;
+	}
+
+	protected static boolean less(double value1, Object value2){
+		return value1<num2(value2, value1);
+	}
+
+	/**
+	 * Returns the first of two operands of a binary operation, after checking that both operands are numbers.
+	 */
+	private static double num2(Object value, Object other){
+		if(value instanceof Double && other instanceof Double)
+			return (Double)value;
+		throw new IllegalArgumentException();
+	}
+
+	private static double num2(Object value, double other){
+		return num(value);
+	}
+
+	protected static boolean equal(Object value1, Object value2){
+		if(value1.getClass().equals(value2.getClass()))
+			return value1 == value2;
+		return false;
+	}
+
+	protected static boolean not(Object value){
+		return !bool(value);
+	}
+
+	protected static double getX(Object value){
+		return circle(value).getPosX();
+	}
+
+	protected static double getY(Object value){
+		return circle(value).getPosY();
+	}
+
+	protected static double getVX(Object value){
+		return circle(value).getVelX();
+	}
+
+	protected static double getVY(Object value){
+		return circle(value).getVelY();
+	}
+
+	protected static double getRadius(Object value){
+		return circle(value).getRadius();
+	}
+
+	private static Circle circle(Object value){
+		if(value instanceof Circle)
+			return (Circle)value;
+		throw new IllegalArgumentException();
+	}
+}
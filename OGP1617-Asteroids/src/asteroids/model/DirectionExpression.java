@@ -4,9 +4,27 @@ import asteroids.model.*;
 
 public class DirectionExpression extends Expression<Double> {
 	
-	public Double getValue(){
-		return this.getProgram().getUser().getOrientation();
-		
+	public Double getValue(ExecutionContext context){
+		return this.evaluateDouble(context);
+	}
+	
+	@Override
+	boolean isNumeric(){
+		return true;
+	}
+	
+	@Override
+	double evaluateDouble(ExecutionContext context){
+		return context.getOrientation();
 	}
 
+	@Override
+	Expression<?> optimize(ProgramOptimizer optimizer){
+		return optimizer.queryWorld(this);
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		return new ProgramCompiler.Code(ProgramCompiler.Kind.DOUBLE, "context.getOrientation()");
+	}
 }
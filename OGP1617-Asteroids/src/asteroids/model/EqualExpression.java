@@ -25,17 +25,40 @@ public class EqualExpression extends Expression<Boolean> {
 	
 	
 	@Override
-	public Boolean getValue(){
-		firstExpression.setFunction(this.getFunction());
-		secondExpression.setFunction(this.getFunction());
-		firstExpression.setProgram(this.getProgram());
-		secondExpression.setProgram(this.getProgram());
-		Object value1 = firstExpression.getValue();
-		Object value2 = secondExpression.getValue();
+	public Boolean getValue(ExecutionContext context){
+		return this.evaluateBoolean(context);
+	}
+	
+	@Override
+	boolean isBoolean(){
+		return true;
+	}
+	
+	@Override
+	boolean evaluateBoolean(ExecutionContext context){
+		Object value1 = firstExpression.getValue(context);
+		Object value2 = secondExpression.getValue(context);
 		if(value1.getClass().equals(value2.getClass()) 
 				|| (value1 == null && value2 == null))
 			return (value1 == value2);
 		else
 			return false;
 	}
+
+	/**
+	 * Equal numbers are only equal if they are the same object, so comparisons of literals aren't folded.
+	 */
+	@Override
+	Expression<?> optimize(ProgramOptimizer optimizer){
+		Expression<?> first = this.firstExpression.optimize(optimizer);
+		Expression<?> second = this.secondExpression.optimize(optimizer);
+		return optimizer.pure(new EqualExpression(first, second), first, second);
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		String first = this.firstExpression.compile(compiler).asObject();
+		String second = this.secondExpression.compile(compiler).asObject();
+		return new ProgramCompiler.Code(ProgramCompiler.Kind.BOOLEAN, "equal(" + first + ", " + second + ")");
+	}
 }
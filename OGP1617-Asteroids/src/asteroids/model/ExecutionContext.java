@@ -0,0 +1,465 @@
+package asteroids.model;
+import java.util.*;
+
+/**
+ * A class of contexts in which ships execute programs. A program only holds code, which doesn't change once
+ * the program is created, so any number of ships can share one program, also in different threads.
+ * Everything that changes while a ship executes its program belongs to the context of that ship:
+ * the global variables, the call stack, the printed values, the time that was left over, the statements
+ * at which the blocks of the program were stopped, the values that loops remember and the last entities
+ * the ship found in its world.
+ * A context is used by one thread at a time.
+ *
+ * The actions of the program are performed at once, or buffered while the program is executed together with
+ * the programs of other ships and performed afterwards, in the order in which the program performed them.
+ *
+ * The values the program prints go to the print sink of the context, which keeps the last values up to a fixed
+ * capacity, unless the context is given another sink. With -Dasteroids.unboundedPrint=true, contexts keep every
+ * printed value, as they did before print sinks were introduced.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class ExecutionContext {
+
+	/**
+	 * Creates a new context in which the given ship executes the given program.
+	 *
+	 * @param program
+	 * 		  The program that is executed.
+	 * @param user
+	 * 		  The ship that executes the program.
+	 * @post The program and the ship of this context are the given program and ship.
+	 * 		  |new.getProgram() == program && new.getUser() == user
+	 * @throws NullPointerException
+	 * 		   The given program is not effective.
+	 * 		  |program == null
+	 */
+	public ExecutionContext(Program program, Ship user) throws NullPointerException{
+		this.program = program;
+		this.user = user;
+		this.variables = new Object[program.getNbVariables()];
+		this.stoppedStatementIndices = new int[program.getNbBlocks()];
+		this.remainingTimes = new double[program.getNbBlocks()];
+		this.known = new boolean[program.getNbHoisted()];
+		this.hoistedValues = new Object[program.getNbHoisted()];
+		this.hoistedNumbers = new double[program.getNbHoisted()];
+		this.profile = program.getNbProfiled() == 0 ? null : new ProgramProfile(program);
+	}
+
+	private final Program program;
+	private final Ship user;
+
+	public Program getProgram(){
+		return this.program;
+	}
+
+	public Ship getUser(){
+		return this.user;
+	}
+
+	private final ProgramProfile profile;
+
+	/**
+	 * Returns the profile of the program in this context, or null if the program is not profiled.
+	 */
+	public ProgramProfile getProfile(){
+		return this.profile;
+	}
+
+	private final Object[] variables;
+
+	/**
+	 * Returns the value of the global variable in the given slot, or null if it has no value yet.
+	 *
+	 * @param slot
+	 * 		  The slot of the variable, as resolved by the program of this context.
+	 */
+	public Object getVariable(int slot){
+		return this.variables[slot];
+	}
+
+	/**
+	 * Sets the value of the global variable in the given slot.
+	 *
+	 * @param slot
+	 * 		  The slot of the variable, as resolved by the program of this context.
+	 * @param value
+	 * 		  The new value of the variable.
+	 */
+	public void setVariable(int slot, Object value){
+		this.variables[slot] = value;
+	}
+
+	/**
+	 * Returns the value of the global variable with the given name, or null if it has no value
+	 * or the program of this context doesn't use it.
+	 *
+	 * @param name
+	 * 		  The name of the variable.
+	 */
+	public Object getVariable(String name){
+		int slot = this.program.getVariableSlot(name);
+		if(slot < 0)
+			return null;
+		return this.getVariable(slot);
+	}
+
+	public boolean containsVariable(String name){
+		return this.getVariable(name) != null;
+	}
+
+	private final CallStack callStack = new CallStack();
+
+	/**
+	 * Returns the stack with the frames of the function calls in this context.
+	 */
+	CallStack getCallStack(){
+		return this.callStack;
+	}
+
+	/**
+	 * Whether contexts keep every printed value by default.
+	 */
+	private static final boolean UNBOUNDED_PRINT = Boolean.getBoolean("asteroids.unboundedPrint");
+
+	private PrintSink printSink = UNBOUNDED_PRINT ? new UnboundedPrintSink() : new BoundedPrintSink(BoundedPrintSink.DEFAULT_CAPACITY);
+
+	/**
+	 * The values printed during the last execution of the program.
+	 */
+	private final List<Object> recentValues = new ArrayList<Object>();
+
+	/**
+	 * Returns the sink that receives the values printed by the program in this context.
+	 */
+	public PrintSink getPrintSink(){
+		return this.printSink;
+	}
+
+	/**
+	 * Sets the sink that receives the values printed by the program in this context.
+	 *
+	 * @param sink
+	 * 		  The new sink.
+	 * @post The sink of this context is the given sink.
+	 * 		  |new.getPrintSink() == sink
+	 * @throws NullPointerException
+	 * 		   The given sink is not effective.
+	 * 		  |sink == null
+	 */
+	public void setPrintSink(PrintSink sink) throws NullPointerException{
+		if(sink == null)
+			throw new NullPointerException();
+		this.printSink = sink;
+	}
+
+	/**
+	 * Returns the values the program printed during the last execution in this context, also if it was suspended.
+	 * The returned list can't be modified, and is emptied when the program is executed again.
+	 */
+	public List<Object> getRecentValues(){
+		return Collections.unmodifiableList(this.recentValues);
+	}
+
+	public void addPrintedValue(Object value){
+		this.printSink.print(value);
+		this.recentValues.add(value);
+	}
+
+	private final int[] stoppedStatementIndices;
+	private final double[] remainingTimes;
+
+	/**
+	 * Returns the index of the statement at which the block in the given slot was stopped.
+	 */
+	int getStoppedStatementIndex(int block){
+		return this.stoppedStatementIndices[block];
+	}
+
+	void setStoppedStatementIndex(int block, int index){
+		this.stoppedStatementIndices[block] = index;
+	}
+
+	/**
+	 * Returns the time that was left after the last evaluation of the block in the given slot.
+	 */
+	double getRemainingTime(int block){
+		return this.remainingTimes[block];
+	}
+
+	void setRemainingTime(int block, double time){
+		this.remainingTimes[block] = time;
+	}
+
+	private final boolean[] known;
+	private final Object[] hoistedValues;
+	private final double[] hoistedNumbers;
+
+	/**
+	 * Returns whether the value of the hoisted expression in the given slot is remembered in the current run of its loop.
+	 */
+	boolean isKnown(int hoisted){
+		return this.known[hoisted];
+	}
+
+	Object getHoistedValue(int hoisted){
+		return this.hoistedValues[hoisted];
+	}
+
+	double getHoistedNumber(int hoisted){
+		return this.hoistedNumbers[hoisted];
+	}
+
+	void setHoistedValue(int hoisted, Object value){
+		this.hoistedValues[hoisted] = value;
+		this.known[hoisted] = true;
+	}
+
+	void setHoistedNumber(int hoisted, double value){
+		this.hoistedNumbers[hoisted] = value;
+		this.known[hoisted] = true;
+	}
+
+	/**
+	 * Forgets the value of the hoisted expression in the given slot, because a new run of its loop starts.
+	 */
+	void forget(int hoisted){
+		this.known[hoisted] = false;
+		this.hoistedValues[hoisted] = null;
+	}
+
+	private final Circle[] queryResults = new Circle[WorldQuery.values().length];
+	private final World[] queryWorlds = new World[WorldQuery.values().length];
+	private final long[] queryVersions = new long[WorldQuery.values().length];
+
+	/**
+	 * Returns the nearest entity of the kind of the given query to the ship of this context.
+	 * The entity that was found is remembered until the world of the ship changes, so asking for it again
+	 * in a loop or a condition doesn't search the world again.
+	 *
+	 * @param query
+	 * 		  The query for the nearest entity.
+	 * @return The nearest entity of the kind of the query to the ship of this context.
+	 * 		  |result == query.evaluate(getUser())
+	 * @throws NullPointerException
+	 * 		   The ship of this context isn't in a world.
+	 * 		  |getUser().getWorld() == null
+	 */
+	public Circle queryWorld(WorldQuery query) throws NullPointerException{
+		World world = this.getUser().getWorld();
+		int index = query.ordinal();
+		if(world != null && world == this.queryWorlds[index] && world.getVersion() == this.queryVersions[index])
+			return this.queryResults[index];
+		Circle result = query.evaluate(this.getUser());
+		this.queryResults[index] = result;
+		this.queryWorlds[index] = world;
+		this.queryVersions[index] = world.getVersion();
+		return result;
+	}
+
+	/**
+	 * The buffered actions of the program, in order: an action or the angle of a turn.
+	 * Null if the actions are performed at once.
+	 */
+	private List<Object> bufferedActions = null;
+
+	/**
+	 * The orientation of the ship after the buffered actions.
+	 */
+	private double bufferedOrientation;
+
+	/**
+	 * Returns whether the actions of the program are buffered.
+	 */
+	public boolean isBufferingActions(){
+		return this.bufferedActions != null;
+	}
+
+	/**
+	 * Returns the orientation of the ship of this context, as seen by its program.
+	 *
+	 * @return The orientation of the ship after the buffered actions if the actions are buffered, or else the orientation of the ship.
+	 * 		  |if(isBufferingActions()) then result == getUser().getOrientation() + the angles of the buffered turns
+	 * 		  |else result == getUser().getOrientation()
+	 */
+	public double getOrientation(){
+		return this.isBufferingActions() ? this.bufferedOrientation : this.getUser().getOrientation();
+	}
+
+	/**
+	 * Turns the ship of this context over the given angle, or buffers the turn.
+	 *
+	 * @param angle
+	 * 		  The angle over which the ship turns.
+	 * @effect If the actions are not buffered, the ship turns.
+	 * 		  |if(!isBufferingActions()) then getUser().turn(angle)
+	 */
+	public void turn(double angle){
+		if(!this.isBufferingActions()){
+			this.getUser().turn(angle);
+			return;
+		}
+		assert Ship.isValidOrientation(this.bufferedOrientation+angle);
+		this.bufferedOrientation += angle;
+		this.bufferedActions.add(angle);
+	}
+
+	/**
+	 * Lets the ship of this context perform the given action, or buffers the action.
+	 *
+	 * @param action
+	 * 		  The action to perform.
+	 * @effect If the actions are not buffered and the action is FIRE, the ship fires a bullet.
+	 * 		  |if(!isBufferingActions() && action == Action.FIRE) then getUser().fireBullet()
+	 * @effect If the actions are not buffered and the action is THRUST_ON or THRUST_OFF, the thruster of the ship is switched on or off.
+	 * 		  |if(!isBufferingActions() && action != Action.FIRE && action != Action.SKIP)
+	 * 		  |then getUser().setThruster(action == Action.THRUST_ON)
+	 */
+	public void perform(Action action){
+		if(this.isBufferingActions()){
+			this.bufferedActions.add(action);
+			return;
+		}
+		switch(action){
+		case FIRE:
+			this.getUser().fireBullet();
+			break;
+		case THRUST_ON:
+			this.getUser().setThruster(true);
+			break;
+		case THRUST_OFF:
+			this.getUser().setThruster(false);
+			break;
+		case SKIP:
+			break;
+		}
+	}
+
+	/**
+	 * Starts buffering the actions of the program, so that executing it doesn't change the ship or its world.
+	 *
+	 * @post The actions are buffered.
+	 * 		  |new.isBufferingActions()
+	 */
+	void bufferActions(){
+		this.bufferedActions = new ArrayList<Object>();
+		this.bufferedOrientation = this.getUser().getOrientation();
+	}
+
+	/**
+	 * Performs the buffered actions in the order in which the program performed them, and stops buffering.
+	 *
+	 * @post The actions are no longer buffered.
+	 * 		  |!new.isBufferingActions()
+	 */
+	void commitActions(){
+		List<Object> actions = this.bufferedActions;
+		this.bufferedActions = null;
+		if(actions == null)
+			return;
+		for(Object action:actions){
+			if(action instanceof Double)
+				this.turn((Double)action);
+			else
+				this.perform((Action)action);
+		}
+	}
+
+	private double previousTime = 0;
+	private CompiledProgram compiled = null;
+	private boolean suspended = false;
+
+	/**
+	 * Returns whether the main body of the program is suspended in this context, waiting for more time.
+	 */
+	public boolean isSuspended(){
+		return this.suspended;
+	}
+
+	/**
+	 * Returns whether the program is executed by generated code in this context.
+	 * A context switches to the generated code of its program once its main body isn't suspended.
+	 */
+	public boolean isCompiled(){
+		return this.compiled != null;
+	}
+
+	/**
+	 * Evaluates the main body of the program, with the compiled code if the program is compiled.
+	 */
+	private void evaluateBody(double time) throws NotEnoughTimeException,ReturnedException,BreakException{
+		if(this.compiled == null && !this.suspended && this.program.isCompiled())
+			this.compiled = this.program.newCompiledProgram(this);
+		if(this.compiled != null)
+			this.compiled.execute(time);
+		else
+			this.program.getBody().evaluate(this, time);
+	}
+
+	/**
+	 * Executes the program in this context for the given amount of time, together with the time that was left over.
+	 *
+	 * @param time
+	 * 		  The time the program may use.
+	 * @return The printed values kept by the print sink of this context, or null if the main body is suspended
+	 * 		   because there is not enough time left.
+	 * 		  |if(!isSuspended()) then result == getPrintSink().getValues()
+	 * @post The recent values are the values printed during this execution.
+	 * @throws IllegalArgumentException
+	 * 		   The program performs an illegal operation.
+	 */
+	public List<Object> execute(double time) throws IllegalArgumentException{
+		this.recentValues.clear();
+		Statement body = this.program.getBody();
+		time+=previousTime;
+		if(time<0.2){
+			this.previousTime = time;
+			return null;
+		}
+		if(body instanceof ActionStatement || body instanceof TurnStatement){
+			try{this.evaluateBody(time);}
+			catch(NotEnoughTimeException n){
+				this.previousTime=n.getTime();
+				this.suspended = true;
+				return null;
+			}
+			catch(ReturnedException r){
+				throw new IllegalArgumentException(r);
+			}
+			catch(BreakException b){
+				throw new IllegalArgumentException(b);
+			}
+			catch(AssertionError a){
+				throw new IllegalArgumentException(a);
+			}
+			catch(UnsupportedOperationException u){
+				return this.printSink.getValues();
+			}
+			time-=0.2;
+		}
+		else{
+			try{this.evaluateBody(time);}
+			catch(NotEnoughTimeException n){
+				this.previousTime=n.getTime();
+				this.suspended = true;
+				return null;
+			}
+			catch(ReturnedException r){
+				throw new IllegalArgumentException(r);
+			}
+			catch(BreakException b){
+				throw new IllegalArgumentException(b);
+			}
+			catch(AssertionError a){
+				throw new IllegalArgumentException(a);
+			}
+			catch(UnsupportedOperationException u){
+				return this.printSink.getValues();
+			}
+		}
+		this.previousTime = 0;
+		this.suspended = false;
+		return this.printSink.getValues();
+	}
+}
@@ -4,15 +4,71 @@ import be.kuleuven.cs.som.taglet.*;
 
 public abstract class Expression<T> {
 		
-	@Override
-	public String toString(){
-		if(this.getValue() != null)
-			return this.getValue().toString();
+	/**
+	 * Returns the value of this expression in the given context as text, or null if it has no value.
+	 * The expression is evaluated again to get the text.
+	 * 
+	 * @param context
+	 * 		  The context in which this expression is evaluated.
+	 */
+	public String toString(ExecutionContext context){
+		if(this.getValue(context) != null)
+			return this.getValue(context).toString();
 		else
 			return null;
 	}
 	
-	public abstract T getValue();
+	/**
+	 * Returns the value of this expression in the given context.
+	 * 
+	 * @param context
+	 * 		  The context of the ship that executes the program of this expression.
+	 */
+	public abstract T getValue(ExecutionContext context);
+	
+	/**
+	 * Returns whether this expression evaluates to a number whenever its evaluation completes,
+	 * whatever the values of the variables and parameters it reads.
+	 * The nodes that consume numbers use this static type to evaluate such expressions without boxing.
+	 */
+	boolean isNumeric(){
+		return false;
+	}
+	
+	/**
+	 * Returns whether this expression evaluates to a boolean whenever its evaluation completes.
+	 */
+	boolean isBoolean(){
+		return false;
+	}
+	
+	/**
+	 * Returns the value of this expression as a primitive number.
+	 * 
+	 * @throws IllegalArgumentException
+	 * 		   The value of this expression is not a number.
+	 * 		 | !(getValue() instanceof Double)
+	 */
+	double evaluateDouble(ExecutionContext context) throws IllegalArgumentException{
+		Object value = this.getValue(context);
+		if(value instanceof Double)
+			return (Double)value;
+		throw new IllegalArgumentException();
+	}
+	
+	/**
+	 * Returns the value of this expression as a primitive boolean.
+	 * 
+	 * @throws IllegalArgumentException
+	 * 		   The value of this expression is not a boolean.
+	 * 		 | !(getValue() instanceof Boolean)
+	 */
+	boolean evaluateBoolean(ExecutionContext context) throws IllegalArgumentException{
+		Object value = this.getValue(context);
+		if(value instanceof Boolean)
+			return (Boolean)value;
+		throw new IllegalArgumentException();
+	}
 	
 	private Function function;
 	
@@ -34,14 +90,22 @@ public abstract class Expression<T> {
 		this.program = newProgram;
 	}
 	
-	@Override
-	public boolean equals(Object other){
-		if(other == null && this != null)
-			return false;
-		else if(other instanceof Expression<?>)
-			return this.getValue().equals(((Expression<?>)other).getValue());
-		else
-			return false;
+	/**
+	 * Returns an expression that evaluates to the same values as this expression, with the same effects,
+	 * after the given optimizer has folded its constants and marked its loop-invariant parts.
+	 * 
+	 * @param optimizer
+	 * 		  The optimizer of the program of this expression.
+	 */
+	Expression<?> optimize(ProgramOptimizer optimizer){
+		return this;
 	}
-}
 
+	/**
+	 * Returns Java code that computes the value of this expression.
+	 * 
+	 * @param compiler
+	 * 		  The compiler that generates the code.
+	 */
+	abstract ProgramCompiler.Code compile(ProgramCompiler compiler);
+}
@@ -28,82 +28,151 @@ public class Function{
 		return this.name;
 	}
 	
-	public HashMap<String,Object> getParameters(){
-		return this.expressionList.get(this.expressionList.size()-1).getParameters();
+	/**
+	 * Returns the body of this function.
+	 */
+	Statement getBody(){
+		return this.body;
 	}
 	
-	public HashMap<String,Object> getLocalVariables(){
-		return this.expressionList.get(this.expressionList.size()-1).getLocalVariables();
+	/**
+	 * Returns the value of the parameter with the given index in the current call of this function
+	 * in the given context, or null if the call has no such parameter.
+	 * 
+	 * @param context
+	 * 		  The context in which this function is called.
+	 * @param index
+	 * 		  The index of the parameter, starting from 0 for $1.
+	 */
+	public Object getParameter(ExecutionContext context, int index){
+		return context.getCallStack().getParameter(index);
 	}
 	
-	public void setParameter(String name, Expression<?> value){
-		this.getParameters().put(name, value.getValue());
+	/**
+	 * Sets the value of the local variable in the given slot of the current call of this function in the given context.
+	 * 
+	 * @param context
+	 * 		  The context in which this function is called.
+	 * @param slot
+	 * 		  The slot of the local variable, as returned by resolveVariable.
+	 * @param value
+	 * 		  The new value of the variable.
+	 */
+	public void setVariable(ExecutionContext context, int slot, Object value){
+		context.getCallStack().setLocal(slot, value);
 	}
 	
-	public void setParameter(String name, Object value){
-		this.getParameters().put(name, value);
+	/**
+	 * Returns the value of a variable in the current call of this function in the given context.
+	 * A local variable that has no value yet refers to the global variable with the same name.
+	 * 
+	 * @param context
+	 * 		  The context in which this function is called.
+	 * @param slot
+	 * 		  The slot of the local variable, as returned by resolveVariable.
+	 * @param globalSlot
+	 * 		  The slot of the global variable with the same name in the program of this function.
+	 */
+	public Object getVariable(ExecutionContext context, int slot, int globalSlot){
+		Object value = context.getCallStack().getLocal(slot);
+		if(value != null)
+			return value;
+		return context.getVariable(globalSlot);
 	}
 	
-	public Object getParameter(String name){
-		return this.getParameters().get(name);
-	}
-	
-	public void setVariable(String name, Expression<?> value){
-		if(name.startsWith("$"))
-			this.setParameter(name, value.getValue());
-		else{
-			this.getLocalVariables().put(name, value.getValue());
+	private final HashMap<String,Integer> variableSlots = new HashMap<String,Integer>();
+	
+	/**
+	 * Returns the slot of the local variable with the given name. A name that isn't known yet
+	 * gets the next free slot.
+	 * 
+	 * @param name
+	 * 		  The name of the variable.
+	 * @return The slot of the local variable with the given name.
+	 * 		  |result == variableSlots.get(name)
+	 */
+	public int resolveVariable(String name){
+		Integer slot = this.variableSlots.get(name);
+		if(slot == null){
+			slot = this.variableSlots.size();
+			this.variableSlots.put(name, slot);
 		}
+		return slot;
 	}
 	
-	public void setVariable(String name, Object value){
-		if(name.startsWith("$"))
-			this.setParameter(name, value);
-		else{
-			this.getLocalVariables().put(name, value);
-		}
+	/**
+	 * Returns the number of local variables of this function.
+	 */
+	public int getNbVariables(){
+		return this.variableSlots.size();
 	}
 	
-	public Object getVariable(String name){
-		if(name.startsWith("$"))
-			return this.getParameter(name);
-		if(this.getLocalVariables().containsKey(name))
-			return this.getLocalVariables().get(name);
-		else
-			return this.getProgram().getVariable(name);
+	private int nbParameters = 0;
+	
+	/**
+	 * Registers that the body of this function reads the parameter with the given index.
+	 * 
+	 * @param index
+	 * 		  The index of the parameter, starting from 0 for $1.
+	 * @post The number of parameters of this function is at least one more than the given index.
+	 * 		  |new.getNbParameters() == Math.max(getNbParameters(), index+1)
+	 */
+	public void resolveParameter(int index){
+		this.nbParameters = Math.max(this.nbParameters, index+1);
 	}
 	
-	private ArrayList<FunctionExpression> expressionList = new ArrayList<FunctionExpression>();
-	
-
-	public void addExpression(FunctionExpression exp){
-		this.expressionList.add(exp);
+	/**
+	 * Returns the number of parameters that the body of this function reads, up to the highest one it reads.
+	 */
+	public int getNbParameters(){
+		return this.nbParameters;
 	}
 	
-	public void removeLastExp(){
-		this.expressionList.remove(this.expressionList.size()-1);
+	/**
+	 * Generates the method of this function in the code of the given compiler.
+	 * The parameters and local variables of the function are parameters and local variables of the method.
+	 * 
+	 * @param compiler
+	 * 		  The compiler that generates the code.
+	 * @param name
+	 * 		  The name of the method.
+	 */
+	void compile(ProgramCompiler compiler, String name){
+		int loopDepth = compiler.beginFunction();
+		for(int slot=0;slot<this.getNbVariables();slot++)
+			compiler.line("Object local" + slot + " = null;");
+		this.body.compile(compiler, "time");
+		compiler.line("throw new IllegalStatementError();");
+		List<String> parameters = new ArrayList<String>();
+		for(int index=0;index<this.getNbParameters();index++)
+			parameters.add("Object parameter" + index);
+		compiler.endFunction("private Object " + name + "(" + String.join(", ", parameters) + ")", loopDepth);
 	}
 	
-	public void evaluate(List<Expression<?>> arguments) throws ReturnedException,BreakException{
-		this.body.setFunction(this);
-		try{body.evaluate(Double.POSITIVE_INFINITY);}
-		catch(BreakException b){
-			this.removeLastExp();
-			throw b;
-		}
-		catch(ReturnedException r){
-			this.removeLastExp();
-			throw r;
-		}
+	/**
+	 * Evaluates the body of this function in a new frame on the call stack of the given context.
+	 * The last arguments on that stack are the parameters of the call.
+	 * 
+	 * @param context
+	 * 		  The context in which this function is called.
+	 * @param nbArguments
+	 * 		  The number of arguments of the call.
+	 * @throws ReturnedException
+	 * 		   The body of this function returns a value.
+	 * @throws IllegalStatementError
+	 * 		   The body of this function ends without returning a value.
+	 */
+	public void evaluate(ExecutionContext context, int nbArguments) throws ReturnedException,BreakException{
+		CallStack callStack = context.getCallStack();
+		callStack.enter(this, nbArguments);
+		try{body.evaluate(context, Double.POSITIVE_INFINITY);}
 		catch(NotEnoughTimeException n){
-			this.removeLastExp();
-			throw new UnsupportedOperationException(n);
+			// A body with infinite time never runs out of time.
+			throw new AssertionError(n);
 		}
-		catch(AssertionError a){
-			this.removeLastExp();
-			throw a;
+		finally{
+			callStack.exit();
 		}
-		this.removeLastExp();
-		throw new AssertionError();
+		throw new IllegalStatementError();
 	}
 }
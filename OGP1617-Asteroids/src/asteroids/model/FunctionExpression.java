@@ -11,8 +11,13 @@ public class FunctionExpression extends Expression<Object>{
 	private final String functionName;
 	private final List<Expression<?>> arguments;
 	
+	/**
+	 * The function that is called, resolved when this expression is bound to its program.
+	 */
+	private Function calledFunction;
+	
 	public Function getFunction(){
-		return this.getProgram().getFunction(this.functionName);
+		return this.calledFunction;
 	}
 	
 	public String getFunctionName(){
@@ -34,25 +39,10 @@ public class FunctionExpression extends Expression<Object>{
 		}
 	}
 	
-	private HashMap<String,Object> localVariables = new HashMap<String,Object>();
-	private HashMap<String,Object> parameters= new HashMap<String,Object>();
-	
-	public HashMap<String,Object> getParameters(){
-		return this.parameters;
-	}
-	
-	public HashMap<String,Object> getLocalVariables(){
-		return this.localVariables;
-	}
-	
-	public void setParameter(String name, Object value){
-		this.parameters.put(name, value);
-	}
-	
-	
 	@Override
 	public void setProgram(Program newProgram){
 		super.setProgram(newProgram);
+		this.calledFunction = newProgram == null ? null : newProgram.getFunction(this.functionName);
 		if(this.arguments!=null){
 			for(Expression<?> e: this.arguments){
 				e.setProgram(newProgram);
@@ -60,10 +50,6 @@ public class FunctionExpression extends Expression<Object>{
 		}
 	}
 	
-	public Object getParameter(String name){
-		return this.getParameters().get(name);
-	}
-	
 	private FunctionExpression previous;
 	
 	public FunctionExpression getPrevious(){
@@ -71,25 +57,54 @@ public class FunctionExpression extends Expression<Object>{
 	}
 	
 	@Override
-	public Object getValue() throws BreakException{
-		for(int i=0;i<arguments.size();i++){
-			String name = "$" + Integer.toString((i+1));
-			arguments.get(i).setProgram(this.getProgram());
-			arguments.get(i).setFunction(super.getFunction());
-			this.setParameter(name, arguments.get(i).getValue());
+	public Object getValue(ExecutionContext context) throws BreakException{
+		CallStack callStack = context.getCallStack();
+		int nbArguments = callStack.getNbArguments();
+		try{
+			for(int i=0;i<arguments.size();i++){
+				callStack.pushArgument(arguments.get(i).getValue(context));
+			}
+			this.getFunction().evaluate(context, arguments.size());
 		}
-		this.getFunction().addExpression(this);
-		try{this.getFunction().evaluate(arguments);}
 		catch(ReturnedException r){
 			Object value = r.getValue();
 			return value;
 		}
-		catch(BreakException b){
-			throw b;
+		finally{
+			callStack.popArguments(nbArguments);
 		}
-		catch(AssertionError a){
-			throw a;
+		throw new IllegalStatementError();
+	}
+
+	@Override
+	Expression<?> optimize(ProgramOptimizer optimizer){
+		List<Expression<?>> optimized = new ArrayList<Expression<?>>();
+		for(Expression<?> argument:this.arguments)
+			optimized.add(argument.optimize(optimizer));
+		return new FunctionExpression(this.functionName, optimized);
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		List<String> values = new ArrayList<String>();
+		for(Expression<?> argument:this.arguments)
+			values.add(argument.compile(compiler).asObject());
+		Function function = this.getFunction();
+		if(function == null)
+			return new ProgramCompiler.Code(ProgramCompiler.Kind.OBJECT, "undefinedFunction(" + String.join(", ", values) + ")");
+		String name = compiler.getFunctionName(function);
+		int nbParameters = function.getNbParameters();
+		if(values.size() > nbParameters && nbParameters == 0)
+			return new ProgramCompiler.Code(ProgramCompiler.Kind.OBJECT,
+					"(ignore(" + String.join(", ", values) + ") ? " + name + "() : null)");
+		if(values.size() > nbParameters){
+			List<String> ignored = values.subList(nbParameters-1, values.size());
+			String last = "last(" + String.join(", ", ignored) + ")";
+			values = new ArrayList<String>(values.subList(0, nbParameters-1));
+			values.add(last);
 		}
-		throw new AssertionError();
+		while(values.size() < nbParameters)
+			values.add("null");
+		return new ProgramCompiler.Code(ProgramCompiler.Kind.OBJECT, name + "(" + String.join(", ", values) + ")");
 	}
 }
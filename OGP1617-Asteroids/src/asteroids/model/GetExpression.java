@@ -25,10 +25,18 @@ public class GetExpression extends Expression<Double> {
 	private Getter getter;
 	
 	@Override
-	public Double getValue(){
-		this.expression.setFunction(this.getFunction());
-		this.expression.setProgram(this.getProgram());
-		Object value = expression.getValue();
+	public Double getValue(ExecutionContext context){
+		return this.evaluateDouble(context);
+	}
+	
+	@Override
+	boolean isNumeric(){
+		return true;
+	}
+	
+	@Override
+	double evaluateDouble(ExecutionContext context){
+		Object value = expression.getValue(context);
 		if(value instanceof Circle && value != null){
 			switch(this.getter){
 			case GETX:
@@ -49,4 +57,28 @@ public class GetExpression extends Expression<Double> {
 	}
 	
 	
+
+	@Override
+	Expression<?> optimize(ProgramOptimizer optimizer){
+		Expression<?> argument = this.expression.optimize(optimizer);
+		return optimizer.queryWorld(new GetExpression(this.getter, argument), argument);
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		String argument = this.expression.compile(compiler).asObject();
+		switch(this.getter){
+		case GETX:
+			return new ProgramCompiler.Code(ProgramCompiler.Kind.DOUBLE, "getX(" + argument + ")");
+		case GETY:
+			return new ProgramCompiler.Code(ProgramCompiler.Kind.DOUBLE, "getY(" + argument + ")");
+		case GETVX:
+			return new ProgramCompiler.Code(ProgramCompiler.Kind.DOUBLE, "getVX(" + argument + ")");
+		case GETVY:
+			return new ProgramCompiler.Code(ProgramCompiler.Kind.DOUBLE, "getVY(" + argument + ")");
+		case GETRADIUS:
+			return new ProgramCompiler.Code(ProgramCompiler.Kind.DOUBLE, "getRadius(" + argument + ")");
+		}
+		throw new AssertionError();
+	}
 }
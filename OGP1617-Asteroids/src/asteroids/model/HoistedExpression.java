@@ -0,0 +1,130 @@
+package asteroids.model;
+import java.util.Set;
+
+/**
+ * A class of expressions that remember the value of an expression that doesn't change while a loop runs.
+ * The value is remembered in the execution context of the ship that runs the loop.
+ * The value is computed the first time this expression is evaluated in a run of the loop, so the expression
+ * is still only evaluated if the loop evaluates it, and it fails at the same point if it fails.
+ * Numbers are remembered as primitive values and boxed anew on every evaluation, as the expression itself would.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+class HoistedExpression extends Expression<Object> {
+
+	/**
+	 * Creates a new hoisted expression.
+	 * 
+	 * @param expression
+	 * 		  The expression whose value is remembered.
+	 * @param variables
+	 * 		  The names of the variables that expression reads.
+	 * @param readsWorld
+	 * 		  Whether that expression queries the world of the ship of its program.
+	 */
+	HoistedExpression(Expression<?> expression, Set<String> variables, boolean readsWorld){
+		this.expression = expression;
+		this.variables = variables;
+		this.readsWorld = readsWorld;
+	}
+	
+	private final Expression<?> expression;
+	private final Set<String> variables;
+	private final boolean readsWorld;
+	
+	Set<String> getVariables(){
+		return this.variables;
+	}
+	
+	boolean readsWorld(){
+		return this.readsWorld;
+	}
+	
+	/**
+	 * The loop during every run of which the value is remembered, or null if the value is never remembered.
+	 */
+	private WhileStatement loop = null;
+	
+	WhileStatement getLoop(){
+		return this.loop;
+	}
+	
+	void setLoop(WhileStatement loop){
+		this.loop = loop;
+	}
+	
+	/**
+	 * The slot of the remembered value in the execution contexts of the program of this expression.
+	 */
+	private int slot = -1;
+	
+	/**
+	 * Forgets the value remembered in the given context, because a new run of the loop starts.
+	 */
+	void forget(ExecutionContext context){
+		context.forget(this.slot);
+	}
+	
+	@Override
+	public void setFunction(Function newFunction){
+		super.setFunction(newFunction);
+		this.expression.setFunction(newFunction);
+	}
+	
+	@Override
+	public void setProgram(Program newProgram){
+		super.setProgram(newProgram);
+		this.expression.setProgram(newProgram);
+		if(newProgram != null)
+			this.slot = newProgram.resolveHoisted();
+	}
+	
+	@Override
+	public Object getValue(ExecutionContext context){
+		if(this.expression.isNumeric())
+			return this.evaluateDouble(context);
+		if(this.loop == null)
+			return this.expression.getValue(context);
+		if(!context.isKnown(this.slot))
+			context.setHoistedValue(this.slot, this.expression.getValue(context));
+		return context.getHoistedValue(this.slot);
+	}
+	
+	@Override
+	boolean isNumeric(){
+		return this.expression.isNumeric();
+	}
+	
+	@Override
+	boolean isBoolean(){
+		return this.expression.isBoolean();
+	}
+	
+	@Override
+	double evaluateDouble(ExecutionContext context){
+		if(!this.expression.isNumeric())
+			return super.evaluateDouble(context);
+		if(this.loop == null)
+			return this.expression.evaluateDouble(context);
+		if(!context.isKnown(this.slot))
+			context.setHoistedNumber(this.slot, this.expression.evaluateDouble(context));
+		return context.getHoistedNumber(this.slot);
+	}
+	
+	@Override
+	boolean evaluateBoolean(ExecutionContext context){
+		if(!this.expression.isBoolean())
+			return super.evaluateBoolean(context);
+		if(this.loop == null)
+			return this.expression.evaluateBoolean(context);
+		if(!context.isKnown(this.slot))
+			context.setHoistedValue(this.slot, this.expression.evaluateBoolean(context));
+		return (Boolean)context.getHoistedValue(this.slot);
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		return this.expression.compile(compiler);
+	}
+}
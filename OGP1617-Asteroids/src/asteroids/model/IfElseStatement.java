@@ -1,4 +1,5 @@
 package asteroids.model;
+import java.util.*;
 
 public class IfElseStatement extends Statement {
 	public IfElseStatement(Expression<?> condition, Statement ifStatement, Statement elseStatement){
@@ -29,13 +30,24 @@ public class IfElseStatement extends Statement {
 			elseStatement.setProgram(newProgram);
 	}
 	
-	public void evaluate(double time) throws NotEnoughTimeException,ReturnedException,BreakException{
+	public void evaluate(ExecutionContext context, double time) throws NotEnoughTimeException,ReturnedException,BreakException{
 		if(time<0.2)
 			throw new NotEnoughTimeException(time);
-		Object cond = condition.getValue();
-		if(cond instanceof Boolean){
-			if(((Boolean)cond) == true){
-				try{ifStatement.evaluate(time);}
+		if(condition.evaluateBoolean(context)){
+			try{ifStatement.evaluate(context, time);}
+			catch(NotEnoughTimeException n){
+				throw n;
+			}
+			catch(BreakException b){
+				throw b;
+			}
+			catch(ReturnedException r){
+				throw r;
+			}
+		}
+		else{
+			if(elseStatement != null){
+				try{elseStatement.evaluate(context, time);}
 				catch(NotEnoughTimeException n){
 					throw n;
 				}
@@ -46,22 +58,41 @@ public class IfElseStatement extends Statement {
 					throw r;
 				}
 			}
-			else{
-				if(elseStatement != null){
-					try{elseStatement.evaluate(time);}
-					catch(NotEnoughTimeException n){
-						throw n;
-					}
-					catch(BreakException b){
-						throw b;
-					}
-					catch(ReturnedException r){
-						throw r;
-					}
-				}
-			}
 		}
+	}
+
+	/**
+	 * An if statement with a constant condition keeps only the branch that is taken. The statement itself
+	 * is kept, because it checks the time that is left before that branch is evaluated.
+	 */
+	@Override
+	Statement optimize(ProgramOptimizer optimizer){
+		Expression<?> optimized = this.condition.optimize(optimizer);
+		if(optimized instanceof BooleanLiteralExpression){
+			Statement taken = optimized.evaluateBoolean(null) ? this.ifStatement : this.elseStatement;
+			if(taken == null)
+				taken = new BlockStatement(new ArrayList<Statement>());
+			return new IfElseStatement(new BooleanLiteralExpression(true), taken.optimize(optimizer), null);
+		}
+		return new IfElseStatement(optimized, this.ifStatement.optimize(optimizer),
+				this.elseStatement == null ? null : this.elseStatement.optimize(optimizer));
+	}
+
+	@Override
+	void compile(ProgramCompiler compiler, String time){
+		if(!compiler.isInFunction())
+			compiler.line("checkTime(" + time + ");");
+		ProgramCompiler.Code code = this.condition.compile(compiler);
+		if(code.kind == ProgramCompiler.Kind.BOOLEAN)
+			compiler.line("if(" + code.source + "){");
 		else
-			throw new IllegalArgumentException();
+			compiler.line("if(bool(" + code.asObject() + ")){");
+		this.ifStatement.compile(compiler, time);
+		compiler.line("}");
+		if(this.elseStatement != null){
+			compiler.line("else{");
+			this.elseStatement.compile(compiler, time);
+			compiler.line("}");
+		}
 	}
 }
@@ -0,0 +1,21 @@
+package asteroids.model;
+
+/**
+ * A class of errors signalling that a statement can't be executed where it occurs:
+ * an action or turn inside a function, a return outside a function or a function that
+ * ends without returning. A program is stopped by these errors, but they are thrown through
+ * recursive function calls, so they don't capture a stack trace.
+ */
+public class IllegalStatementError extends AssertionError {
+
+	private static final long serialVersionUID = 1L;
+
+	public IllegalStatementError(){
+		super();
+	}
+
+	@Override
+	public synchronized Throwable fillInStackTrace(){
+		return this;
+	}
+}
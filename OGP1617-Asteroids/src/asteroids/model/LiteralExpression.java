@@ -5,9 +5,24 @@ public class LiteralExpression extends Expression<Double> {
 		this.value = value;
 	}
 	
-	public Double getValue(){
+	public Double getValue(ExecutionContext context){
 		return this.value;
 	}
 	
 	private final double value;
+	
+	@Override
+	boolean isNumeric(){
+		return true;
+	}
+	
+	@Override
+	double evaluateDouble(ExecutionContext context){
+		return this.value;
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		return new ProgramCompiler.Code(ProgramCompiler.Kind.DOUBLE, ProgramCompiler.literal(this.value));
+	}
 }
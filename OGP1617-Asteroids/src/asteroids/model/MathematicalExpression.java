@@ -27,21 +27,67 @@ public class MathematicalExpression extends Expression<Double> {
 		secondArgument.setProgram(newProgram);
 	}
 	
-	public Double getValue(){
-		Object value1 = firstArgument.getValue();
-		Object value2 = secondArgument.getValue();
-		if(value1 instanceof Double && value2 instanceof Double){
+	public Double getValue(ExecutionContext context){
+		return this.evaluateDouble(context);
+	}
+	
+	@Override
+	boolean isNumeric(){
+		return true;
+	}
+	
+	/**
+	 * Both arguments are evaluated before the type of either one is checked.
+	 * An argument that is numeric by its static type can't fail that check, so it is evaluated without boxing.
+	 */
+	@Override
+	double evaluateDouble(ExecutionContext context){
+		double value1;
+		double value2;
+		if(firstArgument.isNumeric()){
+			value1 = firstArgument.evaluateDouble(context);
+			value2 = secondArgument.evaluateDouble(context);
+		}
+		else{
+			Object object1 = firstArgument.getValue(context);
+			value2 = secondArgument.evaluateDouble(context);
+			if(!(object1 instanceof Double))
+				throw new IllegalArgumentException();
+			value1 = (Double)object1;
+		}
 		switch (type){
 			case MULTIPLICATION:
-				return (Double)value1*(Double)value2;
+				return value1*value2;
 			case SUSTRACTION:
-				return (Double)value1-(Double)value2;
+				return value1-value2;
 			case ADDITION:
-				return (Double)value1+(Double)value2;
+				return value1+value2;
 		}
 		throw new AssertionError();
+	}
+
+	@Override
+	Expression<?> optimize(ProgramOptimizer optimizer){
+		Expression<?> first = this.firstArgument.optimize(optimizer);
+		Expression<?> second = this.secondArgument.optimize(optimizer);
+		MathematicalExpression result = new MathematicalExpression(this.type, first, second);
+		if(first instanceof LiteralExpression && second instanceof LiteralExpression)
+			return new LiteralExpression(result.evaluateDouble(null));
+		return optimizer.pure(result, first, second);
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		ProgramCompiler.Code first = this.firstArgument.compile(compiler);
+		ProgramCompiler.Code second = this.secondArgument.compile(compiler);
+		switch(this.type){
+		case MULTIPLICATION:
+			return new ProgramCompiler.Code(ProgramCompiler.Kind.DOUBLE, ProgramCompiler.binary(first, second, "*", "multiply"));
+		case SUSTRACTION:
+			return new ProgramCompiler.Code(ProgramCompiler.Kind.DOUBLE, ProgramCompiler.binary(first, second, "-", "subtract"));
+		case ADDITION:
+			return new ProgramCompiler.Code(ProgramCompiler.Kind.DOUBLE, ProgramCompiler.binary(first, second, "+", "add"));
 		}
-		else
-			throw new IllegalArgumentException();
+		throw new AssertionError();
 	}
 }
@@ -95,12 +95,13 @@ public abstract class MinorPlanet extends Circle {
 		else if(this.getWorld() != otherMinor.getWorld() || this == otherMinor)
 			throw new IllegalArgumentException();
 		else{
-			Vector2D deltaV = this.getVelVector().substract(otherMinor.getVelVector());
-			Vector2D deltaR = this.getPosVector().substract(otherMinor.getPosVector());
+			double deltaRX = this.getPosX()-otherMinor.getPosX();
+			double deltaRY = this.getPosY()-otherMinor.getPosY();
+			double deltaVR = Vector2D.scalarProduct(this.getVelX()-otherMinor.getVelX(), this.getVelY()-otherMinor.getVelY(), deltaRX, deltaRY);
 			double sigma = this.getRadius() + otherMinor.getRadius();
-			double J = 2*this.getMass()*otherMinor.getMass()*deltaV.scalarProduct(deltaR)/((this.getMass()+otherMinor.getMass())*sigma);
-			double Jx = J*(deltaR.getX())/sigma;
-			double Jy = J*(deltaR.getY())/sigma;
+			double J = 2*this.getMass()*otherMinor.getMass()*deltaVR/((this.getMass()+otherMinor.getMass())*sigma);
+			double Jx = J*deltaRX/sigma;
+			double Jy = J*deltaRY/sigma;
 			this.setVel(this.getVelX()-(Jx/this.getMass()), this.getVelY()-(Jy/this.getMass()));
 			otherMinor.setVel(otherMinor.getVelX()+(Jx/otherMinor.getMass()), otherMinor.getVelY()+(Jy/otherMinor.getMass()));
 		}
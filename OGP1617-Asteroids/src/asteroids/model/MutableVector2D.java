@@ -0,0 +1,178 @@
+package asteroids.model;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of mutable 2-dimensional vectors.
+ * A mutable vector is meant as a scratch vector in calculations that would otherwise
+ * allocate a new Vector2D for every intermediate result. It should never be shared.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class MutableVector2D {
+
+	/**
+	 * Creates a new mutable vector with both components equal to zero.
+	 *
+	 * @effect this(0,0)
+	 */
+	public MutableVector2D(){
+		this(0,0);
+	}
+
+	/**
+	 * Creates a new mutable vector with the given components.
+	 *
+	 * @param x
+	 * 		  The x component of the new vector.
+	 * @param y
+	 * 		  The y component of the new vector.
+	 * @effect this.set(x,y)
+	 */
+	public MutableVector2D(double x, double y){
+		this.set(x,y);
+	}
+
+	private double x;
+	private double y;
+
+	/**
+	 * Returns the x component of the vector.
+	 * @return the x component of the vector.
+	 * 		   |result == this.x
+	 */
+	@Basic
+	public double getX(){
+		return this.x;
+	}
+
+	/**
+	 * Returns the y component of the vector.
+	 * @return the y component of the vector.
+	 * 		   |result == this.y
+	 */
+	@Basic
+	public double getY(){
+		return this.y;
+	}
+
+	/**
+	 * Sets the components of this vector.
+	 *
+	 * @param x
+	 * 		  The new x component.
+	 * @param y
+	 * 		  The new y component.
+	 * @post The components of this vector are x and y.
+	 * 		 |new.getX() == x && new.getY() == y
+	 * @return This vector.
+	 * 		  |result == this
+	 */
+	public MutableVector2D set(double x, double y){
+		this.x = x;
+		this.y = y;
+		return this;
+	}
+
+	/**
+	 * Adds the vector with the given components to this vector.
+	 *
+	 * @param x
+	 * 		  The x component to add.
+	 * @param y
+	 * 		  The y component to add.
+	 * @effect this.set(this.getX()+x,this.getY()+y)
+	 * @return This vector.
+	 * 		  |result == this
+	 */
+	public MutableVector2D add(double x, double y){
+		return this.set(this.x+x,this.y+y);
+	}
+
+	/**
+	 * Adds the vector with the given components, multiplied with a scalar, to this vector.
+	 *
+	 * @param x
+	 * 		  The x component of the vector to add.
+	 * @param y
+	 * 		  The y component of the vector to add.
+	 * @param scalar
+	 * 		  The scalar with which the vector to add is multiplied.
+	 * @effect this.set(this.getX()+x*scalar,this.getY()+y*scalar)
+	 * @return This vector.
+	 * 		  |result == this
+	 */
+	public MutableVector2D addScaled(double x, double y, double scalar){
+		return this.set(this.x+x*scalar,this.y+y*scalar);
+	}
+
+	/**
+	 * Subtracts the vector with the given components from this vector.
+	 *
+	 * @param x
+	 * 		  The x component to subtract.
+	 * @param y
+	 * 		  The y component to subtract.
+	 * @effect this.set(this.getX()-x,this.getY()-y)
+	 * @return This vector.
+	 * 		  |result == this
+	 */
+	public MutableVector2D substract(double x, double y){
+		return this.set(this.x-x,this.y-y);
+	}
+
+	/**
+	 * Multiplies this vector with a scalar.
+	 *
+	 * @param scalar
+	 * 		  The scalar with which this vector is multiplied.
+	 * @effect this.set(this.getX()*scalar,this.getY()*scalar)
+	 * @return This vector.
+	 * 		  |result == this
+	 */
+	public MutableVector2D multiply(double scalar){
+		return this.set(this.x*scalar,this.y*scalar);
+	}
+
+	/**
+	 * Returns the length of this vector.
+	 * @return The length of this vector.
+	 * 		  |result == Vector2D.length(this.getX(),this.getY())
+	 */
+	public double length(){
+		return Vector2D.length(this.x,this.y);
+	}
+
+	/**
+	 * Returns the scalar product of this vector and the vector with the given components.
+	 *
+	 * @param x
+	 * 		  The x component of the other vector.
+	 * @param y
+	 * 		  The y component of the other vector.
+	 * @return The scalar product of both vectors.
+	 * 		  |result == Vector2D.scalarProduct(this.getX(),this.getY(),x,y)
+	 */
+	public double scalarProduct(double x, double y){
+		return Vector2D.scalarProduct(this.x,this.y,x,y);
+	}
+
+	/**
+	 * Returns an immutable copy of this vector.
+	 * @return A vector with the same components as this vector.
+	 * 		  |result.equals(new Vector2D(this.getX(),this.getY()))
+	 */
+	public Vector2D toVector2D(){
+		return new Vector2D(this.x,this.y);
+	}
+
+	/**
+	 * Returns the components of this vector in an array.
+	 * @return An array with the x and y component.
+	 * 		  |result == {this.getX(),this.getY()}
+	 */
+	public double[] array(){
+		double[] array = {this.x,this.y};
+		return array;
+	}
+}
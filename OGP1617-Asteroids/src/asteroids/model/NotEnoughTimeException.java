@@ -1,9 +1,14 @@
 package asteroids.model;
 
+/**
+ * A class of exceptions signalling that a program has to suspend its execution because
+ * less than 0.2 seconds remain. Suspending is part of the normal flow of a program,
+ * so these exceptions don't capture a stack trace.
+ */
 public class NotEnoughTimeException extends Exception {
 	
 	public NotEnoughTimeException(double restingTime){
-		super();
+		super(null, null, false, false);
 		this.time = restingTime;
 	}
 	
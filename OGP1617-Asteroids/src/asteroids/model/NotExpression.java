@@ -20,11 +20,34 @@ public class NotExpression extends Expression<Boolean>{
 	}
 	
 	@Override
-	public Boolean getValue(){
-		Object value = this.expression.getValue();
-		if(value instanceof Boolean)
-			return !(Boolean)value;
-		else
-			throw new IllegalArgumentException();
+	public Boolean getValue(ExecutionContext context){
+		return this.evaluateBoolean(context);
+	}
+	
+	@Override
+	boolean isBoolean(){
+		return true;
+	}
+	
+	@Override
+	boolean evaluateBoolean(ExecutionContext context){
+		return !this.expression.evaluateBoolean(context);
+	}
+
+	@Override
+	Expression<?> optimize(ProgramOptimizer optimizer){
+		Expression<?> argument = this.expression.optimize(optimizer);
+		NotExpression result = new NotExpression(argument);
+		if(argument instanceof BooleanLiteralExpression)
+			return new BooleanLiteralExpression(result.evaluateBoolean(null));
+		return optimizer.pure(result, argument);
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		ProgramCompiler.Code argument = this.expression.compile(compiler);
+		if(argument.kind == ProgramCompiler.Kind.BOOLEAN)
+			return new ProgramCompiler.Code(ProgramCompiler.Kind.BOOLEAN, "(!" + argument.source + ")");
+		return new ProgramCompiler.Code(ProgramCompiler.Kind.BOOLEAN, "not(" + argument.asObject() + ")");
 	}
 }
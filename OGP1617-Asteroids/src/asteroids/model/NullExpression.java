@@ -1,7 +1,12 @@
 package asteroids.model;
 
 public class NullExpression extends Expression<Object> {
-	public Object getValue(){
+	public Object getValue(ExecutionContext context){
 		return null;
 	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		return new ProgramCompiler.Code(ProgramCompiler.Kind.OBJECT, "null");
+	}
 }
@@ -4,17 +4,46 @@ public class ParameterReadExpression extends Expression<Object>{
 
 	public ParameterReadExpression(String name) {
 		this.name = name;
+		this.index = getIndex(name);
 	}
 	
 	private final String name;
+	private final int index;
 	
+	/**
+	 * Returns the index of the parameter with the given name, starting from 0 for $1,
+	 * or -1 if no argument is ever bound to that name.
+	 */
+	private static int getIndex(String name){
+		try{
+			int number = Integer.parseInt(name.substring(1));
+			if(name.equals("$" + Integer.toString(number)))
+				return number-1;
+		}
+		catch(NumberFormatException exc){
+			// The name doesn't denote an argument.
+		}
+		return -1;
+	}
+	
+	@Override
+	public void setFunction(Function newFunction){
+		super.setFunction(newFunction);
+		if(newFunction != null)
+			newFunction.resolveParameter(this.index);
+	}
 	
 	@Override
-	public Object getValue(){
-		if(this.getFunction().getParameter(name) == null)
-			return null;
-		else
-			return this.getFunction().getParameter(name);
+	public Object getValue(ExecutionContext context){
+		return this.getFunction().getParameter(context, this.index);
 	}
 
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		if(this.getFunction() == null)
+			return new ProgramCompiler.Code(ProgramCompiler.Kind.OBJECT, "parameterOutsideFunction()");
+		if(this.index < 0)
+			return new ProgramCompiler.Code(ProgramCompiler.Kind.OBJECT, "null");
+		return new ProgramCompiler.Code(ProgramCompiler.Kind.OBJECT, "parameter" + this.index);
+	}
 }
@@ -0,0 +1,145 @@
+package asteroids.model;
+import java.util.Arrays;
+
+/**
+ * A class of buffers holding the physical state of circles in parallel arrays.
+ * Every circle reads and writes its position, velocity, radius and mass in a slot of a buffer.
+ * A circle that is not in a world has a buffer with a single slot of its own. A world keeps the
+ * state of all its circles in one buffer, where the slot of a circle is its index in the world,
+ * so that the world can move all its circles and test pairs of circles in tight loops over the arrays.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+class PhysicsBuffer {
+
+	/**
+	 * Creates a new buffer with the given number of slots.
+	 *
+	 * @param capacity
+	 * 		  The number of slots of the new buffer.
+	 */
+	PhysicsBuffer(int capacity){
+		this.posX = new double[capacity];
+		this.posY = new double[capacity];
+		this.velX = new double[capacity];
+		this.velY = new double[capacity];
+		this.radius = new double[capacity];
+		this.mass = new double[capacity];
+	}
+
+	double[] posX;
+	double[] posY;
+	double[] velX;
+	double[] velY;
+	double[] radius;
+	double[] mass;
+
+	/**
+	 * Returns the number of slots of this buffer.
+	 */
+	int getCapacity(){
+		return this.posX.length;
+	}
+
+	/**
+	 * Makes sure this buffer has at least the given number of slots. The content of the existing slots is kept.
+	 *
+	 * @param capacity
+	 * 		  The minimal number of slots.
+	 */
+	void ensureCapacity(int capacity){
+		if(capacity<=this.getCapacity())
+			return;
+		int newCapacity = Math.max(capacity, 2*this.getCapacity());
+		this.posX = Arrays.copyOf(this.posX, newCapacity);
+		this.posY = Arrays.copyOf(this.posY, newCapacity);
+		this.velX = Arrays.copyOf(this.velX, newCapacity);
+		this.velY = Arrays.copyOf(this.velY, newCapacity);
+		this.radius = Arrays.copyOf(this.radius, newCapacity);
+		this.mass = Arrays.copyOf(this.mass, newCapacity);
+	}
+
+	/**
+	 * Copies the content of a slot of this buffer to a slot of another buffer.
+	 *
+	 * @param slot
+	 * 		  The slot of this buffer to copy.
+	 * @param target
+	 * 		  The buffer to copy to, which may be this buffer.
+	 * @param targetSlot
+	 * 		  The slot of the target buffer to copy to.
+	 */
+	void copy(int slot, PhysicsBuffer target, int targetSlot){
+		target.posX[targetSlot] = this.posX[slot];
+		target.posY[targetSlot] = this.posY[slot];
+		target.velX[targetSlot] = this.velX[slot];
+		target.velY[targetSlot] = this.velY[slot];
+		target.radius[targetSlot] = this.radius[slot];
+		target.mass[targetSlot] = this.mass[slot];
+	}
+
+	/**
+	 * Moves the circles in the first slots of this buffer along their velocity during the given time.
+	 *
+	 * @param size
+	 * 		  The number of slots to move.
+	 * @param time
+	 * 		  The amount of time the circles move.
+	 */
+	void move(int size, double time){
+		double[] posX = this.posX;
+		double[] posY = this.posY;
+		double[] velX = this.velX;
+		double[] velY = this.velY;
+		for(int i=0;i<size;i++){
+			posX[i] += velX[i]*time;
+			posY[i] += velY[i]*time;
+		}
+	}
+
+	/**
+	 * Calculates the time until the circles in the given slots of this buffer collide.
+	 *
+	 * @param first
+	 * 		  The slot of the first circle.
+	 * @param second
+	 * 		  The slot of the second circle.
+	 * @return The time until both circles collide, or Double.POSITIVE_INFINITY if they never collide.
+	 * 		  |result == getTimeToCollision(this, first, this, second)
+	 */
+	double getTimeToCollision(int first, int second){
+		return getTimeToCollision(this, first, this, second);
+	}
+
+	/**
+	 * Calculates the time until the circles in the given slots of the given buffers collide.
+	 *
+	 * @param buffer
+	 * 		  The buffer of the first circle.
+	 * @param slot
+	 * 		  The slot of the first circle.
+	 * @param otherBuffer
+	 * 		  The buffer of the second circle.
+	 * @param otherSlot
+	 * 		  The slot of the second circle.
+	 * @return The time until both circles collide, or Double.POSITIVE_INFINITY if they never collide.
+	 * 		  @see implementation
+	 */
+	static double getTimeToCollision(PhysicsBuffer buffer, int slot, PhysicsBuffer otherBuffer, int otherSlot){
+		double deltaVX = buffer.velX[slot]-otherBuffer.velX[otherSlot];
+		double deltaVY = buffer.velY[slot]-otherBuffer.velY[otherSlot];
+		double deltaRX = buffer.posX[slot]-otherBuffer.posX[otherSlot];
+		double deltaRY = buffer.posY[slot]-otherBuffer.posY[otherSlot];
+		double sigma = buffer.radius[slot]+otherBuffer.radius[otherSlot];
+		double deltaVR = Vector2D.scalarProduct(deltaVX, deltaVY, deltaRX, deltaRY);
+		double deltaVV = Vector2D.scalarProduct(deltaVX, deltaVY, deltaVX, deltaVY);
+		double d = deltaVR*deltaVR-deltaVV*(Vector2D.scalarProduct(deltaRX, deltaRY, deltaRX, deltaRY)-sigma*sigma);
+		if(deltaVR>=0)
+			return Double.POSITIVE_INFINITY;
+		else if(d<=0)
+			return Double.POSITIVE_INFINITY;
+		else
+			return -((deltaVR+Math.sqrt(d))/deltaVV);
+	}
+}
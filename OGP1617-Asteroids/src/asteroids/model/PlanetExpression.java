@@ -2,8 +2,17 @@ package asteroids.model;
 
 import asteroids.model.*;
 public class PlanetExpression extends Expression<MinorPlanet> {
-	public MinorPlanet getValue(){
-		Ship user = this.getProgram().getUser();
-		return user.getNearestPlanet();
+	public MinorPlanet getValue(ExecutionContext context){
+		return (MinorPlanet)context.queryWorld(WorldQuery.PLANET);
+	}
+
+	@Override
+	Expression<?> optimize(ProgramOptimizer optimizer){
+		return optimizer.queryWorld(this);
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		return new ProgramCompiler.Code(ProgramCompiler.Kind.OBJECT, "context.queryWorld(WorldQuery.PLANET)");
 	}
 }
@@ -58,14 +58,15 @@ public class Planetoid extends MinorPlanet {
 			World world = this.getWorld();
 			if(this.getRadius()>=30){
 				double direction = Math.random();
-				double otherDirection = Math.sqrt(1-Math.pow(direction,2));
+				double otherDirection = Math.sqrt(1-direction*direction);
+				double speed = Vector2D.length(this.getVelX(), this.getVelY());
 				world.remove(this);
 				world.add(
 						new Asteroid(this.getPosX()+direction*this.getRadius()/2,this.getPosY()+otherDirection*this.getRadius()/2,
-								1.5*this.getVelVector().length()*direction,1.5*this.getVelVector().length()*otherDirection,this.getRadius()/2));
+								1.5*speed*direction,1.5*speed*otherDirection,this.getRadius()/2));
 				world.add(
 						new Asteroid(this.getPosX()-direction*this.getRadius()/2,this.getPosY()-otherDirection*this.getRadius()/2,
-								-1.5*this.getVelVector().length()*direction,-1.5*this.getVelVector().length()*otherDirection,this.getRadius()/2));
+								-1.5*speed*direction,-1.5*speed*otherDirection,this.getRadius()/2));
 			}
 			else
 				world.remove(this);
@@ -166,13 +167,23 @@ public class Planetoid extends MinorPlanet {
 	 * @effect The distance the planetoid has traveled is set to the sum of
 	 * 		   the length of the velocity vector multiplied with the time and
 	 * 		   the current distance.
-	 * 		   |this.setDistanceTraveled(this.getDistanceTraveled()+this.getVelVector().multiply(dt).length())
+	 * 		   |this.setDistanceTraveled(this.getDistanceTraveled()+Vector2D.length(this.getVelX()*dt,this.getVelY()*dt))
+	 * 		   The planetoid wears down to its new radius, which doesn't change its motion count.
 	 */
 	public void updateDistanceTraveled(double dt) {
 		if(dt<0)
 			dt=0;
-		double newDistance = this.getDistanceTraveled()+this.getVelVector().multiply(dt).length();
-		this.setDistanceTraveled(newDistance);
+		double newDistance = this.getDistanceTraveled()+Vector2D.length(this.getVelX()*dt, this.getVelY()*dt);
+		if(!this.canHaveAsDistance(newDistance))
+			this.terminate();
+		else{
+			this.distanceTraveled = newDistance;
+			double newRadius = this.getInitialRadius()-0.000001*this.getDistanceTraveled();
+			if(newRadius<=this.getRadius())
+				this.wearRadius(newRadius);
+			else
+				this.setRadius(newRadius);
+		}
 	}
 	
 	/**
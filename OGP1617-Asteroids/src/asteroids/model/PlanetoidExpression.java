@@ -2,8 +2,17 @@ package asteroids.model;
 
 import asteroids.model.*;
 public class PlanetoidExpression extends Expression<Planetoid> {
-	public Planetoid getValue(){
-		Ship user = this.getProgram().getUser();
-		return user.getNearestPlanetoid();
+	public Planetoid getValue(ExecutionContext context){
+		return (Planetoid)context.queryWorld(WorldQuery.PLANETOID);
+	}
+
+	@Override
+	Expression<?> optimize(ProgramOptimizer optimizer){
+		return optimizer.queryWorld(this);
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		return new ProgramCompiler.Code(ProgramCompiler.Kind.OBJECT, "context.queryWorld(WorldQuery.PLANETOID)");
 	}
 }
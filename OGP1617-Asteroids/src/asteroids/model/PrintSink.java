@@ -0,0 +1,26 @@
+package asteroids.model;
+import java.util.List;
+
+/**
+ * An interface of sinks that receive the values printed by the program of a ship, and keep the values
+ * that executing the program returns. A sink is used by one execution context at a time, unless it says otherwise.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public interface PrintSink {
+
+	/**
+	 * Receives a value printed by the program.
+	 *
+	 * @param value
+	 * 		  The printed value, which may be null.
+	 */
+	void print(Object value);
+
+	/**
+	 * Returns the printed values this sink keeps, from the oldest to the newest.
+	 * The returned list can't be modified, and may reflect values printed later on.
+	 */
+	List<Object> getValues();
+}
@@ -19,10 +19,29 @@ public class PrintStatement extends Statement {
 		expression.setProgram(newProgram);
 	}
 	
-	public void evaluate(double time) throws NotEnoughTimeException,BreakException{
+	public void evaluate(ExecutionContext context, double time) throws NotEnoughTimeException,BreakException{
 		if(time<0.2)
 			throw new NotEnoughTimeException(time);
-		System.out.println(expression.toString());
-		this.getProgram().addPrintedValue(this.expression.getValue());
+		Object value = this.expression.getValue(context);
+		System.out.println(value != null ? value.toString() : null);
+		context.addPrintedValue(value);
+	}
+
+	@Override
+	Statement optimize(ProgramOptimizer optimizer){
+		return new PrintStatement(this.expression.optimize(optimizer));
+	}
+
+	@Override
+	void compile(ProgramCompiler compiler, String time){
+		if(!compiler.isInFunction())
+			compiler.line("checkTime(" + time + ");");
+		String code = this.expression.compile(compiler).asObject();
+		String value = compiler.newName("value");
+		compiler.line("{");
+		compiler.line("Object " + value + " = " + code + ";");
+		compiler.line("System.out.println(" + value + " != null ? " + value + ".toString() : null);");
+		compiler.line("context.addPrintedValue(" + value + ");");
+		compiler.line("}");
 	}
 }
@@ -0,0 +1,143 @@
+package asteroids.model;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.*;
+
+import asteroids.part3.programs.SourceLocation;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of reports that sum the profiles of a program, as executed by any number of ships, and write the hot spots
+ * of the program with the lines of its source. The lines of the source are written from the hottest to the coldest,
+ * by the self time of the nodes that start on them, followed by the nodes themselves.
+ * The hits of a line are those of its most evaluated node.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class ProfileReport {
+
+	/**
+	 * Creates a new empty report of the given program.
+	 *
+	 * @param program
+	 * 		  The profiled program.
+	 * @post The program of this report is the given program.
+	 * 		  |new.getProgram() == program
+	 * @throws NullPointerException
+	 * 		   The given program is not effective.
+	 * 		   |program == null
+	 */
+	public ProfileReport(Program program) throws NullPointerException{
+		this.program = program;
+		int size = program.getNbProfiled();
+		this.hits = new long[size];
+		this.totalTimes = new long[size];
+		this.selfTimes = new long[size];
+		this.allocatedBytes = new long[size];
+	}
+
+	private final Program program;
+	private final long[] hits;
+	private final long[] totalTimes;
+	private final long[] selfTimes;
+	private final long[] allocatedBytes;
+
+	/**
+	 * Returns the program of this report.
+	 */
+	@Basic
+	@Immutable
+	public Program getProgram(){
+		return this.program;
+	}
+
+	/**
+	 * Adds the given profile to this report.
+	 *
+	 * @param profile
+	 * 		  The profile to add.
+	 * @throws IllegalArgumentException
+	 * 		   The profile is not a profile of the program of this report.
+	 * 		   |profile.getProgram() != getProgram()
+	 */
+	public void add(ProgramProfile profile) throws IllegalArgumentException{
+		if(profile.getProgram() != this.getProgram())
+			throw new IllegalArgumentException();
+		for(int slot=0;slot<this.hits.length;slot++){
+			this.hits[slot] += profile.getHits(slot);
+			this.totalTimes[slot] += profile.getTotalTime(slot);
+			this.selfTimes[slot] += profile.getSelfTime(slot);
+			this.allocatedBytes[slot] += profile.getAllocatedBytes(slot);
+		}
+	}
+
+	/**
+	 * Returns the lines of the source of the program that have evaluated nodes, from the hottest to the coldest.
+	 * Lines are numbered from 1.
+	 */
+	public List<Integer> getHotLines(){
+		final Map<Integer,Long> times = new HashMap<Integer,Long>();
+		for(int slot=0;slot<this.hits.length;slot++){
+			SourceLocation location = this.getProgram().getProfiledLocation(slot);
+			if(location == null || this.hits[slot] == 0)
+				continue;
+			Long time = times.get(location.getLine());
+			times.put(location.getLine(), (time == null ? 0 : time)+this.selfTimes[slot]);
+		}
+		List<Integer> lines = new ArrayList<Integer>(times.keySet());
+		Collections.sort(lines, (first, second) -> times.get(second).equals(times.get(first)) ?
+				Integer.compare(first, second) : Long.compare(times.get(second), times.get(first)));
+		return lines;
+	}
+
+	/**
+	 * Writes this report to the given writer.
+	 *
+	 * @param source
+	 * 		  The lines of the source of the program.
+	 * @param writer
+	 * 		  The writer to which the report is written.
+	 * @throws IOException
+	 * 		   The report can't be written.
+	 */
+	public void write(List<String> source, Writer writer) throws IOException{
+		PrintWriter out = new PrintWriter(writer);
+		out.println("Hot lines");
+		out.printf(Locale.ROOT, "%6s %12s %12s %14s  %s%n", "line", "hits", "self ms", "bytes", "source");
+		for(int line:this.getHotLines()){
+			long hits = 0;
+			long time = 0;
+			long bytes = 0;
+			for(int slot=0;slot<this.hits.length;slot++){
+				SourceLocation location = this.getProgram().getProfiledLocation(slot);
+				if(location != null && location.getLine() == line){
+					hits = Math.max(hits, this.hits[slot]);
+					time += this.selfTimes[slot];
+					bytes += this.allocatedBytes[slot];
+				}
+			}
+			String text = line >= 1 && line <= source.size() ? source.get(line-1).trim() : "";
+			out.printf(Locale.ROOT, "%6d %12d %12.3f %14d  %s%n", line, hits, time/1E6, bytes, text);
+		}
+		out.println();
+		out.println("Hot nodes");
+		out.printf(Locale.ROOT, "%10s %-28s %12s %12s %12s %14s%n", "location", "node", "hits", "total ms", "self ms", "bytes");
+		Integer[] slots = new Integer[this.hits.length];
+		for(int slot=0;slot<slots.length;slot++)
+			slots[slot] = slot;
+		Arrays.sort(slots, (first, second) -> Long.compare(this.selfTimes[second], this.selfTimes[first]));
+		for(int slot:slots){
+			if(this.hits[slot] == 0)
+				continue;
+			SourceLocation location = this.getProgram().getProfiledLocation(slot);
+			String where = location == null ? "?" : location.getLine() + ":" + (location.getColumn()+1);
+			out.printf(Locale.ROOT, "%10s %-28s %12d %12.3f %12.3f %14d%n", where, this.getProgram().getProfiledKind(slot),
+					this.hits[slot], this.totalTimes[slot]/1E6, this.selfTimes[slot]/1E6, this.allocatedBytes[slot]);
+		}
+		out.flush();
+		if(out.checkError())
+			throw new IOException("The report can't be written");
+	}
+}
@@ -0,0 +1,111 @@
+package asteroids.model;
+
+import asteroids.part3.programs.SourceLocation;
+
+/**
+ * A class of expressions that count the evaluations of an expression, and the time and bytes they take,
+ * in the profile of the execution context in which they are evaluated.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+class ProfiledExpression<T> extends Expression<T> {
+
+	/**
+	 * Creates a new profiled expression.
+	 *
+	 * @param expression
+	 * 		  The expression that is profiled.
+	 * @param location
+	 * 		  The location of that expression in the source of its program.
+	 */
+	ProfiledExpression(Expression<T> expression, SourceLocation location){
+		this.expression = expression;
+		this.location = location;
+	}
+
+	/**
+	 * Returns a new profiled expression of the given expression.
+	 */
+	static <T> ProfiledExpression<T> of(Expression<T> expression, SourceLocation location){
+		return new ProfiledExpression<T>(expression, location);
+	}
+
+	private final Expression<T> expression;
+	private final SourceLocation location;
+
+	/**
+	 * The slot of the profile of this expression in the execution contexts of its program.
+	 */
+	private int slot = -1;
+
+	@Override
+	public void setFunction(Function newFunction){
+		super.setFunction(newFunction);
+		this.expression.setFunction(newFunction);
+	}
+
+	@Override
+	public void setProgram(Program newProgram){
+		super.setProgram(newProgram);
+		this.expression.setProgram(newProgram);
+		if(newProgram != null)
+			this.slot = newProgram.resolveProfiled(this.location, this.expression.getClass().getSimpleName());
+	}
+
+	@Override
+	public T getValue(ExecutionContext context){
+		ProgramProfile profile = context.getProfile();
+		profile.enter();
+		try{
+			return this.expression.getValue(context);
+		}
+		finally{
+			profile.exit(this.slot);
+		}
+	}
+
+	@Override
+	boolean isNumeric(){
+		return this.expression.isNumeric();
+	}
+
+	@Override
+	boolean isBoolean(){
+		return this.expression.isBoolean();
+	}
+
+	@Override
+	double evaluateDouble(ExecutionContext context) throws IllegalArgumentException{
+		ProgramProfile profile = context.getProfile();
+		profile.enter();
+		try{
+			return this.expression.evaluateDouble(context);
+		}
+		finally{
+			profile.exit(this.slot);
+		}
+	}
+
+	@Override
+	boolean evaluateBoolean(ExecutionContext context) throws IllegalArgumentException{
+		ProgramProfile profile = context.getProfile();
+		profile.enter();
+		try{
+			return this.expression.evaluateBoolean(context);
+		}
+		finally{
+			profile.exit(this.slot);
+		}
+	}
+
+	@Override
+	Expression<?> optimize(ProgramOptimizer optimizer){
+		return of(this.expression.optimize(optimizer), this.location);
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		return this.expression.compile(compiler);
+	}
+}
@@ -0,0 +1,75 @@
+package asteroids.model;
+
+import asteroids.part3.programs.SourceLocation;
+
+/**
+ * A class of statements that count the evaluations of a statement, and the time and bytes they take,
+ * in the profile of the execution context in which they are evaluated.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+class ProfiledStatement extends Statement {
+
+	/**
+	 * Creates a new profiled statement.
+	 *
+	 * @param statement
+	 * 		  The statement that is profiled.
+	 * @param location
+	 * 		  The location of that statement in the source of its program.
+	 */
+	ProfiledStatement(Statement statement, SourceLocation location){
+		this.statement = statement;
+		this.location = location;
+	}
+
+	private final Statement statement;
+	private final SourceLocation location;
+
+	/**
+	 * The slot of the profile of this statement in the execution contexts of its program.
+	 */
+	private int slot = -1;
+
+	@Override
+	public void setFunction(Function newFunction){
+		super.setFunction(newFunction);
+		this.statement.setFunction(newFunction);
+	}
+
+	@Override
+	public void setProgram(Program newProgram){
+		super.setProgram(newProgram);
+		this.statement.setProgram(newProgram);
+		if(newProgram != null)
+			this.slot = newProgram.resolveProfiled(this.location, this.statement.getClass().getSimpleName());
+	}
+
+	@Override
+	public void evaluate(ExecutionContext context, double time) throws NotEnoughTimeException,BreakException,ReturnedException{
+		ProgramProfile profile = context.getProfile();
+		profile.enter();
+		try{
+			this.statement.evaluate(context, time);
+		}
+		finally{
+			profile.exit(this.slot);
+		}
+	}
+
+	@Override
+	double getRemainingTime(ExecutionContext context, double time){
+		return this.statement.getRemainingTime(context, time);
+	}
+
+	@Override
+	Statement optimize(ProgramOptimizer optimizer){
+		return new ProfiledStatement(this.statement.optimize(optimizer), this.location);
+	}
+
+	@Override
+	void compile(ProgramCompiler compiler, String time){
+		this.statement.compile(compiler, time);
+	}
+}
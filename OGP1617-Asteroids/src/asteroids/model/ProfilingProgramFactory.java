@@ -0,0 +1,210 @@
+package asteroids.model;
+
+import java.util.List;
+
+import asteroids.part3.programs.SourceLocation;
+
+/**
+ * A class of program factories that create profiled programs. Every statement and expression of a profiled program
+ * counts its evaluations, and the time and bytes they take, in the profile of the execution context in which
+ * it is evaluated, keyed by its location in the source of the program. Programs created by other factories
+ * have no profiled nodes, so they pay nothing for profiling. A profiled program is never compiled.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class ProfilingProgramFactory extends ProgramFactory {
+
+	private static Statement profile(Statement statement, SourceLocation location){
+		return new ProfiledStatement(statement, location);
+	}
+
+	private static Expression<?> profile(Expression<?> expression, SourceLocation location){
+		return ProfiledExpression.of(expression, location);
+	}
+
+	@Override
+	public Statement createAssignmentStatement(String variableName, Expression<?> value, SourceLocation sourceLocation) {
+		return profile(super.createAssignmentStatement(variableName, value, sourceLocation), sourceLocation);
+	}
+
+	@Override
+	public Statement createWhileStatement(Expression<?> condition, Statement body, SourceLocation sourceLocation) {
+		return profile(super.createWhileStatement(condition, body, sourceLocation), sourceLocation);
+	}
+
+	@Override
+	public Statement createBreakStatement(SourceLocation sourceLocation) {
+		return profile(super.createBreakStatement(sourceLocation), sourceLocation);
+	}
+
+	@Override
+	public Statement createReturnStatement(Expression<?> value, SourceLocation sourceLocation) {
+		return profile(super.createReturnStatement(value, sourceLocation), sourceLocation);
+	}
+
+	@Override
+	public Statement createIfStatement(Expression<?> condition, Statement ifBody, Statement elseBody, SourceLocation sourceLocation) {
+		return profile(super.createIfStatement(condition, ifBody, elseBody, sourceLocation), sourceLocation);
+	}
+
+	@Override
+	public Statement createPrintStatement(Expression<?> value, SourceLocation sourceLocation) {
+		return profile(super.createPrintStatement(value, sourceLocation), sourceLocation);
+	}
+
+	@Override
+	public Statement createSequenceStatement(List<Statement> statements, SourceLocation sourceLocation) {
+		return profile(super.createSequenceStatement(statements, sourceLocation), sourceLocation);
+	}
+
+	@Override
+	public Expression<?> createReadVariableExpression(String variableName, SourceLocation sourceLocation) {
+		return profile(super.createReadVariableExpression(variableName, sourceLocation), sourceLocation);
+	}
+
+	@Override
+	public Expression<?> createReadParameterExpression(String parameterName, SourceLocation sourceLocation) {
+		return profile(super.createReadParameterExpression(parameterName, sourceLocation), sourceLocation);
+	}
+
+	@Override
+	public Expression<?> createFunctionCallExpression(String functionName, List<Expression<?>> actualArgs, SourceLocation sourceLocation) {
+		return profile(super.createFunctionCallExpression(functionName, actualArgs, sourceLocation), sourceLocation);
+	}
+
+	@Override
+	public Expression<?> createChangeSignExpression(Expression<?> expression, SourceLocation sourceLocation) {
+		return profile(super.createChangeSignExpression(expression, sourceLocation), sourceLocation);
+	}
+
+	@Override
+	public Expression<?> createNotExpression(Expression<?> expression, SourceLocation sourceLocation) {
+		return profile(super.createNotExpression(expression, sourceLocation), sourceLocation);
+	}
+
+	@Override
+	public Expression<?> createDoubleLiteralExpression(double value, SourceLocation location) {
+		return profile(super.createDoubleLiteralExpression(value, location), location);
+	}
+
+	@Override
+	public Expression<?> createNullExpression(SourceLocation location) {
+		return profile(super.createNullExpression(location), location);
+	}
+
+	@Override
+	public Expression<?> createSelfExpression(SourceLocation location) {
+		return profile(super.createSelfExpression(location), location);
+	}
+
+	@Override
+	public Expression<?> createShipExpression(SourceLocation location) {
+		return profile(super.createShipExpression(location), location);
+	}
+
+	@Override
+	public Expression<?> createAsteroidExpression(SourceLocation location) {
+		return profile(super.createAsteroidExpression(location), location);
+	}
+
+	@Override
+	public Expression<?> createPlanetoidExpression(SourceLocation location) {
+		return profile(super.createPlanetoidExpression(location), location);
+	}
+
+	@Override
+	public Expression<?> createBulletExpression(SourceLocation location) {
+		return profile(super.createBulletExpression(location), location);
+	}
+
+	@Override
+	public Expression<?> createPlanetExpression(SourceLocation location) {
+		return profile(super.createPlanetExpression(location), location);
+	}
+
+	@Override
+	public Expression<?> createAnyExpression(SourceLocation location) {
+		return profile(super.createAnyExpression(location), location);
+	}
+
+	@Override
+	public Expression<?> createGetXExpression(Expression<?> e, SourceLocation location) {
+		return profile(super.createGetXExpression(e, location), location);
+	}
+
+	@Override
+	public Expression<?> createGetYExpression(Expression<?> e, SourceLocation location) {
+		return profile(super.createGetYExpression(e, location), location);
+	}
+
+	@Override
+	public Expression<?> createGetVXExpression(Expression<?> e, SourceLocation location) {
+		return profile(super.createGetVXExpression(e, location), location);
+	}
+
+	@Override
+	public Expression<?> createGetVYExpression(Expression<?> e, SourceLocation location) {
+		return profile(super.createGetVYExpression(e, location), location);
+	}
+
+	@Override
+	public Expression<?> createGetRadiusExpression(Expression<?> e, SourceLocation location) {
+		return profile(super.createGetRadiusExpression(e, location), location);
+	}
+
+	@Override
+	public Expression<?> createLessThanExpression(Expression<?> e1, Expression<?> e2, SourceLocation location) {
+		return profile(super.createLessThanExpression(e1, e2, location), location);
+	}
+
+	@Override
+	public Expression<?> createEqualityExpression(Expression<?> e1, Expression<?> e2, SourceLocation location) {
+		return profile(super.createEqualityExpression(e1, e2, location), location);
+	}
+
+	@Override
+	public Expression<?> createAdditionExpression(Expression<?> e1, Expression<?> e2, SourceLocation location) {
+		return profile(super.createAdditionExpression(e1, e2, location), location);
+	}
+
+	@Override
+	public Expression<?> createMultiplicationExpression(Expression<?> e1, Expression<?> e2, SourceLocation location) {
+		return profile(super.createMultiplicationExpression(e1, e2, location), location);
+	}
+
+	@Override
+	public Expression<?> createSqrtExpression(Expression<?> e, SourceLocation location) {
+		return profile(super.createSqrtExpression(e, location), location);
+	}
+
+	@Override
+	public Expression<?> createGetDirectionExpression(SourceLocation location) {
+		return profile(super.createGetDirectionExpression(location), location);
+	}
+
+	@Override
+	public Statement createThrustOnStatement(SourceLocation location) {
+		return profile(super.createThrustOnStatement(location), location);
+	}
+
+	@Override
+	public Statement createThrustOffStatement(SourceLocation location) {
+		return profile(super.createThrustOffStatement(location), location);
+	}
+
+	@Override
+	public Statement createFireStatement(SourceLocation location) {
+		return profile(super.createFireStatement(location), location);
+	}
+
+	@Override
+	public Statement createTurnStatement(Expression<?> angle, SourceLocation location) {
+		return profile(super.createTurnStatement(angle, location), location);
+	}
+
+	@Override
+	public Statement createSkipStatement(SourceLocation location) {
+		return profile(super.createSkipStatement(location), location);
+	}
+}
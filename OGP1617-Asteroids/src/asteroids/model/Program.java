@@ -2,33 +2,139 @@ package asteroids.model;
 import be.kuleuven.cs.som.annotate.*;
 import java.util.*;
 
-import asteroids.model.*;
+import asteroids.part3.programs.SourceLocation;
 
+/**
+ * A class of programs of ships. A program holds the code of its functions and main body, which doesn't change
+ * once the program is created. The ships that execute a program each do so in an execution context of their own,
+ * so one program can be shared by any number of ships, also in different threads.
+ * 
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
 public class Program {
 	
+	/**
+	 * Creates a new program with the given functions and main body.
+	 * All nodes of the program are bound to this program here, once: variables are resolved to their slots,
+	 * function calls to their functions, and blocks and hoisted expressions to the slots of their state in
+	 * execution contexts, so that evaluating a node never binds its subtree again.
+	 */
 	public Program(List<Function> functions, Statement body){
 		this.body = body;
-		for(Function function:functions){
+		for(Function function:functions)
 			this.functions.put(function.getName(), function);
+		for(Function function:functions)
 			function.setProgram(this);
-		}
 		this.body.setProgram(this);
 	}
 	
-	public void setVariable(String name, Expression<?> value){
-		this.variables.put(name, value.getValue());
+	/**
+	 * Returns the slot of the global variable with the given name. A name that isn't known yet
+	 * gets the next free slot. The nodes of the program resolve their variables when they are
+	 * bound to this program, so that reading and writing a variable doesn't look up its name.
+	 * 
+	 * @param name
+	 * 		  The name of the variable.
+	 * @return The slot of the variable with the given name.
+	 * 		  |result == variableSlots.get(name)
+	 */
+	int resolveVariable(String name){
+		Integer slot = this.variableSlots.get(name);
+		if(slot == null){
+			slot = this.variableSlots.size();
+			this.variableSlots.put(name, slot);
+		}
+		return slot;
+	}
+	
+	/**
+	 * Returns the slot of the global variable with the given name, or -1 if this program doesn't use that variable.
+	 * 
+	 * @param name
+	 * 		  The name of the variable.
+	 */
+	public int getVariableSlot(String name){
+		Integer slot = this.variableSlots.get(name);
+		return slot == null ? -1 : slot;
+	}
+	
+	/**
+	 * Returns the number of global variables of this program.
+	 */
+	public int getNbVariables(){
+		return this.variableSlots.size();
+	}
+	
+	private int nbBlocks = 0;
+	private int nbHoisted = 0;
+	
+	/**
+	 * Returns a new slot for the state of a block of this program in execution contexts.
+	 */
+	int resolveBlock(){
+		return this.nbBlocks++;
+	}
+	
+	/**
+	 * Returns the number of blocks of this program.
+	 */
+	int getNbBlocks(){
+		return this.nbBlocks;
+	}
+	
+	/**
+	 * Returns a new slot for the remembered value of a hoisted expression of this program in execution contexts.
+	 */
+	int resolveHoisted(){
+		return this.nbHoisted++;
+	}
+	
+	/**
+	 * Returns the number of hoisted expressions of this program.
+	 */
+	int getNbHoisted(){
+		return this.nbHoisted;
+	}
+	
+	private final List<SourceLocation> profiledLocations = new ArrayList<SourceLocation>();
+	private final List<String> profiledKinds = new ArrayList<String>();
+	
+	/**
+	 * Returns a new slot for the profile of a node of this program in execution contexts.
+	 * 
+	 * @param location
+	 * 		  The location of the node in the source of this program.
+	 * @param kind
+	 * 		  The kind of the node.
+	 */
+	int resolveProfiled(SourceLocation location, String kind){
+		this.profiledLocations.add(location);
+		this.profiledKinds.add(kind);
+		return this.profiledLocations.size()-1;
 	}
 	
-	public void setVariable(String name, Object value){
-		this.variables.put(name,value);
+	/**
+	 * Returns the number of profiled nodes of this program. A program has profiled nodes if and only if
+	 * it was created by a profiling program factory.
+	 */
+	public int getNbProfiled(){
+		return this.profiledLocations.size();
 	}
 	
-	public Object getVariable(String name){
-		return this.variables.get(name);
+	/**
+	 * Returns the location in the source of this program of the profiled node in the given slot,
+	 * or null if the location is not known.
+	 */
+	public SourceLocation getProfiledLocation(int slot){
+		return this.profiledLocations.get(slot);
 	}
 	
-	public boolean containsVariable(String name){
-		return this.variables.containsKey(name);
+	/**
+	 * Returns the kind of the profiled node in the given slot, such as WhileStatement.
+	 */
+	public String getProfiledKind(int slot){
+		return this.profiledKinds.get(slot);
 	}
 	
 	public Function getFunction(String name){
@@ -39,73 +145,54 @@ public class Program {
 		return this.functions.containsKey(name);
 	}
 	
-	private Ship user;
+	private final Statement body;
+	private final HashMap<String,Integer> variableSlots = new HashMap<String,Integer>();
+	private final HashMap<String,Function> functions = new HashMap<String,Function>();
 	
-	public Ship getUser(){
-		return this.user;
-	}
-	
-	public void setUser(Ship newUser){
-		this.user = newUser;
+	/**
+	 * Returns the main body of this program.
+	 */
+	Statement getBody(){
+		return this.body;
 	}
 	
+	private volatile Class<? extends CompiledProgram> compiled = null;
 	
-	private Statement body;
-	private HashMap<String,Object> variables = new HashMap<String, Object>();
-	private HashMap<String,Function> functions = new HashMap<String,Function>();
-	private List<Object> printedValues = new ArrayList<Object>();
-	private double previousTime = 0;
+	/**
+	 * Compiles this program to JVM classes, so that it is executed by generated code instead of
+	 * by evaluating its statements. A compiled program prints the same values and performs the same
+	 * actions at the same times as the program itself. A context in which the main body of this program
+	 * is suspended finishes that body with the statements, and uses the generated code from then on.
+	 * The program stays interpreted if the platform has no Java compiler, or if it is profiled,
+	 * so that its profile covers all of its evaluations.
+	 * 
+	 * @return True if and only if this program is compiled.
+	 * 		  |result == isCompiled()
+	 * @throws IllegalStateException
+	 * 		   The Java compiler rejects the code generated for this program.
+	 */
+	public synchronized boolean compile() throws IllegalStateException{
+		if(this.compiled == null && this.getNbProfiled() == 0)
+			this.compiled = ProgramCompiler.compile(this);
+		return this.isCompiled();
+	}
 	
-	public void addPrintedValue(Object value){
-		this.printedValues.add(value);
+	/**
+	 * Returns whether this program is executed by generated code.
+	 */
+	public boolean isCompiled(){
+		return this.compiled != null;
 	}
 	
-	public List<Object> execute(double time){
-		time+=previousTime;
-		if(time<0.2){
-			this.previousTime = time;
-			return null;
+	/**
+	 * Returns a new instance of the generated code of this program, which is executed in the given context.
+	 */
+	CompiledProgram newCompiledProgram(ExecutionContext context){
+		try{
+			return this.compiled.getConstructor(ExecutionContext.class).newInstance(context);
 		}
-		if(this.body instanceof ActionStatement || this.body instanceof TurnStatement){
-			try{this.body.evaluate(time);}
-			catch(NotEnoughTimeException n){
-				this.previousTime=n.getTime();
-				return null;
-			}
-			catch(ReturnedException r){
-				throw new IllegalArgumentException(r);
-			}
-			catch(BreakException b){
-				throw new IllegalArgumentException(b);
-			}
-			catch(AssertionError a){
-				throw new IllegalArgumentException(a);
-			}
-			catch(UnsupportedOperationException u){
-				return printedValues;
-			}
-			time-=0.2;
-		}
-		else{
-			try{this.body.evaluate(time);}
-			catch(NotEnoughTimeException n){
-				this.previousTime=n.getTime();
-				return null;
-			}
-			catch(ReturnedException r){
-				throw new IllegalArgumentException(r);
-			}
-			catch(BreakException b){
-				throw new IllegalArgumentException(b);
-			}
-			catch(AssertionError a){
-				throw new IllegalArgumentException(a);
-			}
-			catch(UnsupportedOperationException u){
-				return printedValues;
-			}
-		}
-		this.previousTime = 0;
-		return printedValues;
+		catch(ReflectiveOperationException exc){
+			throw new IllegalStateException(exc);
 		}
+	}
 }
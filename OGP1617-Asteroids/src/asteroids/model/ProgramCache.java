@@ -0,0 +1,226 @@
+package asteroids.model;
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+
+import asteroids.part3.programs.IProgramFactory;
+import asteroids.part3.programs.internal.ParseOutcome;
+import asteroids.part3.programs.internal.ProgramParser;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of caches of parsed programs. Programs are looked up by a hash of their source and the type of the factory
+ * that created them, so a source that is loaded again gets the program that was parsed before. Programs only hold
+ * code, so one program can be executed by any number of ships. Only programs that were parsed successfully are kept,
+ * and the least recently used program is dropped once the cache is full.
+ *
+ * A cache can also keep a tape of the calls the parser made on the factory for every program in a directory,
+ * so that another virtual machine can create the program again by replaying the tape instead of parsing the source.
+ * The default cache keeps its tapes in the directory given by the system property asteroids.programCache, if any.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class ProgramCache {
+
+	/**
+	 * Creates a new cache with the given capacity that doesn't keep tapes.
+	 *
+	 * @param capacity
+	 * 		  The maximal number of programs in the cache.
+	 * @effect This cache is initialized with the given capacity and no directory.
+	 * 		  |this(capacity, null)
+	 */
+	public ProgramCache(int capacity) throws IllegalArgumentException{
+		this(capacity, null);
+	}
+
+	/**
+	 * Creates a new cache with the given capacity that keeps its tapes in the given directory.
+	 *
+	 * @param capacity
+	 * 		  The maximal number of programs in the cache.
+	 * @param directory
+	 * 		  The directory of the tapes, or null if the cache doesn't keep tapes.
+	 * @post The capacity and directory of this cache are the given capacity and directory.
+	 * 		  |new.getCapacity() == capacity && new.getDirectory() == directory
+	 * @throws IllegalArgumentException
+	 * 		   The capacity is not positive.
+	 * 		   |capacity<1
+	 */
+	public ProgramCache(int capacity, Path directory) throws IllegalArgumentException{
+		if(capacity<1)
+			throw new IllegalArgumentException();
+		this.capacity = capacity;
+		this.directory = directory;
+	}
+
+	private final int capacity;
+	private final Path directory;
+
+	/**
+	 * Returns the maximal number of programs in this cache.
+	 */
+	@Basic
+	@Immutable
+	public int getCapacity(){
+		return this.capacity;
+	}
+
+	/**
+	 * Returns the directory in which this cache keeps its tapes, or null if it doesn't keep tapes.
+	 */
+	@Basic
+	@Immutable
+	public Path getDirectory(){
+		return this.directory;
+	}
+
+	/**
+	 * The programs of this cache, from the least to the most recently used.
+	 */
+	private final Map<String,Object> programs = new LinkedHashMap<String,Object>(16, 0.75f, true){
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String,Object> eldest){
+			return this.size() > ProgramCache.this.getCapacity();
+		}
+	};
+
+	/**
+	 * Returns the number of programs in this cache.
+	 */
+	public synchronized int size(){
+		return this.programs.size();
+	}
+
+	/**
+	 * Removes all programs from this cache. The tapes in its directory are kept.
+	 *
+	 * @post This cache is empty.
+	 * 		  |new.size() == 0
+	 */
+	public synchronized void clear(){
+		this.programs.clear();
+	}
+
+	/**
+	 * Returns the program with the given source created by the given factory.
+	 * Two threads that miss the same program at the same time may both parse it.
+	 *
+	 * @param source
+	 * 		  The source of the program.
+	 * @param factory
+	 * 		  The factory that creates the program.
+	 * @return The program from this cache if it contains a program with the given source created by a factory
+	 * 		   of the same type, or else the outcome of replaying the tape of the source, or else the outcome of parsing it.
+	 * @throws NullPointerException
+	 * 		   The source or the factory is not effective.
+	 * 		   |source == null || factory == null
+	 */
+	public <P> ParseOutcome<P> parse(String source, IProgramFactory<?,?,?,P> factory) throws NullPointerException{
+		String hash = hash(source);
+		String key = factory.getClass().getName() + ":" + hash;
+		synchronized(this){
+			@SuppressWarnings("unchecked")
+			P program = (P)this.programs.get(key);
+			if(program != null)
+				return ParseOutcome.success(program);
+		}
+		ParseOutcome<P> outcome = this.load(source, hash, factory);
+		if(outcome.isSuccess()){
+			synchronized(this){
+				this.programs.put(key, outcome.getSuccessValue());
+			}
+		}
+		return outcome;
+	}
+
+	/**
+	 * Returns the program with the source at the given URL created by the given factory.
+	 *
+	 * @param url
+	 * 		  The location of the source of the program.
+	 * @param factory
+	 * 		  The factory that creates the program.
+	 * @return The program with the source at the given URL.
+	 * 		  |result == parse(source at url, factory)
+	 * @throws IOException
+	 * 		   The source can't be read.
+	 */
+	public <P> ParseOutcome<P> parseFile(URL url, IProgramFactory<?,?,?,P> factory) throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(InputStream in = url.openStream()){
+			byte[] buffer = new byte[4096];
+			for(int read=in.read(buffer);read>=0;read=in.read(buffer))
+				bytes.write(buffer, 0, read);
+		}
+		return this.parse(new String(bytes.toByteArray(), StandardCharsets.UTF_8), factory);
+	}
+
+	/**
+	 * Creates the program with the given source and hash, from its tape if there is a valid one.
+	 * The tape is written if the program has to be parsed. A tape that can't be read or written is ignored.
+	 */
+	private <P> ParseOutcome<P> load(String source, String hash, IProgramFactory<?,?,?,P> factory){
+		if(this.getDirectory() == null)
+			return ProgramParser.create(factory).parseString(source);
+		Path file = this.getDirectory().resolve(hash + ".ast");
+		if(Files.isRegularFile(file)){
+			try{
+				P program = ProgramTape.replay(Files.readAllBytes(file), factory);
+				if(program != null)
+					return ParseOutcome.success(program);
+			}
+			catch(IOException | RuntimeException exc){
+				// The tape is damaged or was recorded for other factories, parse the source instead.
+			}
+		}
+		ProgramTape tape = new ProgramTape(factory);
+		IProgramFactory<Object,Object,Object,P> recorder = tape.getRecorder();
+		ParseOutcome<P> outcome = ProgramParser.create(recorder).parseString(source);
+		if(outcome.isSuccess()){
+			try{
+				Files.createDirectories(this.getDirectory());
+				Path temporary = Files.createTempFile(this.getDirectory(), hash, ".tmp");
+				Files.write(temporary, tape.toByteArray());
+				Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch(IOException exc){
+				// The tape is only an optimization, the program can still be parsed next time.
+			}
+		}
+		return outcome;
+	}
+
+	/**
+	 * Returns the SHA-256 hash of the given source, in hexadecimal digits.
+	 */
+	private static String hash(String source){
+		try{
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+			StringBuilder hash = new StringBuilder();
+			for(byte part:digest)
+				hash.append(String.format("%02x", part));
+			return hash.toString();
+		}
+		catch(NoSuchAlgorithmException exc){
+			// Every Java platform supports SHA-256.
+			throw new AssertionError(exc);
+		}
+	}
+
+	private static final ProgramCache DEFAULT = new ProgramCache(64,
+			System.getProperty("asteroids.programCache") == null ? null : Paths.get(System.getProperty("asteroids.programCache")));
+
+	/**
+	 * Returns the cache that is shared by everything that loads programs.
+	 */
+	public static ProgramCache getDefault(){
+		return DEFAULT;
+	}
+}
@@ -0,0 +1,336 @@
+package asteroids.model;
+import java.io.*;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.tools.*;
+
+/**
+ * A class of compilers that translate a program to the Java source of a subclass of CompiledProgram,
+ * and compile that source in memory with the Java compiler of the platform.
+ * Every node of the program generates its own code. The main body is compiled to methods that can
+ * suspend and resume like the statements of the program, one method per block, with a field that
+ * remembers the statement at which the block was stopped. Functions never suspend, so they are compiled
+ * to plain methods with their parameters and local variables as local variables of the method.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+class ProgramCompiler {
+
+	/**
+	 * The static types of the code of expressions. Numbers and booleans stay primitive until they have to be boxed.
+	 */
+	enum Kind {
+		DOUBLE,
+		BOOLEAN,
+		OBJECT
+	}
+
+	/**
+	 * A class of pieces of Java code that compute the value of an expression.
+	 */
+	static class Code {
+
+		Code(Kind kind, String source){
+			this.kind = kind;
+			this.source = source;
+		}
+
+		final Kind kind;
+		final String source;
+
+		/**
+		 * Returns code that computes the value as an object, boxed in the same way as the nodes box their values.
+		 */
+		String asObject(){
+			switch(this.kind){
+			case DOUBLE:
+				return "Double.valueOf(" + this.source + ")";
+			case BOOLEAN:
+				return "Boolean.valueOf(" + this.source + ")";
+			default:
+				return "((Object)" + this.source + ")";
+			}
+		}
+	}
+
+	private static final AtomicInteger COUNTER = new AtomicInteger();
+
+	private static final String PACKAGE = "asteroids.compiled";
+
+	/**
+	 * Compiles the given program.
+	 *
+	 * @param program
+	 * 		  The program to compile.
+	 * @return The class of the compiled program, which is instantiated for every context in which the program
+	 * 		   is executed, or null if the platform has no Java compiler.
+	 * @throws IllegalStateException
+	 * 		   The Java compiler rejects the generated code. The message of the exception holds the diagnostics
+	 * 		   of the compiler.
+	 */
+	static Class<? extends CompiledProgram> compile(Program program) throws IllegalStateException{
+		JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+		if(javac == null)
+			return null;
+		String simpleName = "Program" + COUNTER.incrementAndGet();
+		String source = new ProgramCompiler(program).generate(simpleName);
+		try{
+			MemoryFileManager fileManager = new MemoryFileManager(javac.getStandardFileManager(null, null, null));
+			List<String> options = Arrays.asList("-classpath", getClassPath(), "-nowarn", "-g:none");
+			JavaFileObject file = new SourceFile(PACKAGE + "." + simpleName, source);
+			Writer errors = new StringWriter();
+			DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+			if(!javac.getTask(errors, fileManager, diagnostics, options, null, Collections.singletonList(file)).call()){
+				StringBuilder message = new StringBuilder("The generated code of " + simpleName + " can't be compiled");
+				for(Diagnostic<? extends JavaFileObject> diagnostic:diagnostics.getDiagnostics())
+					message.append("\n").append(diagnostic.getKind()).append(" at line ").append(diagnostic.getLineNumber())
+							.append(": ").append(diagnostic.getMessage(Locale.ROOT));
+				if(errors.toString().length() > 0)
+					message.append("\n").append(errors);
+				throw new IllegalStateException(message.toString());
+			}
+			ClassLoader loader = new MemoryClassLoader(Program.class.getClassLoader(), fileManager.classes);
+			Class<?> compiled = loader.loadClass(PACKAGE + "." + simpleName);
+			return compiled.asSubclass(CompiledProgram.class);
+		}
+		catch(ClassNotFoundException exc){
+			throw new IllegalStateException(exc);
+		}
+	}
+
+	/**
+	 * Returns the class path against which generated code is compiled: the location of the model classes
+	 * followed by the class path of the virtual machine.
+	 */
+	private static String getClassPath(){
+		String classPath = System.getProperty("java.class.path");
+		try{
+			String location = Paths.get(Program.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+			return location + File.pathSeparator + classPath;
+		}
+		catch(Exception exc){
+			return classPath;
+		}
+	}
+
+	private ProgramCompiler(Program program){
+		this.program = program;
+	}
+
+	private final Program program;
+
+	private final StringBuilder members = new StringBuilder();
+	private final Deque<StringBuilder> methods = new ArrayDeque<StringBuilder>();
+	private final Map<Function,String> functionNames = new HashMap<Function,String>();
+	private final Deque<Function> pendingFunctions = new ArrayDeque<Function>();
+	private Function function = null;
+	private int loopDepth = 0;
+	private int nbNames = 0;
+
+	/**
+	 * Generates the source of the compiled program.
+	 */
+	private String generate(String simpleName){
+		this.beginMethod();
+		this.program.getBody().compile(this, "time");
+		this.endMethod("public void execute(double time) throws NotEnoughTimeException");
+		while(!this.pendingFunctions.isEmpty()){
+			this.function = this.pendingFunctions.pop();
+			this.function.compile(this, this.functionNames.get(this.function));
+		}
+		return "package " + PACKAGE + ";\n"
+				+ "import asteroids.model.*;\n"
+				+ "public final class " + simpleName + " extends CompiledProgram {\n"
+				+ "public " + simpleName + "(ExecutionContext context){ super(context); }\n"
+				+ this.members
+				+ "}\n";
+	}
+
+	/**
+	 * Returns the program that is compiled.
+	 */
+	Program getProgram(){
+		return this.program;
+	}
+
+	/**
+	 * Returns whether code is generated for the body of a function.
+	 */
+	boolean isInFunction(){
+		return this.function != null;
+	}
+
+	/**
+	 * Returns whether code is generated inside a loop of the body of a function.
+	 */
+	boolean isInLoop(){
+		return this.loopDepth>0;
+	}
+
+	void enterLoop(){
+		this.loopDepth++;
+	}
+
+	void exitLoop(){
+		this.loopDepth--;
+	}
+
+	/**
+	 * Returns a new name for a local variable, method or field of the generated code.
+	 */
+	String newName(String prefix){
+		return prefix + (this.nbNames++);
+	}
+
+	/**
+	 * Returns the name of the method of the given function, which is generated once the main body has been generated.
+	 */
+	String getFunctionName(Function function){
+		String name = this.functionNames.get(function);
+		if(name == null){
+			name = this.newName("function");
+			this.functionNames.put(function, name);
+			this.pendingFunctions.push(function);
+		}
+		return name;
+	}
+
+	/**
+	 * Adds a field to the generated class.
+	 */
+	void field(String declaration){
+		this.members.append(declaration).append(";\n");
+	}
+
+	/**
+	 * Adds a line to the method that is generated.
+	 */
+	void line(String code){
+		this.methods.peek().append(code).append('\n');
+	}
+
+	/**
+	 * Starts a new method. The lines that are added until it is ended belong to that method.
+	 */
+	void beginMethod(){
+		this.methods.push(new StringBuilder());
+	}
+
+	/**
+	 * Ends the method that was started last and adds it to the generated class.
+	 *
+	 * @param header
+	 * 		  The header of the method.
+	 */
+	void endMethod(String header){
+		StringBuilder body = this.methods.pop();
+		this.members.append(header).append("{\n").append(body).append("}\n");
+	}
+
+	/**
+	 * Starts the method of the given function. Loops of the main body don't continue into the function.
+	 */
+	int beginFunction(){
+		this.beginMethod();
+		int depth = this.loopDepth;
+		this.loopDepth = 0;
+		return depth;
+	}
+
+	void endFunction(String header, int loopDepth){
+		this.endMethod(header);
+		this.loopDepth = loopDepth;
+	}
+
+	/**
+	 * Returns a Java literal with the given value.
+	 */
+	static String literal(double value){
+		if(Double.isNaN(value) || Double.isInfinite(value))
+			return "Double.longBitsToDouble(" + Double.doubleToRawLongBits(value) + "L)";
+		return "(" + Double.toString(value) + ")";
+	}
+
+	/**
+	 * Returns Java code that computes the given binary operation on numbers with the given operator,
+	 * or with the helper of CompiledProgram with the given name if one of the operands is not known to be a number.
+	 */
+	static String binary(Code first, Code second, String operator, String helper){
+		if(first.kind == Kind.DOUBLE && second.kind == Kind.DOUBLE)
+			return "(" + first.source + " " + operator + " " + second.source + ")";
+		return helper + "(" + operand(first) + ", " + operand(second) + ")";
+	}
+
+	private static String operand(Code code){
+		return code.kind == Kind.DOUBLE ? code.source : code.asObject();
+	}
+
+	/**
+	 * A class of Java source files held in memory.
+	 */
+	private static class SourceFile extends SimpleJavaFileObject {
+
+		SourceFile(String className, String source){
+			super(URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE);
+			this.source = source;
+		}
+
+		private final String source;
+
+		@Override
+		public CharSequence getCharContent(boolean ignoreEncodingErrors){
+			return this.source;
+		}
+	}
+
+	/**
+	 * A class of file managers that keep the compiled classes in memory.
+	 */
+	private static class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+		MemoryFileManager(StandardJavaFileManager fileManager){
+			super(fileManager);
+		}
+
+		private final Map<String,ByteArrayOutputStream> classes = new HashMap<String,ByteArrayOutputStream>();
+
+		@Override
+		public JavaFileObject getJavaFileForOutput(Location location, final String className, JavaFileObject.Kind kind,
+				FileObject sibling){
+			return new SimpleJavaFileObject(URI.create("bytes:///" + className.replace('.', '/') + kind.extension), kind){
+				@Override
+				public OutputStream openOutputStream(){
+					ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+					classes.put(className, bytes);
+					return bytes;
+				}
+			};
+		}
+	}
+
+	/**
+	 * A class of class loaders that define the classes compiled in memory.
+	 */
+	private static class MemoryClassLoader extends ClassLoader {
+
+		MemoryClassLoader(ClassLoader parent, Map<String,ByteArrayOutputStream> classes){
+			super(parent);
+			this.classes = classes;
+		}
+
+		private final Map<String,ByteArrayOutputStream> classes;
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException{
+			ByteArrayOutputStream bytes = this.classes.get(name);
+			if(bytes == null)
+				throw new ClassNotFoundException(name);
+			byte[] code = bytes.toByteArray();
+			return this.defineClass(name, code, 0, code.length);
+		}
+	}
+}
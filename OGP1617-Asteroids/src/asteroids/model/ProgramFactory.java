@@ -9,7 +9,7 @@ public class ProgramFactory implements IProgramFactory<Expression<?>,Statement,F
 
 	@Override
 	public Program createProgram(List<Function> functions, Statement main) {
-		return new Program(functions,main);
+		return ProgramOptimizer.optimize(functions,main);
 	}
 
 	@Override
@@ -0,0 +1,33 @@
+package asteroids.model;
+import java.util.List;
+
+/**
+ * An interface of listeners that are notified of the outcome of the program of every ship
+ * executed by a program scheduler.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public interface ProgramListener {
+
+	/**
+	 * Notifies this listener that the program of the given ship was executed and its actions were performed.
+	 *
+	 * @param ship
+	 * 		  The ship that executed its program.
+	 * @param values
+	 * 		  The printed values kept by the print sink of the program, or null if the program is suspended.
+	 */
+	void programExecuted(Ship ship, List<Object> values);
+
+	/**
+	 * Notifies this listener that the program of the given ship failed. The actions the program
+	 * performed before it failed were performed.
+	 *
+	 * @param ship
+	 * 		  The ship that executed its program.
+	 * @param exception
+	 * 		  The exception thrown by the program.
+	 */
+	void programFailed(Ship ship, RuntimeException exception);
+}
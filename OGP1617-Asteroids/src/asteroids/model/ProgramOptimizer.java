@@ -0,0 +1,167 @@
+package asteroids.model;
+import java.util.*;
+
+/**
+ * A class of optimizers that rewrite the statements and expressions of a program before it is bound.
+ * Arithmetic and comparisons on literals are folded into literals, and the dead branch of an if statement
+ * with a constant condition is removed. Expressions in the loops of the main body that read neither variables
+ * assigned in the loop nor, if the loop performs actions, the world, are evaluated at most once per run of the loop.
+ * The statements themselves are kept, so a program prints the same values and performs the same actions
+ * at the same times as before it was optimized. Constants are folded by evaluating them without an execution context,
+ * which literals don't use.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+class ProgramOptimizer {
+
+	/**
+	 * Returns a new program with the given functions and main body, after optimizing them.
+	 *
+	 * @param functions
+	 * 		  The functions of the program.
+	 * @param main
+	 * 		  The main body of the program.
+	 */
+	static Program optimize(List<Function> functions, Statement main){
+		ProgramOptimizer optimizer = new ProgramOptimizer();
+		List<Function> optimized = new ArrayList<Function>();
+		optimizer.inFunction = true;
+		for(Function function:functions)
+			optimized.add(new Function(function.getName(), function.getBody().optimize(optimizer)));
+		optimizer.inFunction = false;
+		Statement body = main.optimize(optimizer);
+		for(HoistedExpression expression:optimizer.hoisted){
+			if(expression.getLoop() != null)
+				expression.getLoop().addHoisted(expression);
+		}
+		return new Program(optimized, body);
+	}
+
+	private ProgramOptimizer(){
+	}
+
+	/**
+	 * A class of the effects of the body of a loop that is optimized, and the invariant expressions that were found in it.
+	 */
+	private static class Loop {
+
+		private final Set<String> assignedVariables = new HashSet<String>();
+		private boolean performsActions = false;
+		private final List<HoistedExpression> expressions = new ArrayList<HoistedExpression>();
+
+		private boolean isInvariant(HoistedExpression expression){
+			if(expression.readsWorld() && this.performsActions)
+				return false;
+			for(String variable:expression.getVariables()){
+				if(this.assignedVariables.contains(variable))
+					return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Whether the statements that are optimized are the body of a function. The body of a function may be evaluated
+	 * again by a call in one of its own loops, so no expressions are hoisted in functions.
+	 */
+	private boolean inFunction = false;
+	private final Deque<Loop> loops = new ArrayDeque<Loop>();
+	private final List<HoistedExpression> hoisted = new ArrayList<HoistedExpression>();
+
+	/**
+	 * Starts optimizing a loop. The condition and body of the loop are optimized until the loop is ended.
+	 */
+	void beginLoop(){
+		if(!this.inFunction)
+			this.loops.push(new Loop());
+	}
+
+	/**
+	 * Ends optimizing the loop that was started last. The invariant expressions of that loop are remembered
+	 * for every run of the given loop, unless they turn out to be invariant in an enclosing loop as well.
+	 *
+	 * @param loop
+	 * 		  The optimized loop.
+	 */
+	void endLoop(WhileStatement loop){
+		if(this.inFunction)
+			return;
+		Loop ended = this.loops.pop();
+		Loop enclosing = this.loops.peek();
+		for(HoistedExpression expression:ended.expressions){
+			if(ended.isInvariant(expression)){
+				expression.setLoop(loop);
+				if(enclosing != null)
+					enclosing.expressions.add(expression);
+			}
+		}
+		if(enclosing != null){
+			enclosing.assignedVariables.addAll(ended.assignedVariables);
+			enclosing.performsActions |= ended.performsActions;
+		}
+	}
+
+	/**
+	 * Registers that the statement that is optimized assigns the variable with the given name.
+	 */
+	void assign(String name){
+		if(!this.loops.isEmpty())
+			this.loops.peek().assignedVariables.add(name);
+	}
+
+	/**
+	 * Registers that the statement that is optimized performs an action of the ship of the program.
+	 */
+	void act(){
+		if(!this.loops.isEmpty())
+			this.loops.peek().performsActions = true;
+	}
+
+	/**
+	 * Returns the given expression, which computes its value from the given operands without other effects.
+	 * Inside a loop, the expression is wrapped so that it can be hoisted if its operands don't change in the loop.
+	 *
+	 * @param expression
+	 * 		  The optimized expression.
+	 * @param operands
+	 * 		  The optimized operands of the expression.
+	 */
+	Expression<?> pure(Expression<?> expression, Expression<?>... operands){
+		return this.invariant(expression, false, operands);
+	}
+
+	/**
+	 * Returns the given expression, which queries the world of the ship of the program, or an entity
+	 * given by its operands, without other effects.
+	 *
+	 * @param expression
+	 * 		  The optimized expression.
+	 * @param operands
+	 * 		  The optimized operands of the expression.
+	 */
+	Expression<?> queryWorld(Expression<?> expression, Expression<?>... operands){
+		return this.invariant(expression, true, operands);
+	}
+
+	private Expression<?> invariant(Expression<?> expression, boolean readsWorld, Expression<?>... operands){
+		if(this.loops.isEmpty())
+			return expression;
+		Set<String> variables = new HashSet<String>();
+		for(Expression<?> operand:operands){
+			if(operand instanceof HoistedExpression){
+				variables.addAll(((HoistedExpression)operand).getVariables());
+				readsWorld |= ((HoistedExpression)operand).readsWorld();
+			}
+			else if(operand instanceof VariableReadExpression)
+				variables.add(((VariableReadExpression)operand).getName());
+			else if(!(operand instanceof LiteralExpression || operand instanceof BooleanLiteralExpression
+					|| operand instanceof SelfExpression || operand instanceof NullExpression))
+				return expression;
+		}
+		HoistedExpression hoisted = new HoistedExpression(expression, variables, readsWorld);
+		this.loops.peek().expressions.add(hoisted);
+		this.hoisted.add(hoisted);
+		return hoisted;
+	}
+}
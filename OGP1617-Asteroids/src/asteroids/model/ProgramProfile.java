@@ -0,0 +1,161 @@
+package asteroids.model;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of profiles of the profiled nodes of a program, as executed by one ship. For every node, a profile counts
+ * how many times it was evaluated, and how much time its evaluations took and how many bytes they allocated.
+ * The total time of a node includes the time of the nodes it evaluates, and of nested evaluations of the node itself
+ * in recursive calls. The self time and allocated bytes of a node exclude those of the profiled nodes it evaluates.
+ * Allocated bytes are estimated from the allocation counter of the current thread, and are 0 if the platform has none.
+ *
+ * A profile is updated by the thread that executes its program, one thread at a time, like its execution context.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class ProgramProfile {
+
+	/**
+	 * Creates a new empty profile of the given program.
+	 *
+	 * @param program
+	 * 		  The profiled program.
+	 * @throws NullPointerException
+	 * 		   The given program is not effective.
+	 * 		   |program == null
+	 */
+	ProgramProfile(Program program) throws NullPointerException{
+		this.program = program;
+		int size = program.getNbProfiled();
+		this.hits = new long[size];
+		this.totalTimes = new long[size];
+		this.selfTimes = new long[size];
+		this.allocatedBytes = new long[size];
+	}
+
+	private final Program program;
+
+	/**
+	 * Returns the program of this profile.
+	 */
+	@Basic
+	@Immutable
+	public Program getProgram(){
+		return this.program;
+	}
+
+	private final long[] hits;
+	private final long[] totalTimes;
+	private final long[] selfTimes;
+	private final long[] allocatedBytes;
+
+	/**
+	 * Returns the number of times the profiled node in the given slot was evaluated.
+	 *
+	 * @param slot
+	 * 		  The slot of the node in the program of this profile.
+	 */
+	public long getHits(int slot){
+		return this.hits[slot];
+	}
+
+	/**
+	 * Returns the time in nanoseconds the evaluations of the profiled node in the given slot took,
+	 * including the nodes it evaluated.
+	 */
+	public long getTotalTime(int slot){
+		return this.totalTimes[slot];
+	}
+
+	/**
+	 * Returns the time in nanoseconds the evaluations of the profiled node in the given slot took,
+	 * excluding the profiled nodes it evaluated.
+	 */
+	public long getSelfTime(int slot){
+		return this.selfTimes[slot];
+	}
+
+	/**
+	 * Returns the estimated number of bytes the evaluations of the profiled node in the given slot allocated,
+	 * excluding the profiled nodes it evaluated.
+	 */
+	public long getAllocatedBytes(int slot){
+		return this.allocatedBytes[slot];
+	}
+
+	/**
+	 * The start times, allocation counters and the time and bytes of nested nodes of the evaluations in progress,
+	 * the innermost last.
+	 */
+	private long[] startTimes = new long[16];
+	private long[] startBytes = new long[16];
+	private long[] nestedTimes = new long[16];
+	private long[] nestedBytes = new long[16];
+	private int depth = 0;
+
+	/**
+	 * Registers that the evaluation of a profiled node starts.
+	 * Every call is followed by a call of exit, also if the evaluation fails.
+	 */
+	void enter(){
+		if(this.depth == this.startTimes.length){
+			int length = 2*this.depth;
+			this.startTimes = Arrays.copyOf(this.startTimes, length);
+			this.startBytes = Arrays.copyOf(this.startBytes, length);
+			this.nestedTimes = Arrays.copyOf(this.nestedTimes, length);
+			this.nestedBytes = Arrays.copyOf(this.nestedBytes, length);
+		}
+		this.nestedTimes[this.depth] = 0;
+		this.nestedBytes[this.depth] = 0;
+		this.startBytes[this.depth] = currentAllocatedBytes();
+		this.startTimes[this.depth] = System.nanoTime();
+		this.depth++;
+	}
+
+	/**
+	 * Registers that the evaluation of the profiled node in the given slot, which was started last, ends.
+	 */
+	void exit(int slot){
+		long time = System.nanoTime();
+		long bytes = currentAllocatedBytes();
+		this.depth--;
+		time -= this.startTimes[this.depth];
+		bytes -= this.startBytes[this.depth];
+		this.hits[slot]++;
+		this.totalTimes[slot] += time;
+		this.selfTimes[slot] += time-this.nestedTimes[this.depth];
+		this.allocatedBytes[slot] += bytes-this.nestedBytes[this.depth];
+		if(this.depth > 0){
+			this.nestedTimes[this.depth-1] += time;
+			this.nestedBytes[this.depth-1] += bytes;
+		}
+	}
+
+	/**
+	 * The counter of the bytes allocated by threads, or null if the platform has none.
+	 */
+	private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocationCounter();
+
+	private static com.sun.management.ThreadMXBean allocationCounter(){
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if(!(threads instanceof com.sun.management.ThreadMXBean))
+			return null;
+		com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean)threads;
+		if(!counter.isThreadAllocatedMemorySupported() || !counter.isThreadAllocatedMemoryEnabled())
+			return null;
+		return counter;
+	}
+
+	/**
+	 * Returns the number of bytes the current thread allocated so far, or 0 if the platform doesn't count them.
+	 */
+	private static long currentAllocatedBytes(){
+		if(ALLOCATIONS == null)
+			return 0;
+		return ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
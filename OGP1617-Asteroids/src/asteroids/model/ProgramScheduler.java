@@ -0,0 +1,151 @@
+package asteroids.model;
+import java.util.*;
+import java.util.concurrent.*;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of schedulers that execute the programs of the ships of a world for one time step at once.
+ * The programs are executed on a pool of threads while their actions are buffered, so every program sees
+ * the world as it was at the start of the step and no program sees the actions of another one.
+ * Once all programs are executed, the buffered actions are performed ship by ship in the order of the identifiers
+ * of the ships in their world. The outcome of a step therefore doesn't depend on the pool or its parallelism,
+ * nor on the order in which the ships are given.
+ *
+ * A program does see its own turns in the orientation of its ship, but not the bullets it fired during the step.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class ProgramScheduler {
+
+	/**
+	 * Creates a new scheduler that executes programs on the given pool.
+	 *
+	 * @param pool
+	 * 		  The pool of this scheduler, or null to execute the programs on the calling thread.
+	 * @post The pool of this scheduler is the given pool.
+	 * 		  |new.getPool() == pool
+	 */
+	public ProgramScheduler(ForkJoinPool pool){
+		this.pool = pool;
+	}
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * Returns the pool on which this scheduler executes programs, or null if it executes them on the calling thread.
+	 */
+	@Basic
+	@Immutable
+	public ForkJoinPool getPool(){
+		return this.pool;
+	}
+
+	/**
+	 * Executes the programs of the given ships for the given time.
+	 *
+	 * @param ships
+	 * 		  The ships of which the programs are executed.
+	 * @param dt
+	 * 		  The time every program may use.
+	 * @param listener
+	 * 		  The listener that is notified of the outcome of every program after all actions were performed, or null.
+	 * @effect The program of every ship is executed with buffered actions, after which the actions are performed.
+	 * 		   The actions of the ships are performed and the listener is notified of the ships in the order
+	 * 		   of their identifiers in their world.
+	 * 		   @see implementation
+	 * @throws NullPointerException
+	 * 		   One of the ships is not effective or has no program.
+	 * 		   |for some ship in ships: ship == null || ship.getProgram() == null
+	 * @throws IllegalArgumentException
+	 * 		   Not all ships belong to the same world.
+	 * 		   |for some ship in ships: ship.getWorld() == null || ship.getWorld() != ships.iterator().next().getWorld()
+	 */
+	public void execute(Collection<Ship> ships, double dt, ProgramListener listener)
+			throws NullPointerException,IllegalArgumentException{
+		Ship[] order = ships.toArray(new Ship[ships.size()]);
+		if(order.length == 0)
+			return;
+		World world = order[0].getWorld();
+		for(Ship ship:order){
+			if(ship.getProgram() == null)
+				throw new NullPointerException();
+			if(world == null || ship.getWorld() != world)
+				throw new IllegalArgumentException();
+		}
+		Arrays.sort(order, (first, second) -> Integer.compare(first.getId(), second.getId()));
+		world.prepareQueries();
+		Object[] outcomes = new Object[order.length];
+		for(Ship ship:order)
+			ship.getProgramContext().bufferActions();
+		ExecutionTask task = new ExecutionTask(order, outcomes, dt, 0, order.length);
+		try{
+			if(this.getPool() != null)
+				this.getPool().invoke(task);
+			else
+				task.compute();
+		}
+		finally{
+			for(Ship ship:order)
+				ship.getProgramContext().commitActions();
+		}
+		if(listener == null)
+			return;
+		for(int i=0;i<order.length;i++){
+			if(outcomes[i] instanceof RuntimeException)
+				listener.programFailed(order[i], (RuntimeException)outcomes[i]);
+			else{
+				@SuppressWarnings("unchecked")
+				List<Object> values = (List<Object>)outcomes[i];
+				listener.programExecuted(order[i], values);
+			}
+		}
+	}
+
+	/**
+	 * A class of tasks executing the programs of a range of ships. The outcome of every program is
+	 * the list of printed values or the exception it threw. A range larger than the leaf size is split in two halves.
+	 */
+	private static class ExecutionTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The number of ships of which the programs are executed on a single thread.
+		 */
+		private static final int LEAF_SIZE = 4;
+
+		private ExecutionTask(Ship[] ships, Object[] outcomes, double dt, int from, int to){
+			this.ships = ships;
+			this.outcomes = outcomes;
+			this.dt = dt;
+			this.from = from;
+			this.to = to;
+		}
+
+		private final Ship[] ships;
+		private final Object[] outcomes;
+		private final double dt;
+		private final int from;
+		private final int to;
+
+		@Override
+		protected void compute(){
+			if(this.to-this.from <= LEAF_SIZE){
+				for(int i=this.from;i<this.to;i++){
+					try{
+						this.outcomes[i] = this.ships[i].executeProgram(this.dt);
+					}
+					catch(RuntimeException exc){
+						this.outcomes[i] = exc;
+					}
+				}
+				return;
+			}
+			int middle = (this.from+this.to)>>>1;
+			invokeAll(new ExecutionTask(this.ships, this.outcomes, this.dt, this.from, middle),
+					new ExecutionTask(this.ships, this.outcomes, this.dt, middle, this.to));
+		}
+	}
+}
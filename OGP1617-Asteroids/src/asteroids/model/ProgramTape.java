@@ -0,0 +1,230 @@
+package asteroids.model;
+import java.io.*;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+import asteroids.part3.programs.IProgramFactory;
+import asteroids.part3.programs.SourceLocation;
+
+/**
+ * A class of tapes that record the calls a parser makes on a program factory, in a compact binary format.
+ * Replaying a tape on a factory makes the same calls in the same order, so it creates the same program
+ * as parsing the source again, without lexing and parsing it.
+ * Every call is recorded as the index of the method of the factory followed by its arguments. Nodes that were
+ * created by earlier calls are recorded by their number, names as strings and numbers as doubles.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+class ProgramTape implements InvocationHandler {
+
+	private static final int MAGIC = 0x41535431;
+
+	/**
+	 * The methods of program factories, sorted by name so that they have the same index in every virtual machine.
+	 */
+	private static final Method[] METHODS = IProgramFactory.class.getMethods();
+
+	/**
+	 * A checksum of the methods of program factories. Tapes recorded for other methods are not replayed.
+	 */
+	private static final long SIGNATURE;
+
+	static{
+		Arrays.sort(METHODS, new Comparator<Method>(){
+			@Override
+			public int compare(Method method1, Method method2){
+				return method1.getName().compareTo(method2.getName());
+			}
+		});
+		CRC32 checksum = new CRC32();
+		for(Method method:METHODS)
+			checksum.update(method.toGenericString().getBytes());
+		SIGNATURE = checksum.getValue();
+	}
+
+	/**
+	 * Creates a new tape that records the calls on the given factory.
+	 *
+	 * @param factory
+	 * 		  The factory that creates the program.
+	 */
+	ProgramTape(IProgramFactory<?,?,?,?> factory){
+		this.factory = factory;
+		try{
+			this.out.writeInt(MAGIC);
+			this.out.writeLong(SIGNATURE);
+		}
+		catch(IOException exc){
+			throw new AssertionError(exc);
+		}
+	}
+
+	private final IProgramFactory<?,?,?,?> factory;
+	private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+	private final DataOutputStream out = new DataOutputStream(this.bytes);
+	private final Map<Object,Integer> nodes = new IdentityHashMap<Object,Integer>();
+	private int nbNodes = 0;
+
+	/**
+	 * Returns a factory that records its calls on this tape and forwards them to the factory of this tape.
+	 */
+	@SuppressWarnings("unchecked")
+	<E,S,F,P> IProgramFactory<E,S,F,P> getRecorder(){
+		return (IProgramFactory<E,S,F,P>)Proxy.newProxyInstance(IProgramFactory.class.getClassLoader(),
+				new Class<?>[]{IProgramFactory.class}, this);
+	}
+
+	/**
+	 * Returns the recorded calls.
+	 */
+	byte[] toByteArray(){
+		return this.bytes.toByteArray();
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] arguments) throws Throwable{
+		if(method.getDeclaringClass() == Object.class)
+			return method.invoke(this, arguments);
+		Object result;
+		try{
+			result = method.invoke(this.factory, arguments);
+		}
+		catch(InvocationTargetException exc){
+			throw exc.getCause();
+		}
+		writeNumber(Arrays.asList(METHODS).indexOf(method));
+		Class<?>[] types = method.getParameterTypes();
+		for(int i=0;i<types.length;i++)
+			this.write(types[i], arguments[i]);
+		this.nodes.put(result, this.nbNodes++);
+		return result;
+	}
+
+	private void write(Class<?> type, Object argument) throws IOException{
+		if(type == String.class)
+			this.out.writeUTF((String)argument);
+		else if(type == double.class)
+			this.out.writeDouble((Double)argument);
+		else if(type == SourceLocation.class){
+			SourceLocation location = (SourceLocation)argument;
+			this.writeNumber(location == null ? 0 : location.getLine()+1);
+			this.writeNumber(location == null ? 0 : location.getColumn());
+		}
+		else if(type == List.class){
+			List<?> list = (List<?>)argument;
+			this.writeNumber(list.size());
+			for(Object node:list)
+				this.writeNode(node);
+		}
+		else
+			this.writeNode(argument);
+	}
+
+	/**
+	 * Writes the number of the given node, or 0 if it is not effective.
+	 */
+	private void writeNode(Object node) throws IOException{
+		if(node == null){
+			this.writeNumber(0);
+			return;
+		}
+		Integer number = this.nodes.get(node);
+		if(number == null)
+			throw new IllegalArgumentException("Node not created by the factory");
+		this.writeNumber(number+1);
+	}
+
+	/**
+	 * Writes the given non-negative number in as few bytes as possible, seven bits per byte.
+	 */
+	private void writeNumber(int number) throws IOException{
+		while((number & ~0x7F) != 0){
+			this.out.writeByte((number & 0x7F) | 0x80);
+			number >>>= 7;
+		}
+		this.out.writeByte(number);
+	}
+
+	/**
+	 * Replays the given tape on the given factory.
+	 *
+	 * @param tape
+	 * 		  The recorded calls.
+	 * @param factory
+	 * 		  The factory that creates the program.
+	 * @return The program created by the last call of the tape.
+	 * @throws IOException
+	 * 		   The tape is not a valid recording of the calls on a program factory.
+	 */
+	static <P> P replay(byte[] tape, IProgramFactory<?,?,?,P> factory) throws IOException{
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(tape));
+		if(in.readInt() != MAGIC || in.readLong() != SIGNATURE)
+			throw new IOException("Not a program tape");
+		List<Object> nodes = new ArrayList<Object>();
+		Method method = null;
+		while(in.available()>0){
+			int index = readNumber(in);
+			if(index >= METHODS.length)
+				throw new IOException("Unknown method " + index);
+			method = METHODS[index];
+			Class<?>[] types = method.getParameterTypes();
+			Object[] arguments = new Object[types.length];
+			for(int i=0;i<types.length;i++)
+				arguments[i] = read(in, types[i], nodes);
+			try{
+				nodes.add(method.invoke(factory, arguments));
+			}
+			catch(IllegalAccessException exc){
+				throw new IOException(exc);
+			}
+			catch(InvocationTargetException exc){
+				throw new IOException(exc.getCause());
+			}
+		}
+		if(method == null || !method.getName().equals("createProgram"))
+			throw new IOException("Incomplete program tape");
+		@SuppressWarnings("unchecked")
+		P program = (P)nodes.get(nodes.size()-1);
+		return program;
+	}
+
+	private static Object read(DataInputStream in, Class<?> type, List<Object> nodes) throws IOException{
+		if(type == String.class)
+			return in.readUTF();
+		if(type == double.class)
+			return in.readDouble();
+		if(type == SourceLocation.class){
+			int line = readNumber(in);
+			int column = readNumber(in);
+			return line == 0 ? null : new SourceLocation(line-1, column);
+		}
+		if(type == List.class){
+			int size = readNumber(in);
+			List<Object> list = new ArrayList<Object>(size);
+			for(int i=0;i<size;i++)
+				list.add(readNode(in, nodes));
+			return list;
+		}
+		return readNode(in, nodes);
+	}
+
+	private static Object readNode(DataInputStream in, List<Object> nodes) throws IOException{
+		int number = readNumber(in);
+		if(number > nodes.size())
+			throw new IOException("Unknown node " + number);
+		return number == 0 ? null : nodes.get(number-1);
+	}
+
+	private static int readNumber(DataInputStream in) throws IOException{
+		int number = 0;
+		for(int shift=0;shift<32;shift+=7){
+			int part = in.readUnsignedByte();
+			number |= (part & 0x7F) << shift;
+			if((part & 0x80) == 0)
+				return number;
+		}
+		throw new IOException("Invalid number");
+	}
+}
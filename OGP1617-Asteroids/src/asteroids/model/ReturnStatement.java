@@ -19,12 +19,30 @@ public class ReturnStatement extends Statement {
 	
 	private final Expression<?> returnExpression;
 	
-	public void evaluate(double time) throws ReturnedException, NotEnoughTimeException,BreakException{
+	public void evaluate(ExecutionContext context, double time) throws ReturnedException, NotEnoughTimeException,BreakException{
 		if(this.getFunction() == null)
-			throw new AssertionError();
+			throw new IllegalStatementError();
 		if(time<0.2)
 			throw new NotEnoughTimeException(time);
-		Object value = returnExpression.getValue();
+		Object value = returnExpression.getValue(context);
 		throw new ReturnedException(value);
 	}
+
+	@Override
+	Statement optimize(ProgramOptimizer optimizer){
+		return new ReturnStatement(this.returnExpression.optimize(optimizer));
+	}
+
+	@Override
+	void compile(ProgramCompiler compiler, String time){
+		if(this.getFunction() == null){
+			compiler.line("illegalStatement();");
+			return;
+		}
+		String value = compiler.newName("value");
+		compiler.line("{");
+		compiler.line("Object " + value + " = " + this.returnExpression.compile(compiler).asObject() + ";");
+		compiler.line("if(true) return " + value + ";");
+		compiler.line("}");
+	}
 }
@@ -1,13 +1,16 @@
 package asteroids.model;
 
+/**
+ * A class of exceptions carrying the value of a return statement to the call of its function.
+ * Returning is part of the normal flow of a program, so these exceptions don't capture a stack trace.
+ */
 public class ReturnedException extends Exception{
 	public ReturnedException(){
-		super();
-		this.value = null;
+		this(null);
 	}
 	
 	public ReturnedException(Object value){
-		super();
+		super(null, null, false, false);
 		this.value = value;
 	}
 	
@@ -4,7 +4,12 @@ import asteroids.model.*;
 
 public class SelfExpression extends Expression<Ship> {
 	
-	public Ship getValue(){
-		return this.getProgram().getUser();
+	public Ship getValue(ExecutionContext context){
+		return context.getUser();
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		return new ProgramCompiler.Code(ProgramCompiler.Kind.OBJECT, "context.getUser()");
 	}
 }
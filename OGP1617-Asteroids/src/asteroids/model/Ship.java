@@ -2,8 +2,7 @@ package asteroids.model;
 import be.kuleuven.cs.som.taglet.*;
 import be.kuleuven.cs.som.annotate.*;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.function.Predicate;
 
 import asteroids.model.Circle;
 
@@ -86,7 +85,7 @@ public class Ship extends Circle {
 	 * 		smaller or equal then 2*PI.
 	 * 		|result == ((orient>=0) && (orient<=2*Math.PI))
 	 */
-	private static boolean isValidOrientation(double orient){
+	static boolean isValidOrientation(double orient){
 		return ((orient>=0) && (orient<=2*Math.PI));
 	}
 	
@@ -575,12 +574,13 @@ public class Ship extends Circle {
 		else if(this == ship || this.getWorld() != ship.getWorld())
 			throw new IllegalArgumentException();
 		else{
-			Vector2D deltaV = (this.getVelVector().substract(ship.getVelVector()));
-			Vector2D deltaR = (this.getPosVector().substract(ship.getPosVector()));
+			double deltaRX = this.getPosX()-ship.getPosX();
+			double deltaRY = this.getPosY()-ship.getPosY();
+			double deltaVR = Vector2D.scalarProduct(this.getVelX()-ship.getVelX(), this.getVelY()-ship.getVelY(), deltaRX, deltaRY);
 			double sigma = this.getRadius() + ship.getRadius();
-			double J = (2*this.getTotalMass()*ship.getTotalMass()*deltaV.scalarProduct(deltaR))/((this.getTotalMass()+ship.getTotalMass())*sigma);
-			double Jx = J*(deltaR.getX())/sigma;
-			double Jy = J*(deltaR.getY())/sigma;
+			double J = (2*this.getTotalMass()*ship.getTotalMass()*deltaVR)/((this.getTotalMass()+ship.getTotalMass())*sigma);
+			double Jx = J*deltaRX/sigma;
+			double Jy = J*deltaRY/sigma;
 			this.setVel(this.getVelX()-(Jx/this.getTotalMass()), this.getVelY()-(Jy/this.getTotalMass()));
 			ship.setVel(ship.getVelX()+(Jx/ship.getTotalMass()), ship.getVelY()+(Jy/ship.getTotalMass()));
 		}
@@ -616,22 +616,26 @@ public class Ship extends Circle {
 		if(this.getWorld()!= null){
 			this.setPosX(this.getRadius()+Math.random()*(this.getWorld().getWidth()-2*this.getRadius()));
 			this.setPosY(this.getRadius()+Math.random()*(this.getWorld().getHeight()-2*this.getRadius()));
-			this.getWorld().updateCirclesLibrary();
 		}
 	}
 	
 	private Program program;
 	
+	private ExecutionContext programContext;
+	
 	/**
-	 * Sets the program to a new program
+	 * Sets the program to a new program, which the ship executes in a new execution context.
+	 * The same program may be set on any number of ships.
 	 * @param newProgram
 	 * 		  The new program of the ship
 	 * @post The program is the new program.
 	 * 		 |new.getProgram() == newProgram
+	 * @post The ship executes the new program from the start, in a context of its own.
+	 * 		 |new.getProgramContext().getProgram() == newProgram && new.getProgramContext().getUser() == this
 	 */
 	public void setProgram(Program newProgram){
 		this.program = newProgram;
-		this.program.setUser(this);
+		this.programContext = newProgram == null ? null : new ExecutionContext(newProgram, this);
 	}
 	
 	/**
@@ -643,61 +647,86 @@ public class Ship extends Circle {
 		return this.program;
 	}
 	
+	/**
+	 * Returns the context in which the ship executes its program, or null if the ship has no program.
+	 */
+	public ExecutionContext getProgramContext(){
+		return this.programContext;
+	}
+	
+	/**
+	 * Executes the program of the ship for the given amount of time.
+	 * @param dt
+	 * 		  The time the program may use.
+	 * @return The printed values kept by the print sink of the program, or null if the program is suspended.
+	 * 		  |result == getProgramContext().execute(dt)
+	 * @throws NullPointerException
+	 * 		   The ship has no program.
+	 * 		  |getProgram() == null
+	 * @throws IllegalArgumentException
+	 * 		   The program performs an illegal operation.
+	 */
+	public List<Object> executeProgram(double dt) throws NullPointerException,IllegalArgumentException{
+		return this.programContext.execute(dt);
+	}
+	
 	/**
 	 * Searches the nearest ship of this ship in the world
 	 * @return The nearest ship in the world, null if there are no other ships.
-	 * 		  |@see implementation
+	 * 		  |result == this.getWorld().getNearest(this, Ship.class, ship -> ship != this)
 	 */
 	public Ship getNearestShip(){
-		return this.getWorld().getWorldShips().stream().filter(s -> s != this).min(Comparator.comparing((Ship i) -> i.getDistanceBetween(this))).orElse(null);
-
+		return this.getWorld().getNearest(this, Ship.class, this.otherShips);
 	}
 	
+	private final Predicate<Ship> otherShips = ship -> ship != this;
+	
 	/**
 	 * Searches the nearest bullet this ship has fired of this ship in the world
 	 * @return The nearest bullet in the world, null if there are no bullets it has fired.
-	 * 		  |@see implementation
+	 * 		  |result == this.getWorld().getNearest(this, Bullet.class, bullet -> bullet.getOwner() == this)
 	 */
 	public Bullet getNearestBullet(){
-		return this.getWorld().getWorldBullets().stream().filter(s -> s.getOwner()==this).min(Comparator.comparing((Bullet i) -> i.getDistanceBetween(this))).orElse(null);
+		return this.getWorld().getNearest(this, Bullet.class, this.ownBullets);
 	}
 	
+	private final Predicate<Bullet> ownBullets = bullet -> bullet.getOwner() == this;
+	
 	/**
 	 * Searches the nearest asteroid to this ship in the world
 	 * @return The nearest asteroid in the world, null if there are no asteroids.
-	 * 		  |@see implementation
+	 * 		  |result == this.getWorld().getNearest(this, Asteroid.class, null)
 	 */
 	public Asteroid getNearestAsteroid(){
-		return this.getWorld().getWorldAsteroids().stream().min(Comparator.comparing((Asteroid i) -> i.getDistanceBetween(this))).orElse(null);
+		return this.getWorld().getNearest(this, Asteroid.class, null);
 	}
 	
 	/**
 	 * Searches the nearest planetoid to this ship in the world
 	 * @return The nearest planetoid in the world, null if there are no planetoids.
-	 * 		  |@see implementation
+	 * 		  |result == this.getWorld().getNearest(this, Planetoid.class, null)
 	 */
 	public Planetoid getNearestPlanetoid(){
-		return this.getWorld().getWorldPlanetoids().stream().min(Comparator.comparing((Planetoid i) -> i.getDistanceBetween(this))).orElse(null);
+		return this.getWorld().getNearest(this, Planetoid.class, null);
 	}
 	
 	/**
 	 * Searches the nearest minorplanet to this ship in the world
 	 * @return The nearest minorplanet in the world, null if there are no other minorplanets.
-	 * 		  |@see implementation
+	 * 		   An asteroid is preferred over a planetoid at the same distance.
+	 * 		  |result == this.getWorld().getNearest(this, MinorPlanet.class, null)
 	 */
 	public MinorPlanet getNearestPlanet(){
-		return this.getWorld().getWorldEntities().stream().filter(i->i instanceof MinorPlanet).map(i -> (MinorPlanet)i).min(Comparator.comparing((MinorPlanet i) -> i.getDistanceBetween(this))).orElse(null);
-
+		return this.getWorld().getNearest(this, MinorPlanet.class, null);
 	}
 	
 	/**
 	 * Searches the nearest circle to this ship in the world
 	 * @return The nearest circle in the world, null if there are no other circles.
-	 * 		  |@see implementation
+	 * 		  |result == this.getWorld().getNearest(this, Circle.class, null)
 	 */
 	public Circle getNearestCircle(){
-		return this.getWorld().getWorldEntities().stream().map(i -> (Circle)i).min(Comparator.comparing((Circle i) -> i.getDistanceBetween(this))).orElse(null);
-
+		return this.getWorld().getNearest(this, Circle.class, null);
 	}
 }
 
@@ -3,8 +3,17 @@ import asteroids.model.*;
 
 public class ShipExpression extends Expression<Ship> {
 	@Override
-	public Ship getValue(){
-		Ship user = this.getProgram().getUser();
-		return user.getNearestShip();
+	public Ship getValue(ExecutionContext context){
+		return (Ship)context.queryWorld(WorldQuery.SHIP);
+	}
+
+	@Override
+	Expression<?> optimize(ProgramOptimizer optimizer){
+		return optimizer.queryWorld(this);
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		return new ProgramCompiler.Code(ProgramCompiler.Kind.OBJECT, "context.queryWorld(WorldQuery.SHIP)");
 	}
 }
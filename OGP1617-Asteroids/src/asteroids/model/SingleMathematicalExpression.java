@@ -23,16 +23,44 @@ public class SingleMathematicalExpression extends Expression<Double> {
 	
 	
 	@Override
-	public Double getValue(){
-		Object value = expression.getValue();
-		if(value instanceof Double){
-			switch(this.type){
-			case SQRT: return Math.sqrt((Double)value);
-			case NEGATE: return -(Double)value;
-				}
-			throw new AssertionError();
+	public Double getValue(ExecutionContext context){
+		return this.evaluateDouble(context);
+	}
+	
+	@Override
+	boolean isNumeric(){
+		return true;
+	}
+	
+	@Override
+	double evaluateDouble(ExecutionContext context){
+		double value = expression.evaluateDouble(context);
+		switch(this.type){
+		case SQRT: return Math.sqrt(value);
+		case NEGATE: return -value;
+			}
+		throw new AssertionError();
+	}
+
+	@Override
+	Expression<?> optimize(ProgramOptimizer optimizer){
+		Expression<?> argument = this.expression.optimize(optimizer);
+		SingleMathematicalExpression result = new SingleMathematicalExpression(this.type, argument);
+		if(argument instanceof LiteralExpression)
+			return new LiteralExpression(result.evaluateDouble(null));
+		return optimizer.pure(result, argument);
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		ProgramCompiler.Code argument = this.expression.compile(compiler);
+		String value = argument.kind == ProgramCompiler.Kind.DOUBLE ? argument.source : "num(" + argument.asObject() + ")";
+		switch(this.type){
+		case SQRT:
+			return new ProgramCompiler.Code(ProgramCompiler.Kind.DOUBLE, "Math.sqrt(" + value + ")");
+		case NEGATE:
+			return new ProgramCompiler.Code(ProgramCompiler.Kind.DOUBLE, "(-" + value + ")");
 		}
-		else
-			throw new IllegalArgumentException();
+		throw new AssertionError();
 	}
 }
@@ -25,12 +25,50 @@ public class SmallerExpression extends Expression<Boolean> {
 	
 	
 	@Override
-	public Boolean getValue(){
-		Object value1 = firstExpression.getValue();
-		Object value2 = secondExpression.getValue();
-		if(value1 instanceof Double && value2 instanceof Double)
-			return (Double)value1<(Double)value2;
-		else
-			throw new IllegalArgumentException();
+	public Boolean getValue(ExecutionContext context){
+		return this.evaluateBoolean(context);
+	}
+	
+	@Override
+	boolean isBoolean(){
+		return true;
+	}
+	
+	/**
+	 * Both expressions are evaluated before the type of either one is checked, as in MathematicalExpression.
+	 */
+	@Override
+	boolean evaluateBoolean(ExecutionContext context){
+		double value1;
+		double value2;
+		if(firstExpression.isNumeric()){
+			value1 = firstExpression.evaluateDouble(context);
+			value2 = secondExpression.evaluateDouble(context);
+		}
+		else{
+			Object object1 = firstExpression.getValue(context);
+			value2 = secondExpression.evaluateDouble(context);
+			if(!(object1 instanceof Double))
+				throw new IllegalArgumentException();
+			value1 = (Double)object1;
+		}
+		return value1<value2;
+	}
+
+	@Override
+	Expression<?> optimize(ProgramOptimizer optimizer){
+		Expression<?> first = this.firstExpression.optimize(optimizer);
+		Expression<?> second = this.secondExpression.optimize(optimizer);
+		SmallerExpression result = new SmallerExpression(first, second);
+		if(first instanceof LiteralExpression && second instanceof LiteralExpression)
+			return new BooleanLiteralExpression(result.evaluateBoolean(null));
+		return optimizer.pure(result, first, second);
+	}
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		ProgramCompiler.Code first = this.firstExpression.compile(compiler);
+		ProgramCompiler.Code second = this.secondExpression.compile(compiler);
+		return new ProgramCompiler.Code(ProgramCompiler.Kind.BOOLEAN, ProgramCompiler.binary(first, second, "<", "less"));
 	}
 }
@@ -25,5 +25,39 @@ public abstract class Statement {
 		this.program = newProgram;
 	}
 	
-	public abstract void evaluate(double time) throws NotEnoughTimeException,BreakException,ReturnedException;
+	public abstract void evaluate(ExecutionContext context, double time) throws NotEnoughTimeException,BreakException,ReturnedException;
+
+	/**
+	 * Returns the time that remains for the statements after this statement, once it was evaluated
+	 * in the given context with the given time. Only actions, turns and blocks use up time.
+	 * 
+	 * @param context
+	 * 		  The context in which this statement was evaluated.
+	 * @param time
+	 * 		  The time this statement could use.
+	 */
+	double getRemainingTime(ExecutionContext context, double time){
+		return time;
+	}
+
+	/**
+	 * Returns a statement that has the same effects as this statement at the same times,
+	 * after the given optimizer has optimized its expressions and removed its dead branches.
+	 * 
+	 * @param optimizer
+	 * 		  The optimizer of the program of this statement.
+	 */
+	Statement optimize(ProgramOptimizer optimizer){
+		return this;
+	}
+	
+	/**
+	 * Adds Java code that evaluates this statement to the method that is generated by the given compiler.
+	 * 
+	 * @param compiler
+	 * 		  The compiler that generates the code.
+	 * @param time
+	 * 		  The name of the variable with the time this statement may use.
+	 */
+	abstract void compile(ProgramCompiler compiler, String time);
 }
@@ -0,0 +1,188 @@
+package asteroids.model;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * A class of grids that keep the swept bounding boxes of circles while a world evolves, so that the circles that might
+ * collide with one circle are found without looking at the other circles. Unlike a broad phase, a grid is updated
+ * one circle at a time: the box of a circle is swept from the moment it is added until the end of the evolution,
+ * so it stays valid for as long as the circle keeps its velocity. A circle that only wears down stays within its box.
+ *
+ * The size of a cell is fixed when the grid is created. Boxes that span more than a few cells, such as those of fast
+ * bullets, are kept out of the cells and tested against every other box instead, as in UniformGridBroadPhase.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+class SweptBoxGrid {
+
+	/**
+	 * Creates a new empty grid with cells of the given size. If the size is not a positive finite number,
+	 * every box is tested against every other box.
+	 *
+	 * @param cellSize
+	 * 		  The width and height of the cells of the new grid.
+	 */
+	SweptBoxGrid(double cellSize){
+		this.cellSize = (cellSize>0 && !Double.isInfinite(cellSize)) ? cellSize : Double.NaN;
+	}
+
+	/**
+	 * Returns the median of the largest widths or heights of the swept bounding boxes of the given circles
+	 * during the horizon, or NaN if there are no circles.
+	 */
+	static double getMedianExtent(List<Circle> circles, double horizon){
+		if(circles.isEmpty())
+			return Double.NaN;
+		double[] extents = new double[circles.size()];
+		double[] box = new double[4];
+		for(int i=0;i<extents.length;i++){
+			UniformGridBroadPhase.computeBoundingBox(circles.get(i), horizon, box);
+			extents[i] = Math.max(box[2]-box[0], box[3]-box[1]);
+		}
+		Arrays.sort(extents);
+		return extents[extents.length/2];
+	}
+
+	private final double cellSize;
+	private final IdentityHashMap<Circle,Entry> entries = new IdentityHashMap<Circle,Entry>();
+	private final HashMap<Long,List<Entry>> cells = new HashMap<Long,List<Entry>>();
+	private final List<Entry> oversized = new ArrayList<Entry>();
+
+	/**
+	 * Adds the given circle with its box swept during the horizon, after reporting the circles in this grid
+	 * of which the box overlaps that box to the given consumer. A circle that is already in this grid is moved.
+	 *
+	 * @param circle
+	 * 		  The circle to add.
+	 * @param horizon
+	 * 		  The amount of time during which the circle moves.
+	 * @param partners
+	 * 		  The consumer of the circles that might collide with the circle, or null if they are not searched.
+	 */
+	void add(Circle circle, double horizon, Consumer<Circle> partners){
+		this.remove(circle);
+		Entry entry = new Entry(circle, horizon);
+		if(partners != null)
+			this.findPartners(entry, partners);
+		this.entries.put(circle, entry);
+		if(entry.isOversized){
+			this.oversized.add(entry);
+			return;
+		}
+		for(int column=entry.firstColumn;column<=entry.lastColumn;column++){
+			for(int row=entry.firstRow;row<=entry.lastRow;row++){
+				Long key = UniformGridBroadPhase.getCellKey(column, row);
+				List<Entry> cell = this.cells.get(key);
+				if(cell == null){
+					cell = new ArrayList<Entry>(4);
+					this.cells.put(key, cell);
+				}
+				cell.add(entry);
+			}
+		}
+	}
+
+	/**
+	 * Removes the given circle from this grid, if it is in this grid.
+	 *
+	 * @param circle
+	 * 		  The circle to remove.
+	 */
+	void remove(Circle circle){
+		Entry entry = this.entries.remove(circle);
+		if(entry == null)
+			return;
+		if(entry.isOversized){
+			this.oversized.remove(entry);
+			return;
+		}
+		for(int column=entry.firstColumn;column<=entry.lastColumn;column++){
+			for(int row=entry.firstRow;row<=entry.lastRow;row++){
+				Long key = UniformGridBroadPhase.getCellKey(column, row);
+				List<Entry> cell = this.cells.get(key);
+				cell.remove(entry);
+				if(cell.isEmpty())
+					this.cells.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Reports every circle in this grid of which the box overlaps the box of the given entry exactly once.
+	 */
+	private void findPartners(Entry entry, Consumer<Circle> partners){
+		if(entry.isOversized){
+			for(Entry other:this.entries.values()){
+				if(entry.overlaps(other))
+					partners.accept(other.circle);
+			}
+			return;
+		}
+		for(Entry other:this.oversized){
+			if(entry.overlaps(other))
+				partners.accept(other.circle);
+		}
+		for(int column=entry.firstColumn;column<=entry.lastColumn;column++){
+			for(int row=entry.firstRow;row<=entry.lastRow;row++){
+				List<Entry> cell = this.cells.get(UniformGridBroadPhase.getCellKey(column, row));
+				if(cell == null)
+					continue;
+				for(int i=0;i<cell.size();i++){
+					Entry other = cell.get(i);
+					if(entry.overlaps(other) && this.isReportingCell(column, row, entry, other))
+						partners.accept(other.circle);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the pair of the given entries has to be reported in the given cell. A pair that shares several
+	 * cells is only reported in the cell containing the lower left corner of the overlap of their boxes.
+	 */
+	private boolean isReportingCell(int column, int row, Entry first, Entry second){
+		return column == UniformGridBroadPhase.getCellIndex(Math.max(first.minX, second.minX), this.cellSize)
+				&& row == UniformGridBroadPhase.getCellIndex(Math.max(first.minY, second.minY), this.cellSize);
+	}
+
+	/**
+	 * A class of entries of circles in a grid, with their swept bounding boxes and the cells those boxes cover.
+	 */
+	private class Entry {
+
+		private Entry(Circle circle, double horizon){
+			this.circle = circle;
+			double[] box = new double[4];
+			UniformGridBroadPhase.computeBoundingBox(circle, horizon, box);
+			this.minX = box[0];
+			this.minY = box[1];
+			this.maxX = box[2];
+			this.maxY = box[3];
+			double extent = Math.max(this.maxX-this.minX, this.maxY-this.minY);
+			this.isOversized = Double.isNaN(cellSize) || !(extent<=UniformGridBroadPhase.MAX_SPAN*cellSize);
+			this.firstColumn = this.isOversized ? 0 : UniformGridBroadPhase.getCellIndex(this.minX, cellSize);
+			this.lastColumn = this.isOversized ? -1 : UniformGridBroadPhase.getCellIndex(this.maxX, cellSize);
+			this.firstRow = this.isOversized ? 0 : UniformGridBroadPhase.getCellIndex(this.minY, cellSize);
+			this.lastRow = this.isOversized ? -1 : UniformGridBroadPhase.getCellIndex(this.maxY, cellSize);
+		}
+
+		private final Circle circle;
+		private final double minX;
+		private final double minY;
+		private final double maxX;
+		private final double maxY;
+		private final boolean isOversized;
+		private final int firstColumn;
+		private final int lastColumn;
+		private final int firstRow;
+		private final int lastRow;
+
+		/**
+		 * Checks whether the box of this entry overlaps the box of the given entry.
+		 */
+		private boolean overlaps(Entry other){
+			return this.minX<=other.maxX && other.minX<=this.maxX && this.minY<=other.maxY && other.minY<=this.maxY;
+		}
+	}
+}
@@ -20,16 +20,43 @@ public class TurnStatement extends Statement {
 		turnExpression.setProgram(newProgram);
 	}
 	
-	public void evaluate(double time)throws NotEnoughTimeException,UnsupportedOperationException{
-		Object value = turnExpression.getValue();
-		if(value instanceof Double){
-			if(this.getFunction() != null)
-				throw new AssertionError();
-			if(time<0.2)
-				throw new NotEnoughTimeException(time);
-			this.getProgram().getUser().turn((Double)value);
-			}
-		else
-			throw new IllegalArgumentException();
+	public void evaluate(ExecutionContext context, double time)throws NotEnoughTimeException,UnsupportedOperationException{
+		double value = turnExpression.evaluateDouble(context);
+		if(this.getFunction() != null)
+			throw new IllegalStatementError();
+		if(time<0.2)
+			throw new NotEnoughTimeException(time);
+		context.turn(value);
 		}
+
+	@Override
+	double getRemainingTime(ExecutionContext context, double time){
+		return time-0.2;
+	}
+
+	@Override
+	Statement optimize(ProgramOptimizer optimizer){
+		optimizer.act();
+		return new TurnStatement(this.turnExpression.optimize(optimizer));
+	}
+
+	@Override
+	void compile(ProgramCompiler compiler, String time){
+		ProgramCompiler.Code code = this.turnExpression.compile(compiler);
+		String value = compiler.newName("value");
+		compiler.line("{");
+		if(code.kind == ProgramCompiler.Kind.DOUBLE)
+			compiler.line("double " + value + " = " + code.source + ";");
+		else{
+			compiler.line("Object " + value + " = " + code.asObject() + ";");
+			compiler.line("if(!(" + value + " instanceof Double)) throw new IllegalArgumentException();");
+		}
+		if(this.getFunction() != null)
+			compiler.line("illegalStatement();");
+		else{
+			compiler.line("checkTime(" + time + ");");
+			compiler.line("context.turn((Double)" + value + ");");
+		}
+		compiler.line("}");
+	}
 }
@@ -0,0 +1,25 @@
+package asteroids.model;
+import java.util.*;
+
+/**
+ * A class of print sinks that keep every printed value for as long as they exist. Executing a program with such
+ * a sink returns all values it ever printed, as programs did before print sinks were introduced.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class UnboundedPrintSink implements PrintSink {
+
+	private final List<Object> values = new ArrayList<Object>();
+	private final List<Object> view = Collections.unmodifiableList(this.values);
+
+	@Override
+	public void print(Object value){
+		this.values.add(value);
+	}
+
+	@Override
+	public List<Object> getValues(){
+		return this.view;
+	}
+}
@@ -0,0 +1,213 @@
+package asteroids.model;
+import java.util.*;
+
+/**
+ * A class of broad phases that hash the swept bounding boxes of circles into a uniform grid.
+ * The size of a cell equals the median size of the swept bounding boxes, so that a typical box covers at most 2x2 cells
+ * and only circles sharing a cell are paired. Boxes that are much larger than a cell, such as those of fast bullets,
+ * are kept out of the grid and tested against every other box instead.
+ * A circle in a world can't collide with another circle outside the bounds of that world before it collides
+ * with the world itself, so the boxes of such circles are clipped to the bounds of their world.
+ * The boxes are therefore also finite if the horizon is not.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class UniformGridBroadPhase implements BroadPhase {
+
+	/**
+	 * The fraction of its radius with which the bounding box of a circle is enlarged,
+	 * to absorb rounding errors in the exact time to collision.
+	 */
+	private static final double MARGIN = 0.01;
+
+	/**
+	 * The number of cells a bounding box may span in a direction before it is kept out of the grid.
+	 */
+	static final int MAX_SPAN = 4;
+
+	private double[] minX = new double[0];
+	private double[] minY = new double[0];
+	private double[] maxX = new double[0];
+	private double[] maxY = new double[0];
+	private double[] extents = new double[0];
+	private boolean[] oversized = new boolean[0];
+	private final HashMap<Long,Cell> cells = new HashMap<Long,Cell>();
+
+	/**
+	 * Reports every pair of circles of which the swept bounding boxes overlap during the horizon.
+	 * If the horizon is negative or not a number, every pair is reported.
+	 *
+	 * @see implementation
+	 */
+	@Override
+	public void findCandidatePairs(List<Circle> circles, double horizon, PairHandler handler){
+		int size = circles.size();
+		if(size<2)
+			return;
+		if(Double.isNaN(horizon) || horizon<0){
+			new BruteForceBroadPhase().findCandidatePairs(circles, horizon, handler);
+			return;
+		}
+		double cellSize = this.computeBoundingBoxes(circles, horizon);
+		boolean grid = cellSize>0 && !Double.isInfinite(cellSize);
+		for(int i=0;i<size;i++){
+			this.oversized[i] = !grid || this.extents[i]>MAX_SPAN*cellSize;
+			if(!this.oversized[i])
+				continue;
+			for(int j=0;j<size;j++){
+				if(j != i && (!this.oversized[j] || j<i) && this.overlap(Math.min(i, j), Math.max(i, j)))
+					handler.handle(Math.min(i, j), Math.max(i, j));
+			}
+		}
+		if(!grid)
+			return;
+		this.cells.clear();
+		for(int i=0;i<size;i++){
+			if(this.oversized[i])
+				continue;
+			int firstColumn = getCellIndex(minX[i],cellSize);
+			int lastColumn = getCellIndex(maxX[i],cellSize);
+			int firstRow = getCellIndex(minY[i],cellSize);
+			int lastRow = getCellIndex(maxY[i],cellSize);
+			for(int column=firstColumn;column<=lastColumn;column++){
+				for(int row=firstRow;row<=lastRow;row++){
+					Long key = getCellKey(column,row);
+					Cell cell = this.cells.get(key);
+					if(cell == null){
+						cell = new Cell(column,row);
+						this.cells.put(key, cell);
+					}
+					cell.add(i);
+				}
+			}
+		}
+		for(Cell cell:this.cells.values()){
+			for(int k=0;k<cell.size;k++){
+				for(int l=k+1;l<cell.size;l++){
+					int first = Math.min(cell.members[k], cell.members[l]);
+					int second = Math.max(cell.members[k], cell.members[l]);
+					if(this.overlap(first, second) && this.isReportingCell(cell, first, second, cellSize))
+						handler.handle(first, second);
+				}
+			}
+		}
+		this.cells.clear();
+	}
+
+	/**
+	 * Computes the swept bounding boxes of the circles during the horizon, clipped to the bounds of their worlds.
+	 *
+	 * @return The median of the largest widths or heights of the bounding boxes.
+	 */
+	private double computeBoundingBoxes(List<Circle> circles, double horizon){
+		int size = circles.size();
+		if(this.minX.length<size){
+			this.minX = new double[size];
+			this.minY = new double[size];
+			this.maxX = new double[size];
+			this.maxY = new double[size];
+			this.extents = new double[size];
+			this.oversized = new boolean[size];
+		}
+		double[] box = new double[4];
+		for(int i=0;i<size;i++){
+			computeBoundingBox(circles.get(i), horizon, box);
+			minX[i] = box[0];
+			minY[i] = box[1];
+			maxX[i] = box[2];
+			maxY[i] = box[3];
+			extents[i] = Math.max(maxX[i]-minX[i], maxY[i]-minY[i]);
+		}
+		double[] sorted = Arrays.copyOf(this.extents, size);
+		Arrays.sort(sorted);
+		return sorted[size/2];
+	}
+
+	/**
+	 * Computes the swept bounding box of the given circle during the horizon, clipped to the bounds of its world,
+	 * as its smallest x and y coordinates followed by its largest x and y coordinates.
+	 *
+	 * @param circle
+	 * 		  The circle of which the bounding box is computed.
+	 * @param horizon
+	 * 		  The amount of time during which the circle moves.
+	 * @param box
+	 * 		  The array of four coordinates in which the bounding box is stored.
+	 */
+	static void computeBoundingBox(Circle circle, double horizon, double[] box){
+		double radius = (1+MARGIN)*circle.getRadius();
+		double endX = circle.getVelX() == 0 ? circle.getPosX() : circle.getPosX()+circle.getVelX()*horizon;
+		double endY = circle.getVelY() == 0 ? circle.getPosY() : circle.getPosY()+circle.getVelY()*horizon;
+		box[0] = Math.min(circle.getPosX(), endX)-radius;
+		box[1] = Math.min(circle.getPosY(), endY)-radius;
+		box[2] = Math.max(circle.getPosX(), endX)+radius;
+		box[3] = Math.max(circle.getPosY(), endY)+radius;
+		World world = circle.getWorld();
+		if(world != null){
+			double margin = MARGIN*circle.getRadius();
+			box[0] = Math.max(box[0], -margin);
+			box[1] = Math.max(box[1], -margin);
+			box[2] = Math.min(box[2], world.getWidth()+margin);
+			box[3] = Math.min(box[3], world.getHeight()+margin);
+		}
+	}
+
+	/**
+	 * Checks whether the bounding boxes of the circles with the given indices overlap.
+	 */
+	private boolean overlap(int first, int second){
+		return minX[first]<=maxX[second] && minX[second]<=maxX[first]
+				&& minY[first]<=maxY[second] && minY[second]<=maxY[first];
+	}
+
+	/**
+	 * Checks whether the pair has to be reported in the given cell. A pair that shares several cells
+	 * is only reported in the cell containing the lower left corner of the overlap of their bounding boxes.
+	 */
+	private boolean isReportingCell(Cell cell, int first, int second, double cellSize){
+		return cell.column == getCellIndex(Math.max(minX[first], minX[second]),cellSize)
+				&& cell.row == getCellIndex(Math.max(minY[first], minY[second]),cellSize);
+	}
+
+	/**
+	 * Returns the index of the cell row or column containing the given coordinate.
+	 */
+	static int getCellIndex(double coordinate, double cellSize){
+		double index = Math.floor(coordinate/cellSize);
+		if(index>=Integer.MAX_VALUE)
+			return Integer.MAX_VALUE-1;
+		if(index<=Integer.MIN_VALUE)
+			return Integer.MIN_VALUE+1;
+		return (int)index;
+	}
+
+	/**
+	 * Returns the key of the cell with the given column and row.
+	 */
+	static Long getCellKey(int column, int row){
+		return (((long)column)<<32) | (row & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * A class of grid cells, holding the indices of the circles of which the bounding box covers the cell.
+	 */
+	private static class Cell {
+
+		private Cell(int column, int row){
+			this.column = column;
+			this.row = row;
+		}
+
+		private final int column;
+		private final int row;
+		private int[] members = new int[4];
+		private int size = 0;
+
+		private void add(int index){
+			if(this.size == this.members.length)
+				this.members = Arrays.copyOf(this.members, 2*this.size);
+			this.members[this.size++] = index;
+		}
+	}
+}
@@ -8,17 +8,53 @@ public class VariableReadExpression extends Expression<Object>{
 	
 	private final String name;
 	
-	public Object getValue(){
-		if(this.getFunction() == null){
-			if(this.getProgram().getVariable(name) == null)
-				throw new IllegalArgumentException();
-			return this.getProgram().getVariable(name);
-		}
-		else{
-			if(this.getFunction().getVariable(name) == null)
-				throw new IllegalArgumentException();
-			return this.getFunction().getVariable(name);
-		}
+	/**
+	 * Returns the name of the variable that is read.
+	 */
+	String getName(){
+		return this.name;
 	}
 	
+	/**
+	 * The slot of the variable among the global variables of the program, and among the
+	 * local variables of the function in which this expression occurs. Both slots are
+	 * resolved when this expression is bound to its program and function.
+	 */
+	private int globalSlot = -1;
+	private int localSlot = -1;
+	
+	@Override
+	public void setProgram(Program newProgram){
+		super.setProgram(newProgram);
+		if(newProgram != null)
+			this.globalSlot = newProgram.resolveVariable(this.name);
+	}
+	
+	@Override
+	public void setFunction(Function newFunction){
+		super.setFunction(newFunction);
+		if(newFunction != null)
+			this.localSlot = newFunction.resolveVariable(this.name);
+	}
+	
+	public Object getValue(ExecutionContext context){
+		Object value;
+		if(this.getFunction() == null)
+			value = context.getVariable(this.globalSlot);
+		else
+			value = this.getFunction().getVariable(context, this.localSlot, this.globalSlot);
+		if(value == null)
+			throw new IllegalArgumentException();
+		return value;
+	}
+	
+
+	@Override
+	ProgramCompiler.Code compile(ProgramCompiler compiler){
+		if(this.getFunction() == null)
+			return new ProgramCompiler.Code(ProgramCompiler.Kind.OBJECT, "read(" + this.globalSlot + ")");
+		String local = "local" + this.localSlot;
+		return new ProgramCompiler.Code(ProgramCompiler.Kind.OBJECT,
+				"(" + local + " != null ? " + local + " : read(" + this.globalSlot + "))");
+	}
 }
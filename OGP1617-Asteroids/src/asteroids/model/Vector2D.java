@@ -68,10 +68,44 @@ public class Vector2D {
 	 * Returns the length of the vector.
 	 * @return
 	 * 		  The length of the vector.
-	 * 		  |result == Math.sqrt(Math.pow(this.getX(),2)+Math.pow(this.getY(), 2))
+	 * 		  |result == Vector2D.length(this.getX(),this.getY())
 	 */
 	public double length(){
-		return Math.sqrt(Math.pow(this.getX(),2)+Math.pow(this.getY(), 2));
+		return length(this.getX(),this.getY());
+	}
+	
+	/**
+	 * Returns the length of the vector with the given components.
+	 * 
+	 * @param x
+	 * 		  The x component of the vector.
+	 * @param y
+	 * 		  The y component of the vector.
+	 * @return
+	 * 		  The length of the vector.
+	 * 		  |result == Math.sqrt(x*x+y*y)
+	 */
+	public static double length(double x, double y){
+		return Math.sqrt(x*x+y*y);
+	}
+	
+	/**
+	 * Returns the distance between the points with the given coordinates.
+	 * 
+	 * @param x1
+	 * 		  The x coordinate of the first point.
+	 * @param y1
+	 * 		  The y coordinate of the first point.
+	 * @param x2
+	 * 		  The x coordinate of the second point.
+	 * @param y2
+	 * 		  The y coordinate of the second point.
+	 * @return
+	 * 		  The length of the difference of both points.
+	 * 		  |result == Vector2D.length(x1-x2,y1-y2)
+	 */
+	public static double distance(double x1, double y1, double x2, double y2){
+		return length(x1-x2,y1-y2);
 	}
 	
 	/**
@@ -97,7 +131,26 @@ public class Vector2D {
 	 * 		  result == vect1[0]*vect2[0] + vect1[1]*vect2[1]
 	 */
 	public double scalarProduct(Vector2D other){
-		return this.getX()*other.getX() + this.getY()*other.getY();
+		return scalarProduct(this.getX(),this.getY(),other.getX(),other.getY());
+	}
+	
+	/**
+	 * Calculates the scalar product of two 2-dimensional vectors given by their components.
+	 * 
+	 * @param x1
+	 * 		  The x component of the first vector.
+	 * @param y1
+	 * 		  The y component of the first vector.
+	 * @param x2
+	 * 		  The x component of the second vector.
+	 * @param y2
+	 * 		  The y component of the second vector.
+	 * @return
+	 * 		  The scalar product of both vectors.
+	 * 		  |result == x1*x2 + y1*y2
+	 */
+	public static double scalarProduct(double x1, double y1, double x2, double y2){
+		return x1*x2 + y1*y2;
 	}
 	
 	
@@ -1,4 +1,5 @@
 package asteroids.model;
+import java.util.*;
 
 public class WhileStatement extends Statement {
 	
@@ -24,41 +25,95 @@ public class WhileStatement extends Statement {
 	private final Expression<?> checkExpression;
 	private final Statement body;
 	
-	public void evaluate(double time) throws NotEnoughTimeException,ReturnedException, BreakException {
-		checkExpression.setFunction(this.getFunction());
-		body.setFunction(this.getFunction());
-		checkExpression.setProgram(this.getProgram());
-		body.setProgram(this.getProgram());
-		Object checkObject = checkExpression.getValue();
-		if(checkObject instanceof Boolean){
+	/**
+	 * The expressions in this loop whose values don't change while it runs. They are evaluated at most once
+	 * per run of this loop.
+	 */
+	private final List<HoistedExpression> hoisted = new ArrayList<HoistedExpression>();
+	
+	void addHoisted(HoistedExpression expression){
+		this.hoisted.add(expression);
+	}
+	
+	public void evaluate(ExecutionContext context, double time) throws NotEnoughTimeException,ReturnedException, BreakException {
+		for(int i=0;i<hoisted.size();i++)
+			hoisted.get(i).forget(context);
+		boolean check = checkExpression.evaluateBoolean(context);
+		if(time<0.2)
+			throw new NotEnoughTimeException(time);
+		while(check == true){
 			if(time<0.2)
 				throw new NotEnoughTimeException(time);
-			boolean check = (Boolean)checkObject;
-			while(check == true){
-				if(time<0.2)
-					throw new NotEnoughTimeException(time);
-				try{body.evaluate(time);}
-				catch(BreakException b){
-					break;
-				}
-				catch(NotEnoughTimeException n){
-					throw n;
-				}
-				catch(ReturnedException r){
-					throw r;
-				}
-				catch(UnsupportedOperationException u){
-					break;
-				}
-				if(body instanceof ActionStatement || body instanceof TurnStatement)
-					time-=0.2;
-				else if(body instanceof BlockStatement)
-					time= ((BlockStatement)body).getRemainingTime();
-				check = (Boolean)checkExpression.getValue();
+			try{body.evaluate(context, time);}
+			catch(BreakException b){
+				break;
+			}
+			catch(NotEnoughTimeException n){
+				throw n;
+			}
+			catch(ReturnedException r){
+				throw r;
 			}
+			catch(UnsupportedOperationException u){
+				break;
+			}
+			time = body.getRemainingTime(context, time);
+			if(checkExpression.isBoolean())
+				check = checkExpression.evaluateBoolean(context);
+			else
+				check = (Boolean)checkExpression.getValue(context);
 		}
-		else
-			throw new IllegalArgumentException();
 	}
 
+	@Override
+	Statement optimize(ProgramOptimizer optimizer){
+		optimizer.beginLoop();
+		Expression<?> optimized = this.checkExpression.optimize(optimizer);
+		WhileStatement result = new WhileStatement(optimized, this.body.optimize(optimizer));
+		optimizer.endLoop(result);
+		return result;
+	}
+
+	@Override
+	void compile(ProgramCompiler compiler, String time){
+		ProgramCompiler.Code code = this.checkExpression.compile(compiler);
+		String check = compiler.newName("check");
+		compiler.line("{");
+		if(!compiler.isInFunction()){
+			String loopTime = compiler.newName("time");
+			compiler.line("double " + loopTime + " = " + time + ";");
+			time = loopTime;
+		}
+		if(code.kind == ProgramCompiler.Kind.BOOLEAN)
+			compiler.line("boolean " + check + " = " + code.source + ";");
+		else
+			compiler.line("boolean " + check + " = bool(" + code.asObject() + ");");
+		if(!compiler.isInFunction())
+			compiler.line("checkTime(" + time + ");");
+		compiler.line("while(" + check + "){");
+		if(!compiler.isInFunction())
+			compiler.line("checkTime(" + time + ");");
+		compiler.line("try{");
+		if(compiler.isInFunction()){
+			compiler.enterLoop();
+			this.body.compile(compiler, time);
+			compiler.exitLoop();
+		}
+		else if(this.body instanceof BlockStatement)
+			compiler.line(time + " = " + ((BlockStatement)this.body).compileCall(compiler, time) + ";");
+		else{
+			this.body.compile(compiler, time);
+			if(this.body instanceof ActionStatement || this.body instanceof TurnStatement)
+				compiler.line(time + " -= 0.2;");
+		}
+		compiler.line("}");
+		compiler.line("catch(BreakException " + compiler.newName("exc") + "){ break; }");
+		compiler.line("catch(UnsupportedOperationException " + compiler.newName("exc") + "){ break; }");
+		if(code.kind == ProgramCompiler.Kind.BOOLEAN)
+			compiler.line(check + " = " + code.source + ";");
+		else
+			compiler.line(check + " = (Boolean)(Object)" + code.asObject() + ";");
+		compiler.line("}");
+		compiler.line("}");
+	}
 }
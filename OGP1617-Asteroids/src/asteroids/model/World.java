@@ -2,7 +2,8 @@ package asteroids.model;
 import be.kuleuven.cs.som.annotate.*;
 import be.kuleuven.cs.som.taglet.*;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
 
 import asteroids.part2.CollisionListener;
 /**
@@ -82,11 +83,21 @@ public class World {
 			throw new IllegalArgumentException();
 		else{
 			this.terminated = true;
-			for(Object object: this.getWorldEntities()){
-				if(object instanceof Circle)
-					((Circle)object).setWorld(null);
+			for(int i=0;i<this.nbCircles;i++){
+				this.circles[i].detachPhysics();
+				this.circles[i].setWorld(null);
 			}
-			this.circles.clear();
+			this.circles = new Circle[16];
+			this.circlesById = new Circle[16];
+			this.nbCircles = 0;
+			this.nextId = 0;
+			this.nbFreeIds = 0;
+			this.ships.discardAll();
+			this.bullets.discardAll();
+			this.asteroids.discardAll();
+			this.planetoids.discardAll();
+			this.circleTree.invalidate();
+			this.invalidatePositionIndex();
 			}
 	}
 	
@@ -150,7 +161,99 @@ public class World {
 		return this.width;
 	}
 	
-	private HashMap<Vector2D,Circle> circles = new HashMap<>();
+	/**
+	 * The circles of this world, densely packed in the order of this world.
+	 * Every circle knows its index in this array.
+	 */
+	private Circle[] circles = new Circle[16];
+	
+	/**
+	 * The position, velocity, radius and mass of the circles of this world.
+	 * The slot of every circle is its index in the circles of this world.
+	 */
+	private final PhysicsBuffer physics = new PhysicsBuffer(16);
+	
+	/**
+	 * The circles of this world by their identifier. Identifiers are stable as long as a circle is in this world
+	 * and the identifiers of removed circles are reused.
+	 */
+	private Circle[] circlesById = new Circle[16];
+	private int nbCircles = 0;
+	private int nextId = 0;
+	private int[] freeIds = new int[16];
+	private int nbFreeIds = 0;
+	
+	/**
+	 * A live, read-only view on the circles of this world.
+	 */
+	private final List<Circle> circleView = new AbstractList<Circle>(){
+		@Override
+		public Circle get(int index){
+			if(index<0 || index>=nbCircles)
+				throw new IndexOutOfBoundsException();
+			return circles[index];
+		}
+		
+		@Override
+		public int size(){
+			return nbCircles;
+		}
+	};
+	
+	/**
+	 * The circles of this world by kind, updated whenever a circle is added or removed.
+	 */
+	private final CircleSet<Ship> ships = new CircleSet<Ship>(Ship.class);
+	private final CircleSet<Bullet> bullets = new CircleSet<Bullet>(Bullet.class);
+	private final CircleSet<Asteroid> asteroids = new CircleSet<Asteroid>(Asteroid.class);
+	private final CircleSet<Planetoid> planetoids = new CircleSet<Planetoid>(Planetoid.class);
+	
+	/**
+	 * Returns the set of circles of the same kind as the given circle.
+	 * 
+	 * @param circle
+	 * 		  The circle of which the kind is looked up.
+	 * @return The set of ships, bullets, asteroids or planetoids of this world,
+	 * 		   or null if the circle is of none of these kinds.
+	 * 		   @see implementation
+	 */
+	private CircleSet<?> getKindSet(Circle circle){
+		if(this.ships.isOfKind(circle))
+			return this.ships;
+		if(this.bullets.isOfKind(circle))
+			return this.bullets;
+		if(this.asteroids.isOfKind(circle))
+			return this.asteroids;
+		if(this.planetoids.isOfKind(circle))
+			return this.planetoids;
+		return null;
+	}
+	
+	/**
+	 * An index of the circles by their position, built on demand and discarded whenever a position changes.
+	 */
+	private HashMap<Vector2D,Circle> positionIndex = null;
+	
+	/**
+	 * The number of times circles were added to or removed from this world, moved or collided.
+	 */
+	private long version = 0;
+	
+	/**
+	 * Returns the version of this world. The version changes whenever a circle is added to or removed from this world,
+	 * the position or radius of one of its circles changes or a collision is resolved, so the nearest circles to a circle
+	 * stay the same as long as the version of its world doesn't change.
+	 */
+	@Basic
+	public long getVersion(){
+		return this.version;
+	}
+	
+	/**
+	 * A tree of all circles of this world for queries for the nearest circles, brought up to date on demand after a circle
+	 * was added, removed or moved. The sets of the kinds of circles keep a tree of their own.
+	 */
+	private final CircleTree circleTree = new CircleTree();
 	
 	/**
 	 * Checks whether a circle lies within the worlds bounds.
@@ -171,41 +274,41 @@ public class World {
 	 * Returns a set of the ships of the world.
 	 * 
 	 * @return
-	 * 		  A set of the ships of the world.
+	 * 		  A live, read-only set of the ships of the world.
 	 */
 	@Basic
 	public Set<Ship> getWorldShips(){
-		return this.circles.values().stream().filter(i-> i instanceof Ship).map(i->(Ship)i).collect(Collectors.toSet());
+		return this.ships;
 	}
 	
 	/**
 	 * Returns a set of the bullets of the world.
 	 * @return
-	 * 		  A set of the bullets of the world.
+	 * 		  A live, read-only set of the bullets of the world.
 	 */
 	@Basic
 	public Set<Bullet> getWorldBullets(){
-		return this.circles.values().stream().filter(i-> i instanceof Bullet).map(i->(Bullet)i).collect(Collectors.toSet());
+		return this.bullets;
 	}
 	
 	/**
 	 * Returns a set of all the asteroids of the world
 	 * @return
-	 * 		  A set of asteroids of the world.
+	 * 		  A live, read-only set of asteroids of the world.
 	 */
 	@Basic
 	public Set<Asteroid> getWorldAsteroids(){
-		return this.circles.values().stream().filter(i-> i instanceof Asteroid).map(i->(Asteroid)i).collect(Collectors.toSet());
+		return this.asteroids;
 	}
 	
 	/**
 	 * Returns a set of all the planetoids of the world
 	 * @return
-	 * 		  A set of planetoids of the world.
+	 * 		  A live, read-only set of planetoids of the world.
 	 */
 	@Basic
 	public Set<Planetoid> getWorldPlanetoids(){
-		return this.circles.values().stream().filter(i-> i instanceof Planetoid).map(i->(Planetoid)i).collect(Collectors.toSet());
+		return this.planetoids;
 	}
 	
 	/**
@@ -216,7 +319,7 @@ public class World {
 	@Basic
 	public Set<Object> getWorldEntities(){
 		Set<Object> entitySet = new HashSet<Object>();
-		entitySet.addAll(circles.values());
+		entitySet.addAll(this.getWorldCircles());
 		return entitySet;
 	}
 	
@@ -256,7 +359,116 @@ public class World {
 		if(this.getWorldCircles().stream().anyMatch(i->i.overlaps(newCircle)))
 			throw new IllegalArgumentException();
 		newCircle.setWorld(this);
-		circles.put(newCircle.getPosVector(), newCircle);
+		this.store(newCircle);
+	}
+	
+	/**
+	 * Stores a circle at the end of the circles of this world and gives it an identifier.
+	 * 
+	 * @param circle
+	 * 		  The circle to store.
+	 * @post The circle is the last circle of this world.
+	 * 		 |new.getWorldCircles().get(this.getNbCircles()) == circle
+	 * @post The circle can be found by its identifier.
+	 * 		 |new.getCircle(circle.getId()) == circle
+	 */
+	private void store(Circle circle){
+		int id;
+		if(this.nbFreeIds>0)
+			id = this.freeIds[--this.nbFreeIds];
+		else
+			id = this.nextId++;
+		if(id >= this.circlesById.length)
+			this.circlesById = Arrays.copyOf(this.circlesById, 2*this.circlesById.length);
+		if(this.nbCircles == this.circles.length)
+			this.circles = Arrays.copyOf(this.circles, 2*this.circles.length);
+		this.physics.ensureCapacity(this.nbCircles+1);
+		this.circlesById[id] = circle;
+		this.circles[this.nbCircles] = circle;
+		circle.setId(id);
+		circle.setIndex(this.nbCircles);
+		circle.attachPhysics(this.physics, this.nbCircles);
+		this.nbCircles++;
+		CircleSet<?> kindSet = this.getKindSet(circle);
+		if(kindSet != null)
+			kindSet.store(circle);
+		this.positionIndex = null;
+		this.circleTree.invalidate();
+		this.version++;
+		this.motionChanged(circle);
+	}
+	
+	/**
+	 * Removes a circle from the circles of this world. The last circle of this world takes its place
+	 * and its identifier is released for reuse. The circle keeps its physical state in a buffer of its own.
+	 * 
+	 * @param circle
+	 * 		  The circle to discard.
+	 */
+	private void discard(Circle circle){
+		int index = circle.getIndex();
+		circle.detachPhysics();
+		Circle last = this.circles[this.nbCircles-1];
+		this.circles[index] = last;
+		last.setIndex(index);
+		if(last != circle){
+			this.physics.copy(this.nbCircles-1, this.physics, index);
+			last.setPhysicsSlot(index);
+		}
+		this.circles[--this.nbCircles] = null;
+		this.circlesById[circle.getId()] = null;
+		if(this.nbFreeIds == this.freeIds.length)
+			this.freeIds = Arrays.copyOf(this.freeIds, 2*this.freeIds.length);
+		this.freeIds[this.nbFreeIds++] = circle.getId();
+		circle.setId(-1);
+		circle.setIndex(-1);
+		CircleSet<?> kindSet = this.getKindSet(circle);
+		if(kindSet != null)
+			kindSet.discard(circle);
+		this.positionIndex = null;
+		this.circleTree.invalidate();
+		this.version++;
+		this.motionChanged(circle);
+	}
+	
+	/**
+	 * Checks whether this world contains the given circle.
+	 * 
+	 * @param circle
+	 * 		  The circle to check.
+	 * @return True if the circle is stored in this world.
+	 * 		  |result == this.getWorldCircles().contains(circle)
+	 */
+	public boolean contains(Circle circle){
+		if(circle == null || circle.getWorld() != this)
+			return false;
+		int index = circle.getIndex();
+		return index >= 0 && index<this.nbCircles && this.circles[index] == circle;
+	}
+	
+	/**
+	 * Returns the circle of this world with the given identifier.
+	 * 
+	 * @param id
+	 * 		  The identifier of the circle.
+	 * @return The circle with the given identifier, or null if there is no such circle.
+	 * 		  @see implementation
+	 */
+	Circle getCircle(int id){
+		if(id<0 || id>=this.circlesById.length)
+			return null;
+		return this.circlesById[id];
+	}
+	
+	/**
+	 * Returns the number of circles in this world.
+	 * 
+	 * @return The number of circles in this world.
+	 * 		  |result == this.getWorldCircles().size()
+	 */
+	@Basic
+	public int getNbCircles(){
+		return this.nbCircles;
 	}
 
 	/**
@@ -280,10 +492,9 @@ public class World {
 	public void remove(Circle circle) throws NullPointerException,IllegalArgumentException{
 		if(circle == null)
 			throw new NullPointerException();
-		if(!this.circles.containsValue(circle))
+		if(!this.contains(circle))
 			throw new IllegalArgumentException();
-		Vector2D posVector = circle.getPosVector();
-		circles.remove(posVector);
+		this.discard(circle);
 		circle.setWorld(null);
 		}
 	
@@ -295,7 +506,7 @@ public class World {
 	 * @param y
 	 * 		  The y coordinate of the entity.
 	 * @return
-	 * 		  The entity at position (x,y).
+	 * 		  The entity at position (x,y). If several entities are centered at (x,y), the first one of this world.
 	 * 		  Returns null if the position is not within the world bounds or if there is no entity at (x,y).
 	 */
 	public Object getEntityAtPos(double x, double y){
@@ -303,8 +514,117 @@ public class World {
 			return null;
 		if((y<0) || (y>this.getHeight()))
 			return null;
-		Vector2D posVector = new Vector2D(x,y);
-		return this.circles.get(posVector);
+		if(this.positionIndex == null){
+			this.positionIndex = new HashMap<Vector2D,Circle>();
+			for(int i=this.nbCircles-1;i>=0;i--)
+				this.positionIndex.put(this.circles[i].getPosVector(), this.circles[i]);
+		}
+		return this.positionIndex.get(new Vector2D(x,y));
+	}
+	
+	/**
+	 * Discards the indices of the circles by their position, because the position or radius of a circle has changed.
+	 * 
+	 * @post The index is rebuilt by the next call of getEntityAtPos, and the trees of nearest circles
+	 * 		 by the next query for the nearest circles. The version of this world changes.
+	 * 		 @see implementation
+	 */
+	void invalidatePositionIndex(){
+		this.positionIndex = null;
+		this.version++;
+		this.circleTree.invalidatePositions();
+		this.ships.invalidateTree();
+		this.bullets.invalidateTree();
+		this.asteroids.invalidateTree();
+		this.planetoids.invalidateTree();
+	}
+	
+	/**
+	 * Returns the circles of the given kind nearest to the given circle, among those that pass the given filter.
+	 * The distance between two circles is the distance between their surfaces.
+	 * 
+	 * @param circle
+	 * 		  The circle from which the distances are measured.
+	 * @param kind
+	 * 		  The kind of the circles: Ship, Bullet, Asteroid, Planetoid, MinorPlanet or Circle.
+	 * @param count
+	 * 		  The maximal number of circles to return.
+	 * @param filter
+	 * 		  The filter the circles have to pass, or null if every circle of the kind passes.
+	 * @return At most count circles of the given kind in this world that pass the filter, nearest first. No other circle
+	 * 		   of the kind that passes the filter is nearer than the last one. Circles at the same distance are returned in the
+	 * 		   order of the set of their kind, asteroids before planetoids and all circles in the order of this world.
+	 * 		   @see implementation
+	 * @throws NullPointerException
+	 * 		   The circle or the kind is not effective.
+	 * 		   |circle == null || kind == null
+	 * @throws IllegalArgumentException
+	 * 		   The count is negative or the kind is not one of the supported kinds.
+	 * 		   |count<0
+	 */
+	public <T extends Circle> List<T> getNearest(Circle circle, Class<T> kind, int count, Predicate<? super T> filter)
+			throws NullPointerException,IllegalArgumentException{
+		if(count<0)
+			throw new IllegalArgumentException();
+		List<T> nearest = new ArrayList<T>();
+		if(count == 0)
+			return nearest;
+		CircleTree.Query query = this.search(circle, kind, count, filter);
+		for(int i=0;i<query.size();i++)
+			nearest.add(kind.cast(query.get(i)));
+		return nearest;
+	}
+	
+	/**
+	 * Returns the circle of the given kind nearest to the given circle, among those that pass the given filter.
+	 * 
+	 * @return The first circle of the nearest circles, or null if no circle of the kind passes the filter.
+	 * 		   |result == (getNearest(circle, kind, 1, filter).isEmpty() ? null : getNearest(circle, kind, 1, filter).get(0))
+	 */
+	<T extends Circle> T getNearest(Circle circle, Class<T> kind, Predicate<? super T> filter)
+			throws NullPointerException,IllegalArgumentException{
+		CircleTree.Query query = this.search(circle, kind, 1, filter);
+		return query.size() == 0 ? null : kind.cast(query.get(0));
+	}
+	
+	/**
+	 * Brings the trees of nearest circles up to date, so that queries for the nearest circles only read this world
+	 * and several threads can ask them at the same time as long as this world doesn't change.
+	 */
+	void prepareQueries(){
+		this.ships.prepareTree();
+		this.bullets.prepareTree();
+		this.asteroids.prepareTree();
+		this.planetoids.prepareTree();
+		if(!this.circleTree.isValid())
+			this.circleTree.update(this.circles, this.nbCircles, true);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private CircleTree.Query search(Circle circle, Class<?> kind, int count, Predicate<?> filter){
+		if(circle == null || kind == null)
+			throw new NullPointerException();
+		CircleTree.Query query = new CircleTree.Query(circle, count, (Predicate<? super Circle>)filter);
+		if(kind == Ship.class)
+			this.ships.search(query, 0);
+		else if(kind == Bullet.class)
+			this.bullets.search(query, 0);
+		else if(kind == Asteroid.class)
+			this.asteroids.search(query, 0);
+		else if(kind == Planetoid.class)
+			this.planetoids.search(query, 0);
+		else if(kind == MinorPlanet.class){
+			this.asteroids.search(query, 0);
+			this.planetoids.search(query, this.asteroids.size());
+		}
+		else if(kind == Circle.class){
+			if(!this.circleTree.isValid())
+				this.circleTree.update(this.circles, this.nbCircles, true);
+			this.circleTree.search(query, 0);
+		}
+		else
+			throw new IllegalArgumentException();
+		return query;
 	}
 	
 	/**
@@ -340,30 +660,38 @@ public class World {
 	 * @throws IllegalArgumentException
 	 * 		   The amount of time the world evolves is a negative number.
 	 * 		   |dt<0
+	 * @effect The collisions during dt are resolved in chronological order by a collision scheduler.
+	 * 		   |new CollisionScheduler(this, dt).run(collisionListener)
 	 */
 	@Raw
 	public void evolve(double dt, CollisionListener collisionListener) throws IllegalArgumentException{
 		if (dt<0)
 			throw new IllegalArgumentException();
-		Object[] collisionArray = this.getFirstCollisionArray();
-		Object collisionObject1 = collisionArray[1];
-		Object collisionObject2 = collisionArray[2];
-		double shortest = (double)collisionArray[0];
-		if(shortest<dt && collisionObject1!= null && collisionObject2 != null){
-			if(shortest>0){
-				this.moveForward(shortest);
-				this.resolveCollision(collisionObject1, collisionObject2, collisionListener);
-				this.evolve(dt-shortest,collisionListener);
-			}
-			else{
-				this.resolveCollision(collisionObject1, collisionObject2, collisionListener);
-				this.evolve(dt, collisionListener);
-			}
+		this.scheduler = new CollisionScheduler(this, dt);
+		try{
+			this.scheduler.run(collisionListener);
 		}
-		else{
-			this.moveForward(dt);
+		finally{
+			this.scheduler = null;
 		}
 	}
+
+	/**
+	 * The scheduler that evolves this world, or null if this world isn't evolving.
+	 */
+	private CollisionScheduler scheduler = null;
+
+	/**
+	 * Registers that the given circle was added to or removed from this world, or that its motion changed,
+	 * so that the scheduler that evolves this world predicts its collisions again.
+	 * 
+	 * @param circle
+	 * 		  The circle that changed.
+	 */
+	void motionChanged(Circle circle){
+		if(this.scheduler != null)
+			this.scheduler.motionChanged(circle);
+	}
 		
 	/**
 	 * Moves all of the entities of the world forward with a given amount of time.
@@ -371,28 +699,27 @@ public class World {
 	 * @param time
 	 * 		  The amount of time. 
 	 * @throws IllegalArgumentException
-	 * 		   The amount of time is negative.
+	 * 		   The amount of time is negative or NaN.
+	 * 		   |time<0 || Double.isNaN(time)
 	 * @effect circle.move(time) for Circle circle in this.getWorldCircles()
-	 * 		   The circle moves forward during the time.
-	 * @effect The ships accelerate during the time.
-	 * 		   ship.accelerate(time) for Ship ship in this.getWorldShips()
+	 * 		   The circle moves forward during the time. All circles are moved at once in the physics buffer of this world.
+	 * @effect The ships with an active thruster accelerate during the time.
+	 * 		   |ship.accelerate(time) for Ship ship in this.getWorldShips() if ship.getThrusterStatus()
 	 * @effect The distance the planetoids have traveled is updated.
 	 * 		   |planetoid.updateDistanceTraveled(time) for Planetoid planetoid in this.getWorldPlanetoids()
 	 */
 	@Raw
 	public void moveForward(double time) throws IllegalArgumentException{
-		if(time<0)
+		if(time<0 || Double.isNaN(time))
 			throw new IllegalArgumentException();
-		for(Circle circle:this.getWorldCircles()){
-			circle.move(time);
-			if(circle instanceof Ship){
-				if(((Ship)circle).getThrusterStatus())
-					((Ship)circle).accelerate(time);
-			}
-			else if(circle instanceof Planetoid)
-				((Planetoid)circle).updateDistanceTraveled(time);
+		this.physics.move(this.nbCircles, time);
+		for(Ship ship:this.ships){
+			if(ship.getThrusterStatus())
+				ship.accelerate(time);
 		}
-		this.updateCirclesLibrary();
+		for(Planetoid planetoid:this.planetoids)
+			planetoid.updateDistanceTraveled(time);
+		this.invalidatePositionIndex();
 	}
 	
 	/**
@@ -414,7 +741,8 @@ public class World {
 	 * 		  |then collisionListener.objectCollision(collisionObject1,collisionObject2,collisionPos[0],collisionPos[1])
 	 */
 	@Raw
-	private void resolveCollision(Object collisionObject1, Object collisionObject2, CollisionListener collisionListener){
+	void resolveCollision(Object collisionObject1, Object collisionObject2, CollisionListener collisionListener){
+		this.version++;
 		if(collisionObject2 instanceof World){
 			double[] collisionPosition = ((Circle)collisionObject1).getCollisionPosition((World)collisionObject2);
 			if(collisionListener != null)
@@ -441,60 +769,290 @@ public class World {
 	}
 		
 	
+	private BroadPhase broadPhase = new UniformGridBroadPhase();
+	
+	/**
+	 * Returns the broad phase used to search the first collision.
+	 * @return
+	 * 		  The broad phase of this world.
+	 * 		  |result == this.broadPhase
+	 */
+	@Basic
+	public BroadPhase getBroadPhase(){
+		return this.broadPhase;
+	}
+	
+	/**
+	 * Sets the broad phase used to search the first collision to a new broad phase.
+	 * 
+	 * @param newBroadPhase
+	 * 		  The new broad phase of this world.
+	 * @throws NullPointerException
+	 * 		   The new broad phase is null.
+	 * 		   |newBroadPhase == null
+	 * @post The broad phase of this world is the new broad phase.
+	 * 		 |new.getBroadPhase() == newBroadPhase
+	 */
+	@Basic
+	public void setBroadPhase(BroadPhase newBroadPhase) throws NullPointerException{
+		if(newBroadPhase == null)
+			throw new NullPointerException();
+		this.broadPhase = newBroadPhase;
+	}
+	
+	private ForkJoinPool collisionPool = null;
+	private int parallelThreshold = 512;
+	
+	/**
+	 * Returns the pool on which the candidate pairs of the first collision search are tested.
+	 * @return
+	 * 		  The pool of this world, or null if the first collision is searched on the calling thread.
+	 * 		  |result == this.collisionPool
+	 */
+	@Basic
+	public ForkJoinPool getCollisionPool(){
+		return this.collisionPool;
+	}
+	
+	/**
+	 * Sets the pool on which the candidate pairs of the first collision search are tested.
+	 * The result of the search doesn't depend on the pool or its parallelism.
+	 * 
+	 * @param newPool
+	 * 		  The new pool of this world, or null to search on the calling thread.
+	 * @post The pool of this world is the new pool.
+	 * 		 |new.getCollisionPool() == newPool
+	 */
+	@Basic
+	public void setCollisionPool(ForkJoinPool newPool){
+		this.collisionPool = newPool;
+	}
+	
+	/**
+	 * Returns the number of circles from which the first collision is searched in parallel.
+	 * @return
+	 * 		  The parallel threshold of this world.
+	 * 		  |result == this.parallelThreshold
+	 */
+	@Basic
+	public int getParallelThreshold(){
+		return this.parallelThreshold;
+	}
+	
+	/**
+	 * Sets the number of circles from which the first collision is searched in parallel.
+	 * 
+	 * @param newThreshold
+	 * 		  The new parallel threshold of this world.
+	 * @throws IllegalArgumentException
+	 * 		   The new threshold is negative.
+	 * 		   |newThreshold<0
+	 * @post The parallel threshold of this world is the new threshold.
+	 * 		 |new.getParallelThreshold() == newThreshold
+	 */
+	@Basic
+	public void setParallelThreshold(int newThreshold) throws IllegalArgumentException{
+		if(newThreshold<0)
+			throw new IllegalArgumentException();
+		this.parallelThreshold = newThreshold;
+	}
+	
 	/**
 	 * Returns an array with the time to the first collision and the two colliding objects.
 	 * 
 	 * @return An array with the time to the first collision and the two colliding objects.
+	 * 		  |result == this.getFirstCollisionArray(Double.POSITIVE_INFINITY)
 	 */
 	@Raw
 	public Object[] getFirstCollisionArray(){
-		double shortest = Double.POSITIVE_INFINITY;
+		return this.getFirstCollisionArray(Double.POSITIVE_INFINITY);
+	}
+	
+	/**
+	 * Returns an array with the time to the first collision within a given horizon and the two colliding objects.
+	 * 
+	 * @param horizon
+	 * 		  The amount of time during which collisions are searched.
+	 * @return An array with the time to the first collision and the two colliding objects.
+	 * 		  If the first collision happens within the horizon, the result is the same for every broad phase.
+	 * 		  Of several collisions at the same time, the one of the circle that comes first in this world is returned,
+	 * 		  where a collision with another circle precedes a collision with this world.
+	 * 		  If this world has a collision pool and at least as many circles as its parallel threshold,
+	 * 		  the candidate pairs are tested on that pool. The result is the same.
+	 * 		  No collision between two circles can precede the first collision with this world, so the broad phase
+	 * 		  only searches the pairs that collide before it, also if the horizon is not finite.
+	 */
+	@Raw
+	public Object[] getFirstCollisionArray(double horizon){
+		List<Circle> circles = this.getCircleList();
+		double[] boundaryTimes = new double[circles.size()];
+		double firstBoundaryTime = Double.POSITIVE_INFINITY;
+		for(int i=0;i<circles.size();i++){
+			boundaryTimes[i] = circles.get(i).getTimeToCollision(this);
+			firstBoundaryTime = Math.min(firstBoundaryTime, boundaryTimes[i]);
+		}
+		double searched = Math.min(horizon, firstBoundaryTime);
+		FirstCollision firstCollision;
+		if(this.getCollisionPool() != null && circles.size() >= this.getParallelThreshold()){
+			CandidatePairs pairs = new CandidatePairs();
+			this.getBroadPhase().findCandidatePairs(circles, searched, pairs);
+			firstCollision = this.getCollisionPool().invoke(new FirstCollisionTask(this.physics, pairs, 0, pairs.size));
+		}
+		else{
+			firstCollision = new FirstCollision(this.physics);
+			this.getBroadPhase().findCandidatePairs(circles, searched, firstCollision);
+		}
+		for(int i=0;i<circles.size();i++){
+			firstCollision.offer(boundaryTimes[i], i, circles.size());
+		}
 		Object collisionObject1 = null;
 		Object collisionObject2 = null;
-		Set<Circle> uncheckedCircles = new HashSet<>(this.getWorldCircles());
-		for(Circle circle:this.getWorldCircles()){
-			uncheckedCircles.remove(circle);
-			for(Circle secondCircle:uncheckedCircles){
-				double time = circle.getTimeToCollision(secondCircle);
-				if(time<shortest){
-					shortest = time;
-					collisionObject1 = circle;
-					collisionObject2 = secondCircle;
-				}
-			}
-			double worldCollisionTime = circle.getTimeToCollision(this);
-			if(worldCollisionTime<shortest){
-				shortest = worldCollisionTime;
-				collisionObject1 = circle;
+		if(firstCollision.first >= 0){
+			collisionObject1 = circles.get(firstCollision.first);
+			if(firstCollision.second == circles.size())
 				collisionObject2 = this;
-			}
+			else
+				collisionObject2 = circles.get(firstCollision.second);
 		}
-		Object[] returnArray = {shortest,collisionObject1,collisionObject2};
+		Object[] returnArray = {firstCollision.shortest,collisionObject1,collisionObject2};
 		return returnArray;
 	}
 	
 	/**
-	 * Returns a collection with all of the circles in this world.
+	 * A class keeping track of the first collision among the candidate pairs of a broad phase.
+	 * The index of a circle is its slot in the physics buffer of the world. The index of the world is the number of circles.
+	 */
+	private static class FirstCollision implements BroadPhase.PairHandler {
+		
+		private FirstCollision(PhysicsBuffer physics){
+			this.physics = physics;
+		}
+		
+		private final PhysicsBuffer physics;
+		private double shortest = Double.POSITIVE_INFINITY;
+		private int first = -1;
+		private int second = -1;
+		
+		@Override
+		public void handle(int first, int second){
+			this.offer(this.physics.getTimeToCollision(first, second), first, second);
+		}
+		
+		/**
+		 * Keeps the collision if it happens before the current first collision,
+		 * or at the same time with lower indices.
+		 * Offering the same collisions in any order therefore gives the same first collision.
+		 */
+		private void offer(double time, int first, int second){
+			if(time<this.shortest || (time == this.shortest && this.first >= 0
+					&& (first<this.first || (first == this.first && second<this.second)))){
+				this.shortest = time;
+				this.first = first;
+				this.second = second;
+			}
+		}
+		
+		/**
+		 * Keeps the first collision of another search if it precedes the current first collision.
+		 */
+		private void merge(FirstCollision other){
+			if(other.first >= 0)
+				this.offer(other.shortest, other.first, other.second);
+		}
+	}
+	
+	/**
+	 * A class collecting the candidate pairs of a broad phase, so that they can be tested in parallel.
+	 */
+	private static class CandidatePairs implements BroadPhase.PairHandler {
+		
+		private int[] firsts = new int[64];
+		private int[] seconds = new int[64];
+		private int size = 0;
+		
+		@Override
+		public void handle(int first, int second){
+			if(this.size == this.firsts.length){
+				this.firsts = Arrays.copyOf(this.firsts, 2*this.size);
+				this.seconds = Arrays.copyOf(this.seconds, 2*this.size);
+			}
+			this.firsts[this.size] = first;
+			this.seconds[this.size] = second;
+			this.size++;
+		}
+	}
+	
+	/**
+	 * A class of tasks searching the first collision among a range of candidate pairs.
+	 * A range larger than the leaf size is split in two halves of which the results are merged.
+	 */
+	private static class FirstCollisionTask extends RecursiveTask<FirstCollision> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * The number of pairs below which a range is tested on a single thread.
+		 */
+		private static final int LEAF_SIZE = 2048;
+		
+		private FirstCollisionTask(PhysicsBuffer physics, CandidatePairs pairs, int from, int to){
+			this.physics = physics;
+			this.pairs = pairs;
+			this.from = from;
+			this.to = to;
+		}
+		
+		private final PhysicsBuffer physics;
+		private final CandidatePairs pairs;
+		private final int from;
+		private final int to;
+		
+		@Override
+		protected FirstCollision compute(){
+			if(this.to-this.from <= LEAF_SIZE){
+				FirstCollision firstCollision = new FirstCollision(this.physics);
+				for(int i=this.from;i<this.to;i++)
+					firstCollision.handle(this.pairs.firsts[i], this.pairs.seconds[i]);
+				return firstCollision;
+			}
+			int middle = (this.from+this.to) >>> 1;
+			FirstCollisionTask left = new FirstCollisionTask(this.physics, this.pairs, this.from, middle);
+			FirstCollisionTask right = new FirstCollisionTask(this.physics, this.pairs, middle, this.to);
+			left.fork();
+			FirstCollision firstCollision = right.compute();
+			firstCollision.merge(left.join());
+			return firstCollision;
+		}
+	}
+	
+	/**
+	 * Returns a live, read-only list with all of the circles in this world, in the order of this world.
 	 * @return
-	 * 		  A collection with all circle in this world.
-	 * 		  |result == this.circles.values()
+	 * 		  A list with all circles in this world.
+	 * 		  |result.get(circle.getIndex()) == circle for Circle circle in this world
 	 */
 	@Basic
-	private Collection<Circle> getWorldCircles(){
-		return this.circles.values();
+	List<Circle> getWorldCircles(){
+		return this.circleView;
 	}
 	
 	/**
-	 * Updates the circles map
-	 * @post The key of each circle is its position.
-	 * 		 |this.circles.get(circle.getPosVector) == circle for Circle circle in this.getWorldCircles()
+	 * Returns a new list with all of the circles in this world, in the order of this world.
+	 * @return
+	 * 		  A list with all circles in this world.
+	 * 		  |result.equals(new ArrayList<Circle>(this.getWorldCircles()))
+	 */
+	List<Circle> getCircleList(){
+		return new ArrayList<Circle>(this.getWorldCircles());
+	}
+	
+	/**
+	 * Updates the index of the circles by their position after positions were changed from outside this world.
+	 * @effect The index of the circles by their position is discarded.
+	 * 		 |this.invalidatePositionIndex()
 	 */
 	public void updateCirclesLibrary(){
-		HashMap<Vector2D,Circle> newCircles = new HashMap<Vector2D,Circle>();
-		for(Circle circle:this.getWorldCircles()){
-			newCircles.put(circle.getPosVector(), circle);
-		}
-		this.circles= newCircles;
+		this.invalidatePositionIndex();
 	}
 	
 }
@@ -0,0 +1,36 @@
+package asteroids.model;
+import java.util.function.Function;
+
+/**
+ * An enumeration of the queries of a ship for the nearest entity of a kind in its world,
+ * as evaluated by the entity expressions of programs.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public enum WorldQuery {
+	SHIP(Ship::getNearestShip),
+	ASTEROID(Ship::getNearestAsteroid),
+	PLANETOID(Ship::getNearestPlanetoid),
+	PLANET(Ship::getNearestPlanet),
+	BULLET(Ship::getNearestBullet),
+	ANY(Ship::getNearestCircle);
+
+	private WorldQuery(Function<Ship,? extends Circle> query){
+		this.query = query;
+	}
+
+	private final Function<Ship,? extends Circle> query;
+
+	/**
+	 * Returns the nearest entity of the kind of this query to the given ship.
+	 *
+	 * @param ship
+	 * 		  The ship that asks for the entity.
+	 * @throws NullPointerException
+	 * 		   The ship is not effective or isn't in a world.
+	 */
+	Circle evaluate(Ship ship) throws NullPointerException{
+		return this.query.apply(ship);
+	}
+}
@@ -0,0 +1,142 @@
+package asteroids.simulation;
+import java.io.*;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+import asteroids.model.ProgramScheduler;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of batch runners that simulate many independent worlds of a scenario on a pool of threads.
+ * Every run builds its own world with its run number as seed, so the result of a run
+ * doesn't depend on the number of threads.
+ *
+ * Usage from the command line, writing the metrics to the standard output:
+ * 		java asteroids.simulation.BatchRunner <scenario file> <dt> <steps> <runs> [<threads> [<interval>]]
+ * Programs of ships are parsed once per source. With -Dasteroids.programCache=<directory>, later batches
+ * replay the programs from that directory instead of parsing them again. With -Dasteroids.concurrentPrograms=true,
+ * the programs of the ships of every world are executed at once on the common pool by a program scheduler.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class BatchRunner {
+
+	/**
+	 * Creates a new batch runner with the given number of threads.
+	 *
+	 * @param threads
+	 * 		  The number of worlds that are simulated at the same time.
+	 * @throws IllegalArgumentException
+	 * 		   The number of threads is not positive.
+	 * 		   |threads<1
+	 */
+	public BatchRunner(int threads) throws IllegalArgumentException{
+		this(threads, null);
+	}
+
+	/**
+	 * Creates a new batch runner with the given number of threads, that executes the programs of the ships
+	 * of every world with the given scheduler.
+	 *
+	 * @param threads
+	 * 		  The number of worlds that are simulated at the same time.
+	 * @param scheduler
+	 * 		  The scheduler that executes the programs of the ships of a world, or null to execute them one after the other.
+	 * @throws IllegalArgumentException
+	 * 		   The number of threads is not positive.
+	 * 		   |threads<1
+	 */
+	public BatchRunner(int threads, ProgramScheduler scheduler) throws IllegalArgumentException{
+		if(threads<1)
+			throw new IllegalArgumentException();
+		this.threads = threads;
+		this.scheduler = scheduler;
+	}
+
+	private final int threads;
+	private final ProgramScheduler scheduler;
+
+	/**
+	 * Returns the number of worlds that are simulated at the same time.
+	 */
+	@Basic
+	@Immutable
+	public int getThreads(){
+		return this.threads;
+	}
+
+	/**
+	 * Returns the scheduler that executes the programs of the ships of a world, or null if they are executed one after the other.
+	 */
+	@Basic
+	@Immutable
+	public ProgramScheduler getScheduler(){
+		return this.scheduler;
+	}
+
+	/**
+	 * Simulates the given number of runs of a scenario.
+	 *
+	 * @param scenario
+	 * 		  The scenario of the worlds.
+	 * @param dt
+	 * 		  The fixed time step.
+	 * @param steps
+	 * 		  The number of steps of every run.
+	 * @param runs
+	 * 		  The number of runs, numbered from 0.
+	 * @param listener
+	 * 		  The listener that receives the metrics of every step of every run, or null.
+	 * @return The metrics after the last step of every run, in the order of the runs.
+	 * @throws IllegalArgumentException
+	 * 		   The time step, number of steps or number of runs is not valid.
+	 * @throws ExecutionException
+	 * 		   One of the runs failed.
+	 * @throws InterruptedException
+	 * 		   The calling thread was interrupted while waiting for the runs.
+	 */
+	public List<StepMetrics> run(Scenario scenario, double dt, int steps, int runs, SimulationListener listener)
+			throws IllegalArgumentException, ExecutionException, InterruptedException{
+		if(runs<0)
+			throw new IllegalArgumentException();
+		List<SimulationRunner> simulations = new ArrayList<SimulationRunner>();
+		for(int run=0;run<runs;run++)
+			simulations.add(new SimulationRunner(scenario, run, dt, steps, listener, this.getScheduler()));
+		ExecutorService executor = Executors.newFixedThreadPool(this.getThreads());
+		try{
+			List<StepMetrics> results = new ArrayList<StepMetrics>();
+			for(Future<StepMetrics> future:executor.invokeAll(simulations))
+				results.add(future.get());
+			return results;
+		}
+		finally{
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Runs a batch from the command line.
+	 *
+	 * @param args
+	 * 		  The scenario file, the time step, the number of steps, the number of runs and optionally
+	 * 		  the number of threads and the number of steps between two lines of metrics.
+	 */
+	public static void main(String[] args) throws Exception{
+		if(args.length<4){
+			System.err.println("Usage: BatchRunner <scenario file> <dt> <steps> <runs> [<threads> [<interval>]]");
+			System.exit(1);
+		}
+		Scenario scenario = Scenario.read(Paths.get(args[0]));
+		double dt = Double.parseDouble(args[1]);
+		int steps = Integer.parseInt(args[2]);
+		int runs = Integer.parseInt(args[3]);
+		int threads = args.length>4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+		int interval = args.length>5 ? Integer.parseInt(args[5]) : Math.max(1, steps);
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+		ProgramScheduler scheduler = Boolean.getBoolean("asteroids.concurrentPrograms") ? new ProgramScheduler(ForkJoinPool.commonPool()) : null;
+		new BatchRunner(threads, scheduler).run(scenario, dt, steps, runs, new CsvMetricsWriter(out, interval));
+		out.flush();
+	}
+}
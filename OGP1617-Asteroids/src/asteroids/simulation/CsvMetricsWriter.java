@@ -0,0 +1,44 @@
+package asteroids.simulation;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * A class of simulation listeners that write the metrics of every step, or of every given number of steps,
+ * as comma separated values. Lines of different simulations are never interleaved.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class CsvMetricsWriter implements SimulationListener {
+
+	/**
+	 * Creates a new writer that writes the metrics of every given number of steps, starting with the header.
+	 *
+	 * @param writer
+	 * 		  The writer to which the metrics are written.
+	 * @param interval
+	 * 		  The number of steps between two written lines.
+	 * @throws IllegalArgumentException
+	 * 		   The interval is not positive.
+	 * 		   |interval<1
+	 */
+	public CsvMetricsWriter(Writer writer, int interval) throws IllegalArgumentException{
+		if(interval<1)
+			throw new IllegalArgumentException();
+		this.out = new PrintWriter(writer, true);
+		this.interval = interval;
+		this.out.println(StepMetrics.CSV_HEADER);
+	}
+
+	private final PrintWriter out;
+	private final int interval;
+
+	@Override
+	public void stepCompleted(StepMetrics metrics){
+		if(metrics.getStep()%this.interval != 0)
+			return;
+		synchronized(this.out){
+			this.out.println(metrics.toCsv());
+		}
+	}
+}
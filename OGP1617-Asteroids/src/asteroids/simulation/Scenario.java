@@ -0,0 +1,327 @@
+package asteroids.simulation;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import asteroids.model.*;
+import asteroids.part3.programs.internal.ParseOutcome;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of scenarios describing the initial state of a world.
+ * A scenario can build any number of independent worlds. Random entities of a scenario
+ * are placed with a seed, so that a world built with the same seed is always the same.
+ *
+ * A scenario can be read from a text with one entity per line:
+ * 		world <width> <height>
+ * 		ship <x> <y> <xVelocity> <yVelocity> <radius> <orientation> <mass> [<program file>]
+ * 		asteroid <x> <y> <xVelocity> <yVelocity> <radius>
+ * 		planetoid <x> <y> <xVelocity> <yVelocity> <radius> <distanceTraveled>
+ * 		bullet <x> <y> <xVelocity> <yVelocity> <radius>
+ * 		random-asteroids <count> <minRadius> <maxRadius> <maxSpeed>
+ * Empty lines and lines starting with # are ignored.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class Scenario {
+
+	/**
+	 * Creates a new scenario for worlds with the given size.
+	 *
+	 * @param width
+	 * 		  The width of the worlds.
+	 * @param height
+	 * 		  The height of the worlds.
+	 * @throws IllegalArgumentException
+	 * 		   The width or height is not a positive number.
+	 * 		   |!(width>0) || !(height>0)
+	 */
+	public Scenario(double width, double height) throws IllegalArgumentException{
+		if(!(width>0) || !(height>0))
+			throw new IllegalArgumentException();
+		this.width = width;
+		this.height = height;
+	}
+
+	private final double width;
+	private final double height;
+	private final List<EntitySpec> entities = new ArrayList<EntitySpec>();
+
+	/**
+	 * The number of positions that is tried for a random asteroid before it is skipped.
+	 */
+	private static final int MAX_ATTEMPTS = 100;
+
+	/**
+	 * Returns the width of the worlds of this scenario.
+	 */
+	@Basic
+	@Immutable
+	public double getWidth(){
+		return this.width;
+	}
+
+	/**
+	 * Returns the height of the worlds of this scenario.
+	 */
+	@Basic
+	@Immutable
+	public double getHeight(){
+		return this.height;
+	}
+
+	/**
+	 * Adds a ship to this scenario.
+	 *
+	 * @param programSource
+	 * 		  The source of the program of the ship, or null if the ship has no program.
+	 * @return This scenario.
+	 * @throws IllegalArgumentException
+	 * 		   The program source can't be parsed.
+	 */
+	public Scenario addShip(double x, double y, double xVelocity, double yVelocity, double radius,
+			double orientation, double mass, String programSource) throws IllegalArgumentException{
+		Program program = programSource == null ? null : parseProgram(programSource);
+		this.entities.add(new EntitySpec("ship", new double[]{x,y,xVelocity,yVelocity,radius,orientation,mass}, program));
+		return this;
+	}
+
+	/**
+	 * Adds an asteroid to this scenario.
+	 *
+	 * @return This scenario.
+	 */
+	public Scenario addAsteroid(double x, double y, double xVelocity, double yVelocity, double radius){
+		this.entities.add(new EntitySpec("asteroid", new double[]{x,y,xVelocity,yVelocity,radius}, null));
+		return this;
+	}
+
+	/**
+	 * Adds a planetoid to this scenario.
+	 *
+	 * @return This scenario.
+	 */
+	public Scenario addPlanetoid(double x, double y, double xVelocity, double yVelocity, double radius, double distanceTraveled){
+		this.entities.add(new EntitySpec("planetoid", new double[]{x,y,xVelocity,yVelocity,radius,distanceTraveled}, null));
+		return this;
+	}
+
+	/**
+	 * Adds a bullet to this scenario.
+	 *
+	 * @return This scenario.
+	 */
+	public Scenario addBullet(double x, double y, double xVelocity, double yVelocity, double radius){
+		this.entities.add(new EntitySpec("bullet", new double[]{x,y,xVelocity,yVelocity,radius}, null));
+		return this;
+	}
+
+	/**
+	 * Adds a number of asteroids at random positions to this scenario. The positions, velocities and radii
+	 * depend on the seed with which a world is built. An asteroid that can't be placed without overlapping
+	 * another entity after a number of attempts is left out.
+	 *
+	 * @param count
+	 * 		  The number of asteroids.
+	 * @param minRadius
+	 * 		  The minimal radius of the asteroids.
+	 * @param maxRadius
+	 * 		  The maximal radius of the asteroids.
+	 * @param maxSpeed
+	 * 		  The maximal speed of the asteroids in each direction.
+	 * @return This scenario.
+	 * @throws IllegalArgumentException
+	 * 		   The count is negative or the radii are not ordered.
+	 * 		   |count<0 || !(minRadius<=maxRadius)
+	 */
+	public Scenario addRandomAsteroids(int count, double minRadius, double maxRadius, double maxSpeed) throws IllegalArgumentException{
+		if(count<0 || !(minRadius<=maxRadius))
+			throw new IllegalArgumentException();
+		this.entities.add(new EntitySpec("random-asteroids", new double[]{count,minRadius,maxRadius,maxSpeed}, null));
+		return this;
+	}
+
+	/**
+	 * Builds a new world in the initial state of this scenario. The program of a ship is parsed once, when the ship
+	 * is added, and shared by the ships of all worlds built from this scenario.
+	 *
+	 * @param seed
+	 * 		  The seed of the random entities.
+	 * @return A new world with the entities of this scenario.
+	 * @throws IllegalArgumentException
+	 * 		   One of the entities of this scenario can't be placed in the world.
+	 */
+	public World createWorld(long seed) throws IllegalArgumentException{
+		World world = new World(this.getHeight(), this.getWidth());
+		Random random = new Random(seed);
+		for(EntitySpec spec:this.entities){
+			double[] v = spec.values;
+			switch(spec.kind){
+			case "ship":
+				Ship ship = new Ship(v[0], v[1], v[2], v[3], v[4], v[5], v[6]);
+				world.add(ship);
+				if(spec.program != null)
+					ship.setProgram(spec.program);
+				break;
+			case "asteroid":
+				world.add(new Asteroid(v[0], v[1], v[2], v[3], v[4]));
+				break;
+			case "planetoid":
+				world.add(new Planetoid(v[0], v[1], v[2], v[3], v[4], v[5]));
+				break;
+			case "bullet":
+				world.add(new Bullet(v[0], v[1], v[2], v[3], v[4]));
+				break;
+			default:
+				this.addRandomAsteroids(world, random, (int)v[0], v[1], v[2], v[3]);
+			}
+		}
+		return world;
+	}
+
+	/**
+	 * Adds asteroids at random positions to the given world.
+	 */
+	private void addRandomAsteroids(World world, Random random, int count, double minRadius, double maxRadius, double maxSpeed){
+		for(int i=0;i<count;i++){
+			double radius = minRadius+(maxRadius-minRadius)*random.nextDouble();
+			double xVelocity = maxSpeed*(2*random.nextDouble()-1);
+			double yVelocity = maxSpeed*(2*random.nextDouble()-1);
+			for(int attempt=0;attempt<MAX_ATTEMPTS;attempt++){
+				double x = radius+(this.getWidth()-2*radius)*random.nextDouble();
+				double y = radius+(this.getHeight()-2*radius)*random.nextDouble();
+				try{
+					world.add(new Asteroid(x, y, xVelocity, yVelocity, radius));
+					break;
+				}
+				catch(IllegalArgumentException exc){
+					// The asteroid overlaps with another entity, try another position.
+				}
+			}
+		}
+	}
+
+	/**
+	 * Parses the given program source, or returns the program that was parsed before from the same source.
+	 *
+	 * @throws IllegalArgumentException
+	 * 		   The source can't be parsed.
+	 */
+	private static Program parseProgram(String source) throws IllegalArgumentException{
+		ParseOutcome<Program> outcome = ProgramCache.getDefault().parse(source, new ProgramFactory());
+		if(outcome.isFail())
+			throw new IllegalArgumentException("Invalid program: " + outcome.getFailValue());
+		return outcome.getSuccessValue();
+	}
+
+	/**
+	 * Reads a scenario from the given file. Program files of ships are resolved against the directory of that file.
+	 *
+	 * @param file
+	 * 		  The file with the description of the scenario.
+	 * @return The scenario described by the file.
+	 * @throws IOException
+	 * 		   The file or one of its program files can't be read.
+	 * @throws IllegalArgumentException
+	 * 		   The description is not valid.
+	 */
+	public static Scenario read(Path file) throws IOException, IllegalArgumentException{
+		Path directory = file.toAbsolutePath().getParent();
+		return parse(Files.readAllLines(file, StandardCharsets.UTF_8), directory);
+	}
+
+	/**
+	 * Reads a scenario from the given lines.
+	 *
+	 * @param lines
+	 * 		  The lines of the description of the scenario.
+	 * @param directory
+	 * 		  The directory against which program files are resolved.
+	 * @return The scenario described by the lines.
+	 * @throws IOException
+	 * 		   One of the program files can't be read.
+	 * @throws IllegalArgumentException
+	 * 		   The description is not valid.
+	 */
+	public static Scenario parse(List<String> lines, Path directory) throws IOException, IllegalArgumentException{
+		Scenario scenario = null;
+		int lineNumber = 0;
+		for(String line:lines){
+			lineNumber++;
+			line = line.trim();
+			if(line.isEmpty() || line.startsWith("#"))
+				continue;
+			String[] words = line.split("\\s+");
+			try{
+				if(words[0].equals("world")){
+					if(scenario != null)
+						throw new IllegalArgumentException("Second world");
+					scenario = new Scenario(number(words,1), number(words,2));
+					continue;
+				}
+				if(scenario == null)
+					throw new IllegalArgumentException("Missing world");
+				switch(words[0]){
+				case "ship":
+					String program = null;
+					if(words.length>8)
+						program = new String(Files.readAllBytes(directory.resolve(words[8])), StandardCharsets.UTF_8);
+					scenario.addShip(number(words,1), number(words,2), number(words,3), number(words,4),
+							number(words,5), number(words,6), number(words,7), program);
+					break;
+				case "asteroid":
+					scenario.addAsteroid(number(words,1), number(words,2), number(words,3), number(words,4), number(words,5));
+					break;
+				case "planetoid":
+					scenario.addPlanetoid(number(words,1), number(words,2), number(words,3), number(words,4),
+							number(words,5), number(words,6));
+					break;
+				case "bullet":
+					scenario.addBullet(number(words,1), number(words,2), number(words,3), number(words,4), number(words,5));
+					break;
+				case "random-asteroids":
+					scenario.addRandomAsteroids((int)number(words,1), number(words,2), number(words,3), number(words,4));
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown entity " + words[0]);
+				}
+			}
+			catch(IllegalArgumentException exc){
+				throw new IllegalArgumentException("Line " + lineNumber + ": " + exc.getMessage(), exc);
+			}
+		}
+		if(scenario == null)
+			throw new IllegalArgumentException("Missing world");
+		return scenario;
+	}
+
+	/**
+	 * Returns the number at the given position of the words of a line.
+	 *
+	 * @throws IllegalArgumentException
+	 * 		   There is no number at that position.
+	 */
+	private static double number(String[] words, int index) throws IllegalArgumentException{
+		if(index>=words.length)
+			throw new IllegalArgumentException("Missing value for " + words[0]);
+		return Double.parseDouble(words[index]);
+	}
+
+	/**
+	 * A class of descriptions of the entities, or groups of random entities, of a scenario.
+	 */
+	private static class EntitySpec {
+
+		private EntitySpec(String kind, double[] values, Program program){
+			this.kind = kind;
+			this.values = values;
+			this.program = program;
+		}
+
+		private final String kind;
+		private final double[] values;
+		private final Program program;
+	}
+}
@@ -0,0 +1,19 @@
+package asteroids.simulation;
+
+/**
+ * An interface for listeners that receive the metrics of a simulation after every step.
+ * When simulations run in parallel, a listener is called from several threads at once.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public interface SimulationListener {
+
+	/**
+	 * Receives the metrics of a simulation after one of its steps.
+	 *
+	 * @param metrics
+	 * 		  The metrics after the step.
+	 */
+	public void stepCompleted(StepMetrics metrics);
+}
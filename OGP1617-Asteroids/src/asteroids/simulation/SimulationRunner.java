@@ -0,0 +1,188 @@
+package asteroids.simulation;
+import java.util.*;
+import java.util.concurrent.Callable;
+
+import asteroids.model.*;
+import asteroids.part2.CollisionListener;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of headless simulations of a single world. The world is stepped with a fixed time step
+ * as fast as possible. Before every step, the program of every ship is executed for that time step,
+ * as the GUI does with the actions of the player before it evolves the world. The programs are executed
+ * one after the other, or all at once by a program scheduler.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class SimulationRunner implements Callable<StepMetrics> {
+
+	/**
+	 * Creates a new simulation of a world built from the given scenario.
+	 *
+	 * @param scenario
+	 * 		  The scenario from which the world is built.
+	 * @param run
+	 * 		  The number of this run, which is also the seed of the random entities of the scenario.
+	 * @param dt
+	 * 		  The fixed time step.
+	 * @param steps
+	 * 		  The number of steps to simulate.
+	 * @param listener
+	 * 		  The listener that receives the metrics after every step, or null.
+	 * @throws NullPointerException
+	 * 		   The scenario is null.
+	 * 		   |scenario == null
+	 * @throws IllegalArgumentException
+	 * 		   The time step is not a positive number or the number of steps is negative.
+	 * 		   |!(dt>0) || steps<0
+	 */
+	public SimulationRunner(Scenario scenario, int run, double dt, int steps, SimulationListener listener)
+			throws NullPointerException, IllegalArgumentException{
+		this(scenario, run, dt, steps, listener, null);
+	}
+
+	/**
+	 * Creates a new simulation of a world built from the given scenario, of which the programs are executed
+	 * by the given scheduler.
+	 *
+	 * @param scenario
+	 * 		  The scenario from which the world is built.
+	 * @param run
+	 * 		  The number of this run, which is also the seed of the random entities of the scenario.
+	 * @param dt
+	 * 		  The fixed time step.
+	 * @param steps
+	 * 		  The number of steps to simulate.
+	 * @param listener
+	 * 		  The listener that receives the metrics after every step, or null.
+	 * @param scheduler
+	 * 		  The scheduler that executes the programs of the ships before every step,
+	 * 		  or null to execute them one after the other.
+	 * @throws NullPointerException
+	 * 		   The scenario is null.
+	 * 		   |scenario == null
+	 * @throws IllegalArgumentException
+	 * 		   The time step is not a positive number or the number of steps is negative.
+	 * 		   |!(dt>0) || steps<0
+	 */
+	public SimulationRunner(Scenario scenario, int run, double dt, int steps, SimulationListener listener,
+			ProgramScheduler scheduler) throws NullPointerException, IllegalArgumentException{
+		if(scenario == null)
+			throw new NullPointerException();
+		if(!(dt>0) || Double.isInfinite(dt) || steps<0)
+			throw new IllegalArgumentException();
+		this.scenario = scenario;
+		this.run = run;
+		this.dt = dt;
+		this.steps = steps;
+		this.listener = listener;
+		this.scheduler = scheduler;
+	}
+
+	private final Scenario scenario;
+	private final int run;
+	private final double dt;
+	private final int steps;
+	private final SimulationListener listener;
+	private final ProgramScheduler scheduler;
+
+	/**
+	 * Returns the number of this run.
+	 */
+	@Basic
+	@Immutable
+	public int getRun(){
+		return this.run;
+	}
+
+	/**
+	 * Runs the simulation.
+	 *
+	 * @return The metrics after the last step.
+	 */
+	@Override
+	public StepMetrics call(){
+		World world = this.scenario.createWorld(this.run);
+		CollisionCounter counter = new CollisionCounter();
+		ProgramCounter programs = new ProgramCounter();
+		StepMetrics metrics = this.measure(world, 0, counter, programs);
+		for(int step=1;step<=this.steps;step++){
+			List<Ship> ships = new ArrayList<Ship>();
+			for(Ship ship:world.getWorldShips()){
+				if(ship.getProgram() != null && !programs.failedShips.contains(ship))
+					ships.add(ship);
+			}
+			if(this.scheduler != null)
+				this.scheduler.execute(ships, this.dt, programs);
+			else{
+				for(Ship ship:ships){
+					if(ship.getWorld() != world)
+						continue;
+					try{
+						programs.programExecuted(ship, ship.executeProgram(this.dt));
+					}
+					catch(RuntimeException exc){
+						programs.programFailed(ship, exc);
+					}
+				}
+			}
+			world.evolve(this.dt, counter);
+			metrics = this.measure(world, step, counter, programs);
+		}
+		return metrics;
+	}
+
+	/**
+	 * Measures the world after the given step and passes the metrics to the listener.
+	 */
+	private StepMetrics measure(World world, int step, CollisionCounter counter, ProgramCounter programs){
+		StepMetrics metrics = new StepMetrics(this.run, step, step*this.dt, world.getWorldShips().size(),
+				world.getWorldBullets().size(), world.getWorldAsteroids().size(), world.getWorldPlanetoids().size(),
+				counter.boundaryCollisions, counter.objectCollisions, programs.printedValues, programs.programErrors);
+		if(this.listener != null)
+			this.listener.stepCompleted(metrics);
+		return metrics;
+	}
+
+	/**
+	 * A class of program listeners that count the values printed by the programs of a world and the programs that failed.
+	 * A ship of which the program failed doesn't execute it anymore.
+	 */
+	private static class ProgramCounter implements ProgramListener {
+
+		private final Set<Ship> failedShips = Collections.newSetFromMap(new IdentityHashMap<Ship,Boolean>());
+		private long printedValues = 0;
+		private long programErrors = 0;
+
+		@Override
+		public void programExecuted(Ship ship, List<Object> values){
+			this.printedValues += ship.getProgramContext().getRecentValues().size();
+		}
+
+		@Override
+		public void programFailed(Ship ship, RuntimeException exception){
+			this.failedShips.add(ship);
+			this.programErrors++;
+		}
+	}
+
+	/**
+	 * A class of collision listeners that count the collisions of a world.
+	 */
+	private static class CollisionCounter implements CollisionListener {
+
+		private long boundaryCollisions = 0;
+		private long objectCollisions = 0;
+
+		@Override
+		public void boundaryCollision(Object entity, double x, double y){
+			this.boundaryCollisions++;
+		}
+
+		@Override
+		public void objectCollision(Object entity1, Object entity2, double x, double y){
+			this.objectCollisions++;
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package asteroids.simulation;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of measurements of a simulation after one of its steps.
+ * The numbers of collisions, printed values and program errors are counted since the start of the simulation.
+ *
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+@Value
+public class StepMetrics {
+
+	/**
+	 * Creates new metrics.
+	 */
+	StepMetrics(int run, int step, double time, int ships, int bullets, int asteroids, int planetoids,
+			long boundaryCollisions, long objectCollisions, long printedValues, long programErrors){
+		this.run = run;
+		this.step = step;
+		this.time = time;
+		this.ships = ships;
+		this.bullets = bullets;
+		this.asteroids = asteroids;
+		this.planetoids = planetoids;
+		this.boundaryCollisions = boundaryCollisions;
+		this.objectCollisions = objectCollisions;
+		this.printedValues = printedValues;
+		this.programErrors = programErrors;
+	}
+
+	private final int run;
+	private final int step;
+	private final double time;
+	private final int ships;
+	private final int bullets;
+	private final int asteroids;
+	private final int planetoids;
+	private final long boundaryCollisions;
+	private final long objectCollisions;
+	private final long printedValues;
+	private final long programErrors;
+
+	/**
+	 * The header of the comma separated values of metrics.
+	 */
+	public static final String CSV_HEADER =
+			"run,step,time,ships,bullets,asteroids,planetoids,boundaryCollisions,objectCollisions,printedValues,programErrors";
+
+	/**
+	 * Returns the number of the simulation run.
+	 */
+	@Basic
+	public int getRun(){
+		return this.run;
+	}
+
+	/**
+	 * Returns the number of steps that have been simulated.
+	 */
+	@Basic
+	public int getStep(){
+		return this.step;
+	}
+
+	/**
+	 * Returns the simulated time.
+	 */
+	@Basic
+	public double getTime(){
+		return this.time;
+	}
+
+	/**
+	 * Returns the number of ships in the world.
+	 */
+	@Basic
+	public int getShips(){
+		return this.ships;
+	}
+
+	/**
+	 * Returns the number of bullets in the world.
+	 */
+	@Basic
+	public int getBullets(){
+		return this.bullets;
+	}
+
+	/**
+	 * Returns the number of asteroids in the world.
+	 */
+	@Basic
+	public int getAsteroids(){
+		return this.asteroids;
+	}
+
+	/**
+	 * Returns the number of planetoids in the world.
+	 */
+	@Basic
+	public int getPlanetoids(){
+		return this.planetoids;
+	}
+
+	/**
+	 * Returns the number of collisions with the boundary of the world.
+	 */
+	@Basic
+	public long getBoundaryCollisions(){
+		return this.boundaryCollisions;
+	}
+
+	/**
+	 * Returns the number of collisions between entities.
+	 */
+	@Basic
+	public long getObjectCollisions(){
+		return this.objectCollisions;
+	}
+
+	/**
+	 * Returns the number of values printed by the ship programs.
+	 */
+	@Basic
+	public long getPrintedValues(){
+		return this.printedValues;
+	}
+
+	/**
+	 * Returns the number of ship programs that failed.
+	 */
+	@Basic
+	public long getProgramErrors(){
+		return this.programErrors;
+	}
+
+	/**
+	 * Returns these metrics as comma separated values, in the order of CSV_HEADER.
+	 */
+	public String toCsv(){
+		return this.run + "," + this.step + "," + this.time + "," + this.ships + "," + this.bullets + ","
+				+ this.asteroids + "," + this.planetoids + "," + this.boundaryCollisions + "," + this.objectCollisions + ","
+				+ this.printedValues + "," + this.programErrors;
+	}
+
+	@Override
+	public boolean equals(Object other){
+		return (other instanceof StepMetrics) && this.toCsv().equals(((StepMetrics)other).toCsv());
+	}
+
+	@Override
+	public int hashCode(){
+		return this.toCsv().hashCode();
+	}
+
+	@Override
+	public String toString(){
+		return this.toCsv();
+	}
+}
@@ -0,0 +1,102 @@
+package asteroids.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import asteroids.model.*;
+import asteroids.part3.programs.internal.ParseOutcome;
+
+/**
+ * A class collecting tests for the cache of parsed programs.
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class ProgramCacheTests {
+
+	private static final String CODE = "def fib { if $1 < 1.5 { return $1; } return fib($1 + -1.0) + fib($1 + -2.0); } "
+			+ "a := 0.0; while a < 4.0 { a := a + 1.0; print fib(a) + (getradius self); if 2.5 < a { turn 0.1; } } "
+			+ "print getdir; ";
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * A factory of programs of another type than the default factory.
+	 */
+	private static class OtherProgramFactory extends ProgramFactory {
+	}
+
+	/**
+	 * Executes the given program on a new ship and returns the printed values and the orientation of the ship.
+	 */
+	private static List<Object> execute(Program program){
+		World world = new World(1000,1000);
+		Ship ship = new Ship(500,500,0,0,20,0,0);
+		world.add(ship);
+		ship.setProgram(program);
+		List<Object> results = new ArrayList<Object>(ship.executeProgram(1.0));
+		results.add(ship.getOrientation());
+		return results;
+	}
+
+	@Test
+	public void parse_SameSourceCase(){
+		ProgramCache cache = new ProgramCache(4);
+		Program program = cache.parse(CODE, new ProgramFactory()).getSuccessValue();
+		assertSame(program, cache.parse(new String(CODE), new ProgramFactory()).getSuccessValue());
+		assertNotSame(program, cache.parse(CODE, new OtherProgramFactory()).getSuccessValue());
+		assertNotSame(program, cache.parse(CODE + " ", new ProgramFactory()).getSuccessValue());
+		assertEquals(3, cache.size());
+	}
+
+	@Test
+	public void parse_LeastRecentlyUsedCase(){
+		ProgramCache cache = new ProgramCache(2);
+		Program a = cache.parse("print 1.0;", new ProgramFactory()).getSuccessValue();
+		Program b = cache.parse("print 2.0;", new ProgramFactory()).getSuccessValue();
+		assertSame(a, cache.parse("print 1.0;", new ProgramFactory()).getSuccessValue());
+		cache.parse("print 3.0;", new ProgramFactory());
+		assertEquals(2, cache.size());
+		assertSame(a, cache.parse("print 1.0;", new ProgramFactory()).getSuccessValue());
+		assertNotSame(b, cache.parse("print 2.0;", new ProgramFactory()).getSuccessValue());
+	}
+
+	@Test
+	public void parse_InvalidSourceCase(){
+		ProgramCache cache = new ProgramCache(2);
+		assertTrue(cache.parse("print ;", new ProgramFactory()).isFail());
+		assertEquals(0, cache.size());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void constructor_IllegalCapacityCase(){
+		new ProgramCache(0);
+	}
+
+	@Test
+	public void parse_TapeCase() throws IOException{
+		Path directory = folder.getRoot().toPath().resolve("tapes");
+		Program parsed = new ProgramCache(2, directory).parse(CODE, new ProgramFactory()).getSuccessValue();
+		assertEquals(1, directory.toFile().list().length);
+		ParseOutcome<Program> replayed = new ProgramCache(2, directory).parse(CODE, new OtherProgramFactory());
+		assertTrue(replayed.isSuccess());
+		assertNotSame(parsed, replayed.getSuccessValue());
+		assertEquals(execute(parsed), execute(replayed.getSuccessValue()));
+	}
+
+	@Test
+	public void parse_DamagedTapeCase() throws IOException{
+		Path directory = folder.getRoot().toPath();
+		new ProgramCache(2, directory).parse(CODE, new ProgramFactory());
+		Path tape = directory.resolve(directory.toFile().list()[0]);
+		Files.write(tape, Arrays.copyOf(Files.readAllBytes(tape), 40));
+		Program program = new ProgramCache(2, directory).parse(CODE, new ProgramFactory()).getSuccessValue();
+		assertEquals(execute(new ProgramCache(2).parse(CODE, new ProgramFactory()).getSuccessValue()), execute(program));
+	}
+}
@@ -0,0 +1,421 @@
+package asteroids.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import asteroids.model.*;
+import asteroids.part3.programs.SourceLocation;
+import asteroids.part3.programs.internal.ParseOutcome;
+import asteroids.part3.programs.internal.ProgramParser;
+import asteroids.part3.programs.internal.ProgramParserPool;
+
+/**
+ * A class collecting tests for the execution of programs.
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class ProgramTests {
+
+	private static Ship ship;
+
+	@Rule
+	public final ExpectedException exception = ExpectedException.none();
+
+	@Before
+	public void setUpMutableFixture(){
+		setUpShip();
+	}
+
+	/**
+	 * Loads the given code on the ship and executes it for the given time.
+	 */
+	private static List<Object> execute(String code, double time){
+		ship.setProgram(ProgramParser.parseProgramFromString(code, new ProgramFactory()));
+		return ship.executeProgram(time);
+	}
+
+	@Test
+	public void execute_RecursionThroughSameCallCase(){
+		String code = "def fib { if $1 < 1.5 { return $1; } return fib($1 + -1.0) + fib($1 + -2.0); } "
+				+ "print fib(12.0); ";
+		assertEquals(Arrays.asList((Object)144.0), execute(code, 1.0));
+	}
+
+	@Test
+	public void execute_FreshLocalsPerCallCase(){
+		String code = "def count { if $1 < 0.5 { return 0.0; } n := count($1 + -1.0); if n < 0.5 { m := 10.0; } "
+				+ "return n + m; } "
+				+ "m := 1.0; "
+				+ "print count(3.0); ";
+		assertEquals(Arrays.asList((Object)12.0), execute(code, 1.0));
+	}
+
+	@Test
+	public void execute_MissingReturnCase(){
+		exception.expect(IllegalArgumentException.class);
+		execute("def f { a := 1.0; } print f(); ", 1.0);
+	}
+
+	@Test
+	public void execute_CallToLaterFunctionCase(){
+		String code = "def f { return g($1) + 1.0; } def g { return $1 * 2.0; } "
+				+ "a := 0.0; while a < 3.0 { a := a + 1.0; print f(a); } ";
+		assertEquals(Arrays.asList((Object)3.0, 5.0, 7.0), execute(code, 1.0));
+	}
+
+	@Test
+	public void execute_ArithmeticCase(){
+		String code = "a := 2.0; "
+				+ "if ! (((sqrt(a * 8.0)) + (-(getradius self))) < -16.0) { print ((a + 1.0) * (getx self)) + (-(gety asteroid)); } "
+				+ "print (a < 3.0) == (a < 1.0); ";
+		assertEquals(Arrays.asList((Object)1400.0, false), execute(code, 1.0));
+	}
+
+	@Test
+	public void execute_EntityAfterWorldChangedCase(){
+		for(boolean compiled:new boolean[]{false, true}){
+			setUpShip();
+			Program program = ProgramParser.parseProgramFromString("print (getx asteroid) + (gety asteroid); ", new ProgramFactory());
+			ship.setProgram(program);
+			if(compiled)
+				assertTrue(program.compile());
+			ship.executeProgram(1.0);
+			Asteroid asteroid = ship.getNearestAsteroid();
+			asteroid.setPosX(300);
+			ship.executeProgram(1.0);
+			ship.getWorld().add(new Asteroid(600,600,0,0,20));
+			ship.executeProgram(1.0);
+			ship.getWorld().remove(asteroid);
+			ship.getWorld().moveForward(1.0);
+			assertEquals(Arrays.asList((Object)200.0, 400.0, 1200.0, 1200.0), ship.executeProgram(1.0));
+		}
+	}
+
+	@Test
+	public void schedule_BufferedActionsCase(){
+		World world = ship.getWorld();
+		Ship other = new Ship(800,800,0,0,20,0,0);
+		world.add(other);
+		for(Ship user:new Ship[]{ship, other}){
+			for(int i=0;i<3;i++)
+				user.addBullet(new Bullet(user.getPosX(),user.getPosY(),0,0,5));
+		}
+		ship.setProgram(ProgramParser.parseProgramFromString("fire; print bullet; turn 1.0; print getdir; fire; thrust; ",
+				new ProgramFactory()));
+		other.setProgram(ProgramParser.parseProgramFromString("print getx ship; print bullet; ", new ProgramFactory()));
+		final List<Object> outcomes = new ArrayList<Object>();
+		new ProgramScheduler(null).execute(Arrays.asList(other, ship), 1.0, new ProgramListener(){
+			@Override
+			public void programExecuted(Ship user, List<Object> values){
+				outcomes.add(user);
+				outcomes.add(new ArrayList<Object>(values));
+			}
+			@Override
+			public void programFailed(Ship user, RuntimeException exception){
+				outcomes.add(exception);
+			}
+		});
+		assertEquals(Arrays.asList(ship, Arrays.asList(null, 1.0), other, Arrays.asList(500.0, null)), outcomes);
+		assertEquals(2, world.getWorldBullets().size());
+		assertEquals(1.0, ship.getOrientation(), 0);
+		assertTrue(ship.getThrusterStatus());
+		assertFalse(ship.getProgramContext().isBufferingActions());
+		double[] directions = new double[2];
+		int i = 0;
+		for(Bullet bullet:world.getWorldBullets())
+			directions[i++] = Math.atan2(bullet.getVelY(), bullet.getVelX());
+		Arrays.sort(directions);
+		assertArrayEquals(new double[]{0.0, 1.0}, directions, 1E-9);
+	}
+
+	@Test
+	public void profile_CountsPerLocationCase() throws java.io.IOException{
+		String code = "x := 0.0;\nwhile x < 2.5 {\n  x := x + 1.0;\n  print x;\n}\nturn 0.5;\n";
+		Program program = ProgramParser.parseProgramFromString(code, new ProfilingProgramFactory());
+		ship.setProgram(program);
+		assertEquals(Arrays.asList((Object)1.0, 2.0, 3.0), ship.executeProgram(1.0));
+		assertEquals(0.5, ship.getOrientation(), 1E-9);
+		assertFalse(program.compile());
+		ProgramProfile profile = ship.getProgramContext().getProfile();
+		Map<String,Long> hits = new HashMap<String,Long>();
+		for(int slot=0;slot<program.getNbProfiled();slot++)
+			hits.put(program.getProfiledKind(slot) + program.getProfiledLocation(slot), profile.getHits(slot));
+		assertEquals(1, (long)hits.get("WhileStatement@2,0"));
+		assertEquals(4, (long)hits.get("SmallerExpression@2,6"));
+		assertEquals(3, (long)hits.get("PrintStatement@4,2"));
+		assertEquals(1, (long)hits.get("TurnStatement@6,0"));
+		ProfileReport report = new ProfileReport(program);
+		report.add(profile);
+		assertEquals(new HashSet<Integer>(Arrays.asList(1, 2, 3, 4, 6)), new HashSet<Integer>(report.getHotLines()));
+		java.io.StringWriter out = new java.io.StringWriter();
+		report.write(Arrays.asList(code.split("\n")), out);
+		assertTrue(out.toString().contains("print x;"));
+	}
+
+	@Test
+	public void print_EvaluatesOnceCase(){
+		Program program = ProgramParser.parseProgramFromString("x := 1.0;\nprint x + 2.0;\n", new ProfilingProgramFactory());
+		ship.setProgram(program);
+		assertEquals(Arrays.asList((Object)3.0), ship.executeProgram(1.0));
+		ProgramProfile profile = ship.getProgramContext().getProfile();
+		int nbExpressions = 0;
+		for(int slot=0;slot<program.getNbProfiled();slot++){
+			if(program.getProfiledLocation(slot).equals(new SourceLocation(2, 6))){
+				assertEquals(1, profile.getHits(slot));
+				nbExpressions++;
+			}
+		}
+		assertTrue(nbExpressions>0);
+	}
+
+	@Test
+	public void profile_OffCase(){
+		execute("print 1.0; ", 1.0);
+		assertEquals(0, ship.getProgram().getNbProfiled());
+		assertNull(ship.getProgramContext().getProfile());
+	}
+
+	@Test
+	public void print_BoundedByDefaultCase(){
+		String code = "x := 0.0; while x < 1999.5 { x := x + 1.0; print x; } ";
+		List<Object> values = execute(code, 1.0);
+		assertEquals(BoundedPrintSink.DEFAULT_CAPACITY, values.size());
+		assertEquals(2000.0-BoundedPrintSink.DEFAULT_CAPACITY+1, values.get(0));
+		assertEquals(2000.0, values.get(values.size()-1));
+		assertEquals(2000, ship.getProgramContext().getRecentValues().size());
+		ship.setProgram(ProgramParser.parseProgramFromString(code, new ProgramFactory()));
+		ship.getProgramContext().setPrintSink(new UnboundedPrintSink());
+		assertEquals(2000, ship.executeProgram(1.0).size());
+	}
+
+	@Test
+	public void print_RecentValuesCase(){
+		assertNull(execute("print 1.0; turn 0.1; print 2.0; turn 0.1; ", 0.3));
+		assertEquals(Arrays.asList((Object)1.0), ship.getProgramContext().getRecentValues());
+		assertEquals(Arrays.asList((Object)1.0, 2.0), ship.executeProgram(0.3));
+		assertEquals(Arrays.asList((Object)2.0), ship.getProgramContext().getRecentValues());
+		assertNull(ship.executeProgram(0.1));
+		assertTrue(ship.getProgramContext().getRecentValues().isEmpty());
+	}
+
+	@Test
+	public void print_AsyncSinkCase() throws java.io.IOException{
+		final List<Object> consumed = Collections.synchronizedList(new ArrayList<Object>());
+		java.nio.file.Path file = java.nio.file.Files.createTempFile("print", ".txt");
+		try{
+			AsyncPrintSink sink = new AsyncPrintSink(new BoundedPrintSink(2), consumed::add);
+			AsyncPrintSink writer = AsyncPrintSink.toFile(new BoundedPrintSink(2), file);
+			ship.setProgram(ProgramParser.parseProgramFromString("print 1.0; print bullet; print 3.0; ", new ProgramFactory()));
+			ship.getProgramContext().setPrintSink(sink);
+			assertEquals(Arrays.asList(null, (Object)3.0), ship.executeProgram(1.0));
+			ship.getProgramContext().setPrintSink(writer);
+			ship.executeProgram(1.0);
+			sink.close();
+			writer.close();
+			assertEquals(Arrays.asList(1.0, null, 3.0), consumed);
+			assertEquals(Arrays.asList("1.0", "null", "3.0"), java.nio.file.Files.readAllLines(file));
+			sink.print(4.0);
+			assertEquals(Arrays.asList(3.0, (Object)4.0), sink.getValues());
+			assertEquals(Arrays.asList(1.0, null, 3.0), consumed);
+		}
+		finally{
+			java.nio.file.Files.delete(file);
+		}
+	}
+
+	@Test
+	public void schedule_DifferentWorldsCase(){
+		Ship other = new Ship(500,500,0,0,20,0,0);
+		new World(1000,1000).add(other);
+		ship.setProgram(ProgramParser.parseProgramFromString("skip; ", new ProgramFactory()));
+		other.setProgram(ProgramParser.parseProgramFromString("skip; ", new ProgramFactory()));
+		exception.expect(IllegalArgumentException.class);
+		new ProgramScheduler(null).execute(Arrays.asList(ship, other), 1.0, null);
+	}
+
+	@Test
+	public void execute_ArithmeticOnEntityCase(){
+		exception.expect(IllegalArgumentException.class);
+		execute("a := self; print 1.0 + (a * 2.0); ", 1.0);
+	}
+
+	/**
+	 * Executes the given code on a new ship, interpreted or compiled, for the given times,
+	 * and returns the results of all executions and the orientation of the ship.
+	 */
+	private static List<Object> executeAll(String code, boolean compiled, double... times){
+		return executeAll(code, new ProgramFactory(), compiled, times);
+	}
+
+	private static List<Object> executeAll(String code, ProgramFactory factory, boolean compiled, double... times){
+		setUpShip();
+		Program program = ProgramParser.parseProgramFromString(code, factory);
+		ship.setProgram(program);
+		if(compiled)
+			assertTrue(program.compile());
+		List<Object> results = new ArrayList<Object>();
+		for(double time:times){
+			List<Object> values = ship.executeProgram(time);
+			results.add(values == null ? null : new ArrayList<Object>(values));
+		}
+		results.add(ship.getOrientation());
+		return results;
+	}
+
+	private static void setUpShip(){
+		World world = new World(1000,1000);
+		ship = new Ship(500,500,0,0,20,0,0);
+		world.add(ship);
+		world.add(new Asteroid(100,100,0,0,20));
+	}
+
+	@Test
+	public void compile_SameAsInterpretedCase(){
+		String code = "def fib { if $1 < 1.5 { return $1; } return fib($1 + -1.0) + fib($1 + -2.0); } "
+				+ "a := 0.0; "
+				+ "while a < 6.0 { a := a + 1.0; print fib(a); if 2.5 < a { turn 0.1; skip; } print (getx asteroid) + -a; } "
+				+ "print a == a; print a == 6.0; print ! (a < 1.0); ";
+		double[] times = {0.3, 0.1, 0.5, 0.05, 0.15, 1.0, 0.2};
+		assertEquals(executeAll(code, false, times), executeAll(code, true, times));
+	}
+
+	@Test
+	public void compile_SameErrorAsInterpretedCase(){
+		String code = "def f { skip; return 1.0; } print 1.0; print f(); ";
+		try{
+			executeAll(code, false, 1.0);
+			fail();
+		}
+		catch(IllegalArgumentException exc){
+			exception.expect(IllegalArgumentException.class);
+			executeAll(code, true, 1.0);
+		}
+	}
+
+	@Test
+	public void compile_SuspendedContextCase(){
+		Program program = ProgramParser.parseProgramFromString("skip; skip; print 1.0;", new ProgramFactory());
+		ship.setProgram(program);
+		assertNull(ship.executeProgram(0.3));
+		assertTrue(program.compile());
+		assertEquals(Arrays.asList((Object)1.0), ship.executeProgram(0.5));
+		assertFalse(ship.getProgramContext().isCompiled());
+		assertEquals(Arrays.asList((Object)1.0, 1.0), ship.executeProgram(1.0));
+		assertTrue(ship.getProgramContext().isCompiled());
+	}
+
+	private static final String SHARED_CODE = "def fib { if $1 < 1.5 { return $1; } return fib($1 + -1.0) + fib($1 + -2.0); } "
+			+ "a := getx self; "
+			+ "while a < (getx self) + 3.0 { print fib(a + -490.0) + (getradius self); turn 0.1; a := a + 1.0; } ";
+
+	@Test
+	public void execute_SharedProgramCase(){
+		Program program = ProgramParser.parseProgramFromString(SHARED_CODE, new ProgramFactory());
+		Ship other = new Ship(502,100,0,0,30,0,0);
+		ship.getWorld().add(other);
+		ship.setProgram(program);
+		other.setProgram(program);
+		assertSame(program, other.getProgram());
+		assertNull(ship.executeProgram(0.3));
+		assertNull(other.executeProgram(0.5));
+		assertEquals(Arrays.asList((Object)75.0, 109.0, 164.0), ship.executeProgram(1.0));
+		assertEquals(Arrays.asList((Object)174.0, 263.0, 407.0), other.executeProgram(1.0));
+		assertEquals(0.3, ship.getOrientation(), 1E-9);
+		assertEquals(0.3, other.getOrientation(), 1E-9);
+	}
+
+	@Test
+	public void execute_ConcurrentSharedProgramCase() throws Exception{
+		final Program program = ProgramParser.parseProgramFromString(SHARED_CODE, new ProgramFactory());
+		program.compile();
+		List<Callable<List<Object>>> tasks = new ArrayList<Callable<List<Object>>>();
+		for(int i=0;i<16;i++){
+			final boolean compiled = i%2 == 0;
+			tasks.add(new Callable<List<Object>>(){
+				@Override
+				public List<Object> call(){
+					World world = new World(1000,1000);
+					Ship user = new Ship(500,500,0,0,20,0,0);
+					world.add(user);
+					if(!compiled)
+						user.setProgram(ProgramParser.parseProgramFromString(SHARED_CODE, new ProgramFactory()));
+					else
+						user.setProgram(program);
+					List<Object> results = new ArrayList<Object>();
+					for(int step=0;step<5;step++){
+						List<Object> values = user.executeProgram(0.15);
+						results.add(values == null ? null : new ArrayList<Object>(values));
+					}
+					return results;
+				}
+			});
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try{
+			List<Future<List<Object>>> results = executor.invokeAll(tasks);
+			for(Future<List<Object>> result:results)
+				assertEquals(results.get(1).get(), result.get());
+		}
+		finally{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void parse_PoolCase(){
+		List<String> sources = new ArrayList<String>();
+		for(int i=0;i<40;i++)
+			sources.add(i%3 == 0 ? "print " + i + ".0 " : "a := " + i + ".0; print a + 1.0;");
+		List<ParseOutcome<Program>> outcomes = new ProgramParserPool<>(new ProgramFactory()).parseAll(sources);
+		assertEquals(sources.size(), outcomes.size());
+		for(int i=0;i<40;i++){
+			if(i%3 == 0){
+				assertTrue(outcomes.get(i).isFail());
+				assertFalse(outcomes.get(i).getFailValue().isEmpty());
+			}
+			else{
+				setUpShip();
+				ship.setProgram(outcomes.get(i).getSuccessValue());
+				assertEquals(Arrays.asList((Object)(i+1.0)), ship.executeProgram(1.0));
+			}
+		}
+	}
+
+	/**
+	 * A factory of programs that aren't optimized.
+	 */
+	private static class PlainProgramFactory extends ProgramFactory {
+		@Override
+		public Program createProgram(List<Function> functions, Statement main){
+			return new Program(functions, main);
+		}
+	}
+
+	@Test
+	public void optimize_SameAsPlainCase(){
+		String code = "i := 0.0; d := getdir; "
+				+ "while i < 4.0 { "
+				+ "  if 1.0 < 2.0 { print ((getx asteroid) * (2.0 + 3.0)) + i; } else { print self + 1.0; } "
+				+ "  e := getdir; print e == d; d := e; "
+				+ "  if ! (i < 2.0) { turn 0.1; } "
+				+ "  if 2.0 < 1.0 { print 1.0; } "
+				+ "  i := i + 1.0; "
+				+ "} "
+				+ "print getdir; ";
+		double[] times = {0.3, 0.1, 0.5, 0.05, 0.15, 1.0, 0.2};
+		assertEquals(executeAll(code, new PlainProgramFactory(), false, times), executeAll(code, false, times));
+		assertEquals(executeAll(code, new PlainProgramFactory(), false, times), executeAll(code, true, times));
+	}
+
+	@Test
+	public void optimize_HoistedErrorCase(){
+		String code = "i := 0.0; while i < 3.0 { if 1.0 < i { print (getx z) + 1.0; } z := 1.0; i := i + 1.0; } ";
+		exception.expect(IllegalArgumentException.class);
+		execute(code, 1.0);
+	}
+}
@@ -0,0 +1,116 @@
+package asteroids.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import asteroids.model.ProgramScheduler;
+import asteroids.model.World;
+import asteroids.simulation.*;
+
+/**
+ * A class collecting tests for the headless simulation of worlds.
+ * @author Senne Gielen & Jeffrey Quicken
+ *
+ */
+public class SimulationTests {
+
+	private static Scenario scenario;
+
+	@Rule
+	public final ExpectedException exception = ExpectedException.none();
+
+	@Before
+	public void setUpMutableFixture(){
+		scenario = new Scenario(2000,2000)
+				.addShip(1000, 1000, 0, 0, 40, 0, 1.0E20, "print getx self; turn 0.1; print gety self;")
+				.addRandomAsteroids(50, 10, 30, 100);
+	}
+
+	@Test
+	public void createWorld_SameSeedCase() {
+		World world1 = scenario.createWorld(3);
+		World world2 = scenario.createWorld(3);
+		assertEquals(51, world1.getNbCircles());
+		assertEquals(world1.getWorldAsteroids().size(), world2.getWorldAsteroids().size());
+		assertNotNull(world1.getWorldShips().iterator().next().getProgram());
+	}
+
+	@Test
+	public void run_ProgramsCase() throws Exception {
+		StepMetrics metrics = new SimulationRunner(scenario, 0, 0.1, 10, null).call();
+		assertEquals(10, metrics.getStep());
+		assertEquals(1.0, metrics.getTime(), 1E-9);
+		assertEquals(0, metrics.getProgramErrors());
+		assertTrue(metrics.getPrintedValues() >= 2);
+	}
+
+	@Test
+	public void run_IndependentOfThreadsCase() throws Exception {
+		List<StepMetrics> sequential = new BatchRunner(1).run(scenario, 0.05, 40, 6, null);
+		List<StepMetrics> parallel = new BatchRunner(3).run(scenario, 0.05, 40, 6, null);
+		assertEquals(6, sequential.size());
+		assertEquals(sequential, parallel);
+	}
+
+	@Test
+	public void run_ScheduledIndependentOfPoolCase() throws Exception {
+		String code = "a := 0.0; while a < 3.0 { a := a + 1.0; if (getdir) < 5.0 { turn 0.3; } fire; thrust; "
+				+ "print (getx asteroid) + (getx ship); thrust_off; } ";
+		Scenario ships = new Scenario(2000,2000);
+		for(int i=0;i<12;i++){
+			ships.addShip(150+150*i, 300+100*(i%3), 0, 0, 30, 0.5*i, 1.0E20, code);
+			ships.addAsteroid(150+150*i, 1200, 10*i-60, -100, 20+i);
+			ships.addBullet(100+150*i, 1700, 0, -200, 5);
+		}
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try{
+			for(int run=0;run<3;run++){
+				StepMetrics sequential = new SimulationRunner(ships, run, 0.1, 40, null, new ProgramScheduler(null)).call();
+				StepMetrics parallel = new SimulationRunner(ships, run, 0.1, 40, null, new ProgramScheduler(pool)).call();
+				assertEquals(sequential, parallel);
+				assertTrue(parallel.getPrintedValues() > 0);
+				assertEquals(0, parallel.getProgramErrors());
+			}
+		}
+		finally{
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void run_StreamsMetricsCase() throws Exception {
+		StringWriter out = new StringWriter();
+		new BatchRunner(2).run(scenario, 0.1, 4, 2, new CsvMetricsWriter(out, 2));
+		String[] lines = out.toString().trim().split("\\R");
+		assertEquals(StepMetrics.CSV_HEADER, lines[0]);
+		assertEquals(1+2*3, lines.length);
+	}
+
+	@Test
+	public void parse_LegalCase() throws Exception {
+		Scenario parsed = Scenario.parse(Arrays.asList("# a test", "world 500 400", "asteroid 100 100 10 0 20", "",
+				"random-asteroids 5 5 10 50"), Paths.get("."));
+		assertEquals(500, parsed.getWidth(), 1E-9);
+		assertEquals(400, parsed.getHeight(), 1E-9);
+		assertEquals(6, parsed.createWorld(0).getNbCircles());
+	}
+
+	@Test
+	public void parse_UnknownEntityCase() throws Exception {
+		exception.expect(IllegalArgumentException.class);
+		Scenario.parse(Arrays.asList("world 500 400", "spaceship 1 2 3"), Paths.get("."));
+	}
+
+	@Test
+	public void addShip_InvalidProgramCase() {
+		exception.expect(IllegalArgumentException.class);
+		scenario.addShip(100, 100, 0, 0, 20, 0, 0, "print ;");
+	}
+}
@@ -6,6 +6,7 @@ import org.junit.*;
 import org.junit.rules.ExpectedException;
 
 import asteroids.model.Bullet;
+import asteroids.model.MutableVector2D;
 import asteroids.model.Vector2D;
 import asteroids.model.World;
 
@@ -36,6 +37,23 @@ public class Vector2DTests {
 		vector1 = vector1.add(new Vector2D(0,15));
 		assertEquals(vector1,vector2);
 	}
+	
+	@Test
+	public void StaticHelpersCase(){
+		assertEquals(vector1.scalarProduct(vector2), Vector2D.scalarProduct(10, 5, 10, 20),EPSILON);
+		assertEquals(vector1.length(), Vector2D.length(10, 5),EPSILON);
+		assertEquals(5, Vector2D.distance(1, 1, 4, 5),EPSILON);
+	}
+	
+	@Test
+	public void MutableVectorCase(){
+		MutableVector2D scratch = new MutableVector2D(10,5);
+		assertSame(scratch, scratch.addScaled(0, 5, 3).multiply(2));
+		assertEquals(new Vector2D(20,40), scratch.toVector2D());
+		scratch.substract(20, 10).add(0, 10);
+		assertEquals(40, scratch.length(),EPSILON);
+		assertEquals(vector2, scratch.set(10, 20).toVector2D());
+	}
 
 
 }
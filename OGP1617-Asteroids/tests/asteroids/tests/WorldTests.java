@@ -9,6 +9,17 @@ import asteroids.model.World;
 import asteroids.part2.CollisionListener;
 import asteroids.model.Ship;
 import asteroids.model.Bullet;
+import asteroids.model.Asteroid;
+import asteroids.model.BroadPhase;
+import asteroids.model.BruteForceBroadPhase;
+import asteroids.model.Circle;
+import asteroids.model.Planetoid;
+import asteroids.model.UniformGridBroadPhase;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 
 /**
@@ -25,6 +36,7 @@ public class WorldTests {
 	private static World world2;
 	private static Ship ship1;
 	private static Bullet bullet1;
+	private static final double EPSILON = 0.0001;
 	private static CollisionListener collisionListener;
 	
 	@Rule
@@ -74,6 +86,85 @@ public class WorldTests {
 	}
 	
 		
+	@Test
+	public void moveForward_SamePositionCase() {
+		Ship ship2 = new Ship(100,100,0,0,10,0,10);
+		world2.add(ship1);
+		world2.add(new Ship(150,150,0,0,10,0,10));
+		world2.add(ship2);
+		ship2.setPosX(ship1.getPosX());
+		ship2.setPosY(ship1.getPosY());
+		world2.moveForward(0);
+		assertEquals(3, world2.getWorldShips().size());
+		assertEquals(ship1, world2.getEntityAtPos(ship1.getPosX(), ship1.getPosY()));
+		world2.remove(ship1);
+		assertEquals(ship2, world2.getEntityAtPos(ship2.getPosX(), ship2.getPosY()));
+		assertEquals(2, world2.getNbCircles());
+	}
+	
+	@Test
+	public void getWorldShips_LiveViewCase() {
+		java.util.Set<Ship> ships = world2.getWorldShips();
+		assertTrue(ships.isEmpty());
+		world2.add(ship1);
+		assertTrue(ships.contains(ship1));
+		assertFalse(world2.getWorldBullets().contains(ship1));
+		world2.remove(ship1);
+		assertTrue(ships.isEmpty());
+		exception.expect(UnsupportedOperationException.class);
+		ships.add(ship1);
+	}
+
+	@Test
+	public void getWorldShips_RemoveWhileIteratingCase() {
+		List<Ship> ships = new ArrayList<Ship>();
+		for(int i=0;i<5;i++){
+			Ship ship = new Ship(20+40*i,100,0,0,10,0,10);
+			ships.add(ship);
+			world2.add(ship);
+		}
+		List<Ship> visited = new ArrayList<Ship>();
+		for(Ship ship:world2.getWorldShips()){
+			visited.add(ship);
+			if(visited.size() == 2){
+				for(Ship other:ships){
+					if(!visited.contains(other)){
+						world2.remove(other);
+						break;
+					}
+				}
+			}
+		}
+		assertEquals(5, visited.size());
+		assertEquals(5, new java.util.HashSet<Ship>(visited).size());
+		assertEquals(4, world2.getWorldShips().size());
+		int count = 0;
+		for(Ship ship:world2.getWorldShips())
+			count += ships.contains(ship) ? 1 : 0;
+		assertEquals(4, count);
+	}
+
+	@Test
+	public void remove_KeepsPhysicalStateCase() {
+		Asteroid asteroid1 = new Asteroid(30,30,1,2,10);
+		Asteroid asteroid2 = new Asteroid(100,100,3,4,15);
+		Asteroid asteroid3 = new Asteroid(170,170,5,6,20);
+		world2.add(asteroid1);
+		world2.add(asteroid2);
+		world2.add(asteroid3);
+		world2.moveForward(1);
+		world2.remove(asteroid1);
+		assertEquals(31, asteroid1.getPosX(), EPSILON);
+		assertEquals(2, asteroid1.getVelY(), EPSILON);
+		assertEquals(10, asteroid1.getRadius(), EPSILON);
+		assertEquals(103, asteroid2.getPosX(), EPSILON);
+		assertEquals(176, asteroid3.getPosY(), EPSILON);
+		assertEquals(20, asteroid3.getRadius(), EPSILON);
+		asteroid1.move(1);
+		assertEquals(34, asteroid1.getPosY(), EPSILON);
+		assertEquals(103, asteroid2.getPosX(), EPSILON);
+	}
+
 	@Test
 	public void evolve_dtSmallerThanZero() {
 		exception.expect(IllegalArgumentException.class);
@@ -85,6 +176,184 @@ public class WorldTests {
 		
 	}
 	
+	@Test
+	public void evolve_ManyCollisionsCase() {
+		World world = new World(1000,1000);
+		for(int i=0;i<20;i++){
+			for(int j=0;j<20;j++)
+				world.add(new Asteroid(25+50*i,25+50*j,100*Math.cos(i+j),100*Math.sin(i*j),10));
+		}
+		world.evolve(100, collisionListener);
+		assertEquals(400, world.getWorldAsteroids().size());
+		for(Asteroid asteroid:world.getWorldAsteroids())
+			assertTrue(world.isWithinWorldBounds(asteroid));
+	}
+	
+	@Test
+	public void evolve_WearingPlanetoidsCase() {
+		World world = new World(1000,20000);
+		Planetoid planetoid1 = new Planetoid(100,500,10000,0,8,0);
+		Planetoid planetoid2 = new Planetoid(19900,500,-10000,0,8,0);
+		world.add(planetoid1);
+		world.add(planetoid2);
+		world.evolve(1.5, collisionListener);
+		assertTrue(planetoid1.getRadius()<8-0.008);
+		assertTrue(planetoid1.getVelX()<0);
+		assertTrue(planetoid2.getVelX()>0);
+		assertTrue(planetoid1.getPosX()<planetoid2.getPosX());
+	}
+	
+	@Test
+	public void evolve_NoMissedCollisionsCase() {
+		Random random = new Random(7);
+		World world = new World(2000,2000);
+		for(int i=0;i<300;i++){
+			double speed = i%20 == 0 ? 3000 : 100;
+			try{world.add(new Asteroid(50+1900*random.nextDouble(),50+1900*random.nextDouble(),
+					speed*(2*random.nextDouble()-1),speed*(2*random.nextDouble()-1),5+15*random.nextDouble()));}
+			catch(IllegalArgumentException e){}
+		}
+		for(int step=0;step<5;step++){
+			world.evolve(0.5, collisionListener);
+			List<Asteroid> asteroids = new ArrayList<Asteroid>(world.getWorldAsteroids());
+			for(int i=0;i<asteroids.size();i++){
+				assertTrue(world.isWithinWorldBounds(asteroids.get(i)));
+				for(int j=i+1;j<asteroids.size();j++)
+					assertFalse(asteroids.get(i).overlaps(asteroids.get(j)));
+			}
+		}
+	}
+	
+	@Test
+	public void getFirstCollisionArray_GridEqualsBruteForce() {
+		Random random = new Random(42);
+		World world = new World(5000,5000);
+		for(int i=0;i<400;i++){
+			try{world.add(new Asteroid(100+4800*random.nextDouble(),100+4800*random.nextDouble(),
+					200*random.nextDouble()-100,200*random.nextDouble()-100,5+20*random.nextDouble()));}
+			catch(IllegalArgumentException e){}
+		}
+		for(double horizon:new double[]{0.01,0.1,1,10,Double.POSITIVE_INFINITY}){
+			world.setBroadPhase(new BruteForceBroadPhase());
+			Object[] expected = world.getFirstCollisionArray(horizon);
+			world.setBroadPhase(new UniformGridBroadPhase());
+			Object[] actual = world.getFirstCollisionArray(horizon);
+			if((double)expected[0]<horizon)
+				assertArrayEquals(expected, actual);
+			else
+				assertTrue((double)actual[0]>=horizon);
+		}
+	}
+
+	@Test
+	public void getFirstCollisionArray_GridWithFastBulletsCase() {
+		Random random = new Random(11);
+		World world = new World(5000,5000);
+		for(int i=0;i<400;i++){
+			double speed = i%40 == 0 ? 250000 : 100;
+			try{world.add(new Bullet(100+4800*random.nextDouble(),100+4800*random.nextDouble(),
+					speed*(2*random.nextDouble()-1),speed*(2*random.nextDouble()-1),5+10*random.nextDouble()));}
+			catch(IllegalArgumentException e){}
+		}
+		for(double horizon:new double[]{0.01,1,Double.POSITIVE_INFINITY}){
+			world.setBroadPhase(new BruteForceBroadPhase());
+			Object[] expected = world.getFirstCollisionArray(horizon);
+			world.setBroadPhase(new UniformGridBroadPhase());
+			Object[] actual = world.getFirstCollisionArray(horizon);
+			if((double)expected[0]<horizon)
+				assertArrayEquals(expected, actual);
+			else
+				assertTrue((double)actual[0]>=horizon);
+		}
+		List<Circle> circles = new ArrayList<Circle>(world.getWorldBullets());
+		final int[] pairs = new int[1];
+		new UniformGridBroadPhase().findCandidatePairs(circles, 1, new BroadPhase.PairHandler(){
+			@Override
+			public void handle(int first, int second){
+				pairs[0]++;
+			}
+		});
+		assertTrue(pairs[0] < circles.size()*(circles.size()-1)/10);
+	}
+
+	@Test
+	public void getFirstCollisionArray_ParallelEqualsSequential() {
+		Random random = new Random(7);
+		World world = new World(3000,3000);
+		for(int i=0;i<600;i++){
+			try{world.add(new Asteroid(50+2900*random.nextDouble(),50+2900*random.nextDouble(),
+					200*random.nextDouble()-100,200*random.nextDouble()-100,5+10*random.nextDouble()));}
+			catch(IllegalArgumentException e){}
+		}
+		world.setBroadPhase(new BruteForceBroadPhase());
+		Object[] expected = world.getFirstCollisionArray();
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try{
+			world.setCollisionPool(pool);
+			world.setParallelThreshold(0);
+			assertArrayEquals(expected, world.getFirstCollisionArray());
+			world.setBroadPhase(new UniformGridBroadPhase());
+			assertArrayEquals(expected, world.getFirstCollisionArray());
+		}
+		finally{
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void getNearest_SameAsBruteForce() {
+		Random random = new Random(7);
+		World world = new World(3000,3000);
+		for(int i=0;i<400;i++){
+			try{world.add(new Asteroid(50+2900*random.nextDouble(),50+2900*random.nextDouble(),
+					200*random.nextDouble()-100,200*random.nextDouble()-100,5+30*random.nextDouble()));}
+			catch(IllegalArgumentException e){}
+		}
+		Ship ship = new Ship(1500,1500,0,0,20,0,0);
+		world.add(ship);
+		for(int step=0;step<20;step++){
+			List<Asteroid> nearest = world.getNearest(ship, Asteroid.class, 5, null);
+			double[] distances = new double[world.getWorldAsteroids().size()];
+			int i = 0;
+			for(Asteroid asteroid:world.getWorldAsteroids())
+				distances[i++] = asteroid.getDistanceBetween(ship);
+			Arrays.sort(distances);
+			assertEquals(5, nearest.size());
+			for(i=0;i<5;i++)
+				assertEquals(distances[i], nearest.get(i).getDistanceBetween(ship), 0);
+			assertSame(nearest.get(0), ship.getNearestAsteroid());
+			world.moveForward(0.5);
+		}
+	}
+
+	@Test
+	public void getNearest_NegativeCountCase() {
+		exception.expect(IllegalArgumentException.class);
+		world1.getNearest(ship1, Asteroid.class, -1, null);
+	}
+
+	@Test
+	public void getVersion_ChangesCase() {
+		long version = world2.getVersion();
+		world2.add(ship1);
+		assertTrue(world2.getVersion() != version);
+		version = world2.getVersion();
+		world2.getNearest(ship1, Ship.class, 1, null);
+		ship1.turn(0.5);
+		assertEquals(version, world2.getVersion());
+		world2.moveForward(0.1);
+		assertTrue(world2.getVersion() != version);
+		version = world2.getVersion();
+		world2.remove(ship1);
+		assertTrue(world2.getVersion() != version);
+	}
+
+	@Test
+	public void setParallelThreshold_NegativeCase() {
+		exception.expect(IllegalArgumentException.class);
+		world1.setParallelThreshold(-1);
+	}
+	
 	
 	
 }